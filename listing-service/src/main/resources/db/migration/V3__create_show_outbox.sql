@@ -0,0 +1,98 @@
+-- Outbox of the denormalized show search index: every show is published with its movie's
+-- title and genre and its theater's location, so the indexer never has to join.
+CREATE TABLE show_outbox_events (
+                               id UUID PRIMARY KEY,
+                               -- SHOW: payload is the show as indexed, THEATER: its new location
+                               aggregate_type VARCHAR(255) NOT NULL,
+                               aggregate_id BIGINT NOT NULL,
+                               type VARCHAR(255) NOT NULL,
+                               payload JSONB NOT NULL,
+                               created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- The show joined with its movie and its theater's address
+CREATE OR REPLACE FUNCTION public.show_search_payload(p_show_id BIGINT)
+RETURNS JSONB AS $$
+SELECT jsonb_build_object(
+               'id', s.id,
+               'title', s.title,
+               'theater_name', s.theater_name,
+               'screen', s.screen,
+               'show_time', s.show_time,
+               'ticket_price', s.ticket_price,
+               'movie_id', s.movie_id,
+               'theater_id', s.theater_id,
+               'movie_title', m.title,
+               'genre', m.genre,
+               'city', a.city,
+               'latitude', a.latitude,
+               'longitude', a.longitude)
+FROM public.show s
+         LEFT JOIN public.movie m ON m.id = s.movie_id
+         LEFT JOIN public.theater t ON t.id = s.theater_id
+         LEFT JOIN public.address a ON a.id = t.address_id
+WHERE s.id = p_show_id;
+$$ LANGUAGE sql STABLE;
+
+CREATE OR REPLACE FUNCTION public.theater_location_payload(p_theater_id BIGINT)
+RETURNS JSONB AS $$
+SELECT jsonb_build_object(
+               'id', t.id,
+               'city', a.city,
+               'latitude', a.latitude,
+               'longitude', a.longitude)
+FROM public.theater t
+         LEFT JOIN public.address a ON a.id = t.address_id
+WHERE t.id = p_theater_id;
+$$ LANGUAGE sql STABLE;
+
+CREATE OR REPLACE FUNCTION public.handle_show_outbox_event()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP = 'DELETE' THEN
+        INSERT INTO public.show_outbox_events (id, aggregate_type, aggregate_id, type, payload, created_at)
+        VALUES (gen_random_uuid(), 'SHOW', OLD.id, 'DELETED', jsonb_build_object('id', OLD.id), CURRENT_TIMESTAMP);
+    ELSE
+        INSERT INTO public.show_outbox_events (id, aggregate_type, aggregate_id, type, payload, created_at)
+        VALUES (gen_random_uuid(), 'SHOW', NEW.id,
+                CASE TG_OP WHEN 'INSERT' THEN 'CREATED' ELSE 'UPDATED' END,
+                public.show_search_payload(NEW.id), CURRENT_TIMESTAMP);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- A theater moved to another address, or its address changed: its shows get the new location.
+-- Movie changes need no trigger here, the indexer follows movie_outbox_events.
+CREATE OR REPLACE FUNCTION public.handle_theater_location_event()
+RETURNS TRIGGER AS $$
+BEGIN
+    INSERT INTO public.show_outbox_events (id, aggregate_type, aggregate_id, type, payload, created_at)
+    SELECT gen_random_uuid(), 'THEATER', t.id, 'UPDATED', public.theater_location_payload(t.id), CURRENT_TIMESTAMP
+    FROM public.theater t
+    WHERE (TG_TABLE_NAME = 'theater' AND t.id = NEW.id)
+       OR (TG_TABLE_NAME = 'address' AND t.address_id = NEW.id);
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER show_outbox_trigger
+    AFTER INSERT OR UPDATE OR DELETE ON public.show
+    FOR EACH ROW
+    EXECUTE FUNCTION public.handle_show_outbox_event();
+
+CREATE TRIGGER theater_location_outbox_trigger
+    AFTER UPDATE OF address_id ON public.theater
+    FOR EACH ROW
+    EXECUTE FUNCTION public.handle_theater_location_event();
+
+CREATE TRIGGER address_location_outbox_trigger
+    AFTER UPDATE OF city, latitude, longitude ON public.address
+    FOR EACH ROW
+    EXECUTE FUNCTION public.handle_theater_location_event();
+
+-- Publishes the existing shows once, so the index is complete without a separate reindex
+-- (the connector must already include this table when the migration runs)
+INSERT INTO public.show_outbox_events (id, aggregate_type, aggregate_id, type, payload, created_at)
+SELECT gen_random_uuid(), 'SHOW', s.id, 'CREATED', public.show_search_payload(s.id), CURRENT_TIMESTAMP
+FROM public.show s;
@@ -0,0 +1,37 @@
+-- Debezium keys outbox records by aggregate_id (see message.key.columns in the connector), so
+-- every event of one movie lands on the same partition and is consumed in order.
+ALTER TABLE movie_outbox_events ADD COLUMN aggregate_id BIGINT;
+
+UPDATE movie_outbox_events SET aggregate_id = (payload ->> 'id')::BIGINT WHERE aggregate_id IS NULL;
+
+ALTER TABLE movie_outbox_events ALTER COLUMN aggregate_id SET NOT NULL;
+
+CREATE OR REPLACE FUNCTION public.handle_movie_outbox_event()
+RETURNS TRIGGER AS $$
+DECLARE
+event_type TEXT;
+event_payload JSONB;
+BEGIN
+    -- Determine event type based on operation
+CASE TG_OP
+        WHEN 'INSERT' THEN
+            event_type := 'CREATED';
+            event_payload := row_to_json(NEW)::jsonb;
+WHEN 'UPDATE' THEN
+            event_type := 'UPDATED';
+            event_payload := row_to_json(NEW)::jsonb;
+WHEN 'DELETE' THEN
+            event_type := 'DELETED';
+            event_payload := row_to_json(OLD)::jsonb;
+END CASE;
+
+-- Insert into outbox_events table atomically
+INSERT INTO public.movie_outbox_events (
+    id, aggregate_type, aggregate_id, type, payload, created_at
+) VALUES (
+             gen_random_uuid(), 'MOVIE', (event_payload ->> 'id')::BIGINT, event_type,
+             event_payload, CURRENT_TIMESTAMP
+         );
+RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
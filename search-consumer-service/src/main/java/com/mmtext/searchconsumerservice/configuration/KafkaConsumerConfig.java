@@ -0,0 +1,98 @@
+package com.mmtext.searchconsumerservice.configuration;
+
+import com.mmtext.searchconsumerservice.processing.KeyOrderedDispatcher;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.kafka.ConcurrentKafkaListenerContainerFactoryConfigurer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.util.backoff.ExponentialBackOff;
+
+import java.time.Duration;
+
+@Configuration
+public class KafkaConsumerConfig {
+
+    @Value("${kafka.retry.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${kafka.retry.backoff-delay:1000}")
+    private long backoffDelay;
+
+    @Value("${kafka.retry.multiplier:2.0}")
+    private double multiplier;
+
+    /**
+     * Batch listener container: the listener receives a whole poll and acknowledges it
+     * manually once Elasticsearch has answered. A {@code BatchListenerFailedException}
+     * commits everything before the failed record and redelivers from there; this handler is
+     * the only retry layer, and a record that keeps failing goes to the dead letter topic.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<Object, Object> batchKafkaListenerContainerFactory(
+            ConcurrentKafkaListenerContainerFactoryConfigurer configurer,
+            ConsumerFactory<Object, Object> consumerFactory,
+            DeadLetterPublishingRecoverer deadLetterRecoverer) {
+        ConcurrentKafkaListenerContainerFactory<Object, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        configurer.configure(factory, consumerFactory);
+        factory.setBatchListener(true);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        factory.setCommonErrorHandler(new DefaultErrorHandler(deadLetterRecoverer, retryBackOff()));
+        return factory;
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "kafka.listener", name = "mode", havingValue = "parallel")
+    public KeyOrderedDispatcher keyOrderedDispatcher(@Value("${kafka.parallel.lanes:16}") int lanes,
+                                                     @Value("${kafka.parallel.max-in-flight:1000}") int maxInFlight,
+                                                     @Value("${kafka.parallel.revoke-timeout:30s}") Duration revokeTimeout,
+                                                     DeadLetterPublishingRecoverer deadLetterRecoverer) {
+        return new KeyOrderedDispatcher(lanes, maxInFlight, revokeTimeout, deadLetterRecoverer);
+    }
+
+    /**
+     * Parallel listener container: offsets are never acknowledged through the container,
+     * the {@link KeyOrderedDispatcher} commits them itself and drains revoked partitions.
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "kafka.listener", name = "mode", havingValue = "parallel")
+    public ConcurrentKafkaListenerContainerFactory<Object, Object> parallelKafkaListenerContainerFactory(
+            ConcurrentKafkaListenerContainerFactoryConfigurer configurer,
+            ConsumerFactory<Object, Object> consumerFactory,
+            KeyOrderedDispatcher dispatcher) {
+        ConcurrentKafkaListenerContainerFactory<Object, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        configurer.configure(factory, consumerFactory);
+        factory.setBatchListener(true);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        factory.getContainerProperties().setConsumerRebalanceListener(dispatcher);
+        factory.getContainerProperties().setIdleEventInterval(1000L);
+        return factory;
+    }
+
+    /**
+     * Publishes records that are given up on to {@code <source topic><kafka.topic.dlq-suffix>}, so
+     * movie and show dead letters stay apart, with the original topic, partition, offset and
+     * exception in the record headers.
+     */
+    @Bean
+    public DeadLetterPublishingRecoverer deadLetterRecoverer(KafkaTemplate<Object, Object> kafkaTemplate,
+                                                             @Value("${kafka.topic.dlq-suffix:.dlq}") String dlqSuffix) {
+        // A negative partition lets the producer pick one, the DLQ need not mirror the source partitions
+        return new DeadLetterPublishingRecoverer(kafkaTemplate,
+                (record, e) -> new TopicPartition(record.topic() + dlqSuffix, -1));
+    }
+
+    @Bean
+    public ExponentialBackOff retryBackOff() {
+        ExponentialBackOff backOff = new ExponentialBackOff(backoffDelay, multiplier);
+        backOff.setMaxAttempts(maxAttempts);
+        return backOff;
+    }
+}
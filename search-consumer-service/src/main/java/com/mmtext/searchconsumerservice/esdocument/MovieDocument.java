@@ -2,16 +2,22 @@ package com.mmtext.searchconsumerservice.esdocument;
 
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.elasticsearch.annotations.CompletionField;
 import org.springframework.data.elasticsearch.annotations.Document;
 import org.springframework.data.elasticsearch.annotations.Field;
 import org.springframework.data.elasticsearch.annotations.FieldType;
+import org.springframework.data.elasticsearch.core.suggest.Completion;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 
 
 @Document(indexName = "movie")
 public class MovieDocument {
 
+    private static final int MAX_SUGGEST_INPUTS = 8;
+
     @Id
     private Long id;
 
@@ -34,6 +40,34 @@ public class MovieDocument {
     @Field(type = FieldType.Nested, includeInParent = true)
     private List<ShowDocument> shows;
 
+    // Autocomplete inputs: the title and every suffix of it that starts at a word
+    @CompletionField(analyzer = "standard", searchAnalyzer = "standard", maxInputLength = 100)
+    private Completion suggest;
+
+    /**
+     * Completion inputs for a title, so that "man" suggests "Spider-Man: No Way Home" as
+     * well as "Man of Steel". Words are lower-cased letter/digit runs, the same split
+     * search-service uses for its suggest cache keys.
+     */
+    public static Completion suggestFor(String title) {
+        if (title == null || title.isBlank()) {
+            return null;
+        }
+        List<String> inputs = new ArrayList<>();
+        inputs.add(title);
+        String[] words = title.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+");
+        List<String> nonEmpty = new ArrayList<>();
+        for (String word : words) {
+            if (!word.isEmpty()) {
+                nonEmpty.add(word);
+            }
+        }
+        for (int start = 1; start < nonEmpty.size() && inputs.size() < MAX_SUGGEST_INPUTS; start++) {
+            inputs.add(String.join(" ", nonEmpty.subList(start, nonEmpty.size())));
+        }
+        return new Completion(inputs);
+    }
+
     public Long getId() {
         return id;
     }
@@ -89,5 +123,12 @@ public class MovieDocument {
     public void setShows(List<ShowDocument> shows) {
         this.shows = shows;
     }
-}
 
+    public Completion getSuggest() {
+        return suggest;
+    }
+
+    public void setSuggest(Completion suggest) {
+        this.suggest = suggest;
+    }
+}
@@ -5,6 +5,8 @@ import org.springframework.data.elasticsearch.annotations.DateFormat;
 import org.springframework.data.elasticsearch.annotations.Document;
 import org.springframework.data.elasticsearch.annotations.Field;
 import org.springframework.data.elasticsearch.annotations.FieldType;
+import org.springframework.data.elasticsearch.annotations.GeoPointField;
+import org.springframework.data.elasticsearch.core.geo.GeoPoint;
 
 import java.time.OffsetDateTime;
 
@@ -35,6 +37,18 @@ public class ShowDocument {
     @Field(type = FieldType.Long)
     private Long theaterId;
 
+    // Copied from the movie and the theater when indexed, so show queries need no join
+    @Field(type = FieldType.Text, analyzer = "standard")
+    private String movieTitle;
+
+    @Field(type = FieldType.Keyword)
+    private String genre;
+
+    @Field(type = FieldType.Keyword)
+    private String city;
+
+    @GeoPointField
+    private GeoPoint location;
 
     public Long getId() {
         return id;
@@ -99,5 +113,36 @@ public class ShowDocument {
     public void setTheaterId(Long theaterId) {
         this.theaterId = theaterId;
     }
-}
 
+    public String getMovieTitle() {
+        return movieTitle;
+    }
+
+    public void setMovieTitle(String movieTitle) {
+        this.movieTitle = movieTitle;
+    }
+
+    public String getGenre() {
+        return genre;
+    }
+
+    public void setGenre(String genre) {
+        this.genre = genre;
+    }
+
+    public String getCity() {
+        return city;
+    }
+
+    public void setCity(String city) {
+        this.city = city;
+    }
+
+    public GeoPoint getLocation() {
+        return location;
+    }
+
+    public void setLocation(GeoPoint location) {
+        this.location = location;
+    }
+}
@@ -0,0 +1,76 @@
+package com.mmtext.searchconsumerservice.event;
+
+import com.mmtext.searchconsumerservice.esdocument.MovieDocument;
+
+/**
+ * A decoded Debezium change event from {@code movie_outbox_events}, reduced to
+ * what the indexer needs: what to do and with which movie.
+ */
+public class MovieOutboxEvent {
+
+    public enum Action {
+        UPSERT,
+        DELETE,
+        SKIP
+    }
+
+    private final Action action;
+    private final Long movieId;
+    private final MovieDocument movie;
+    private final String eventType;
+    // Postgres LSN of the outbox row (source.lsn), orders changes of one movie across partitions
+    private Long sourceLsn;
+
+    private MovieOutboxEvent(Action action, Long movieId, MovieDocument movie, String eventType) {
+        this.action = action;
+        this.movieId = movieId;
+        this.movie = movie;
+        this.eventType = eventType;
+    }
+
+    public static MovieOutboxEvent upsert(MovieDocument movie, String eventType) {
+        return new MovieOutboxEvent(Action.UPSERT, movie.getId(), movie, eventType);
+    }
+
+    public static MovieOutboxEvent delete(Long movieId, String eventType) {
+        return new MovieOutboxEvent(Action.DELETE, movieId, null, eventType);
+    }
+
+    public static MovieOutboxEvent skip(String reason) {
+        return new MovieOutboxEvent(Action.SKIP, null, null, reason);
+    }
+
+    public Action getAction() {
+        return action;
+    }
+
+    public Long getMovieId() {
+        return movieId;
+    }
+
+    public MovieDocument getMovie() {
+        return movie;
+    }
+
+    public String getEventType() {
+        return eventType;
+    }
+
+    public Long getSourceLsn() {
+        return sourceLsn;
+    }
+
+    public void setSourceLsn(Long sourceLsn) {
+        this.sourceLsn = sourceLsn;
+    }
+
+    /** Whether this change was written to Postgres before {@code other}; unknown without both LSNs. */
+    public boolean isOlderThan(MovieOutboxEvent other) {
+        return sourceLsn != null && other.sourceLsn != null && sourceLsn < other.sourceLsn;
+    }
+
+    @Override
+    public String toString() {
+        return action + "(movieId=" + movieId + ", eventType=" + eventType + ")";
+    }
+}
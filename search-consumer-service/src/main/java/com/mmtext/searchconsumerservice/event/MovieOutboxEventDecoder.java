@@ -0,0 +1,197 @@
+package com.mmtext.searchconsumerservice.event;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mmtext.searchconsumerservice.esdocument.MovieDocument;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * Turns a raw Debezium envelope for {@code movie_outbox_events} into a {@link MovieOutboxEvent}.
+ *
+ * The envelope is read in a single streaming pass: {@code op}, {@code before.id},
+ * {@code source.lsn}, {@code after.type} and the movie fields of {@code after.payload} are
+ * pulled straight into a {@link MovieDocument} without building a {@code JsonNode} tree. The
+ * jsonb payload arrives as JSON text and is parsed from the parser's own character buffer.
+ *
+ * Outbox rows are only ever inserted, so a movie deletion arrives as {@code op = c}
+ * with {@code after.type = DELETED}; {@code op = d} is only honoured when the
+ * {@code before} image carries a numeric movie id.
+ */
+@Component
+public class MovieOutboxEventDecoder {
+
+    private final JsonFactory jsonFactory;
+
+    public MovieOutboxEventDecoder(ObjectMapper objectMapper) {
+        this.jsonFactory = objectMapper.getFactory();
+    }
+
+    public MovieOutboxEvent decode(String message) throws IOException {
+        String operation = null;
+        Long beforeId = null;
+        String eventType = null;
+        MovieDocument movie = null;
+        boolean hasPayload = false;
+        Long sourceLsn = null;
+
+        try (JsonParser parser = jsonFactory.createParser(message)) {
+            expect(parser.nextToken(), JsonToken.START_OBJECT);
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                switch (field) {
+                    case "op":
+                        operation = parser.getText();
+                        break;
+                    case "before":
+                        beforeId = value == JsonToken.START_OBJECT ? readId(parser) : null;
+                        break;
+                    case "source":
+                        sourceLsn = value == JsonToken.START_OBJECT ? readLsn(parser) : null;
+                        break;
+                    case "after":
+                        if (value != JsonToken.START_OBJECT) {
+                            break;
+                        }
+                        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                            String afterField = parser.currentName();
+                            JsonToken afterValue = parser.nextToken();
+                            if ("type".equals(afterField)) {
+                                eventType = parser.getText();
+                            } else if ("payload".equals(afterField)) {
+                                hasPayload = afterValue != JsonToken.VALUE_NULL;
+                                movie = readPayload(parser, afterValue);
+                            } else {
+                                parser.skipChildren();
+                            }
+                        }
+                        break;
+                    default:
+                        parser.skipChildren();
+                        break;
+                }
+            }
+        }
+
+        MovieOutboxEvent event = toEvent(operation, beforeId, eventType, movie, hasPayload);
+        event.setSourceLsn(sourceLsn);
+        return event;
+    }
+
+    private static MovieOutboxEvent toEvent(String operation, Long beforeId, String eventType,
+                                            MovieDocument movie, boolean hasPayload) {
+        if ("d".equals(operation)) {
+            return beforeId != null
+                    ? MovieOutboxEvent.delete(beforeId, "DELETED")
+                    : MovieOutboxEvent.skip("delete without movie id");
+        }
+        if (eventType == null || !hasPayload) {
+            return MovieOutboxEvent.skip("no after.payload");
+        }
+        if (movie == null || movie.getId() == null) {
+            return MovieOutboxEvent.skip("payload without movie id");
+        }
+
+        switch (String.valueOf(operation)) {
+            case "c":
+            case "r":
+            case "u":
+                return "DELETED".equals(eventType)
+                        ? MovieOutboxEvent.delete(movie.getId(), eventType)
+                        : MovieOutboxEvent.upsert(movie, eventType);
+            default:
+                return MovieOutboxEvent.skip("unsupported operation " + operation);
+        }
+    }
+
+    private MovieDocument readPayload(JsonParser parser, JsonToken token) throws IOException {
+        if (token == JsonToken.START_OBJECT) {
+            return readMovie(parser);
+        }
+        if (token != JsonToken.VALUE_STRING) {
+            parser.skipChildren();
+            return null;
+        }
+        // jsonb columns are emitted by Debezium as JSON text
+        try (JsonParser payloadParser = jsonFactory.createParser(
+                parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength())) {
+            return payloadParser.nextToken() == JsonToken.START_OBJECT ? readMovie(payloadParser) : null;
+        }
+    }
+
+    /** Reads the {@code row_to_json(movie)} object the outbox trigger stores as payload. */
+    private static MovieDocument readMovie(JsonParser parser) throws IOException {
+        MovieDocument movie = new MovieDocument();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if (value == JsonToken.VALUE_NULL) {
+                continue;
+            }
+            switch (field) {
+                case "id":
+                    movie.setId(parser.getValueAsLong());
+                    break;
+                case "title":
+                    movie.setTitle(parser.getText());
+                    break;
+                case "language":
+                    movie.setLanguage(parser.getText());
+                    break;
+                case "genre":
+                    movie.setGenre(parser.getText());
+                    break;
+                case "duration_min":
+                case "durationMin":
+                    movie.setDurationMin(parser.getValueAsInt());
+                    break;
+                case "rating":
+                    movie.setRating(parser.getValueAsString());
+                    break;
+                default:
+                    parser.skipChildren();
+                    break;
+            }
+        }
+        movie.setSuggest(MovieDocument.suggestFor(movie.getTitle()));
+        return movie;
+    }
+
+    private static Long readId(JsonParser parser) throws IOException {
+        Long id = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if ("id".equals(field) && value == JsonToken.VALUE_NUMBER_INT) {
+                id = parser.getLongValue();
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return id;
+    }
+
+    private static Long readLsn(JsonParser parser) throws IOException {
+        Long lsn = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if ("lsn".equals(field) && value == JsonToken.VALUE_NUMBER_INT) {
+                lsn = parser.getLongValue();
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return lsn;
+    }
+
+    private static void expect(JsonToken actual, JsonToken expected) throws IOException {
+        if (actual != expected) {
+            throw new IOException("Expected " + expected + " but found " + actual);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.mmtext.searchconsumerservice.event;
+
+import com.mmtext.searchconsumerservice.esdocument.MovieDocument;
+import com.mmtext.searchconsumerservice.esdocument.ShowDocument;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Published to search-service after a document was written to or removed from Elasticsearch,
+ * so it can evict exactly the cached queries that may have changed.
+ *
+ * {@code tokens} are the searchable words of the new version (title, genre, language),
+ * normalised the same way search-service tokenises query text; queries that did not
+ * contain the document before but match it now are found through them. Show events carry
+ * the words of the show's movie title, the text show searches match.
+ */
+public class SearchInvalidationEvent {
+
+    private Long movieId;
+    private Long theaterId;
+    private Long showId;
+    private String title;
+    private List<String> tokens = new ArrayList<>();
+
+    public SearchInvalidationEvent() {
+    }
+
+    public static SearchInvalidationEvent forMovie(MovieOutboxEvent event) {
+        SearchInvalidationEvent invalidation = new SearchInvalidationEvent();
+        invalidation.setMovieId(event.getMovieId());
+        MovieDocument movie = event.getMovie();
+        if (movie != null) {
+            invalidation.setTitle(movie.getTitle());
+            invalidation.setTokens(tokens(movie.getTitle(), movie.getGenre(), movie.getLanguage()));
+        }
+        return invalidation;
+    }
+
+    public static SearchInvalidationEvent forShow(ShowOutboxEvent event) {
+        SearchInvalidationEvent invalidation = new SearchInvalidationEvent();
+        if (event.getAction() == ShowOutboxEvent.Action.THEATER_MOVED) {
+            invalidation.setTheaterId(event.getId());
+            return invalidation;
+        }
+        invalidation.setShowId(event.getId());
+        ShowDocument show = event.getShow();
+        if (show != null) {
+            invalidation.setTheaterId(show.getTheaterId());
+            invalidation.setTokens(tokens(show.getMovieTitle()));
+        }
+        return invalidation;
+    }
+
+    /** Lower-cased letter/digit runs, must stay in line with search-service's {@code CacheDependencies.tokens}. */
+    static List<String> tokens(String... texts) {
+        Set<String> tokens = new LinkedHashSet<>();
+        for (String text : texts) {
+            if (text == null) {
+                continue;
+            }
+            for (String token : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+                if (!token.isEmpty()) {
+                    tokens.add(token);
+                }
+            }
+        }
+        return new ArrayList<>(tokens);
+    }
+
+    public Long getMovieId() {
+        return movieId;
+    }
+
+    public void setMovieId(Long movieId) {
+        this.movieId = movieId;
+    }
+
+    public Long getTheaterId() {
+        return theaterId;
+    }
+
+    public void setTheaterId(Long theaterId) {
+        this.theaterId = theaterId;
+    }
+
+    public Long getShowId() {
+        return showId;
+    }
+
+    public void setShowId(Long showId) {
+        this.showId = showId;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public List<String> getTokens() {
+        return tokens;
+    }
+
+    public void setTokens(List<String> tokens) {
+        this.tokens = tokens;
+    }
+
+    @Override
+    public String toString() {
+        return "SearchInvalidationEvent{movieId=" + movieId + ", theaterId=" + theaterId + ", showId=" + showId + ", tokens=" + tokens + '}';
+    }
+}
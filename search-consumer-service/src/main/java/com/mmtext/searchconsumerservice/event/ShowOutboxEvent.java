@@ -0,0 +1,82 @@
+package com.mmtext.searchconsumerservice.event;
+
+import com.mmtext.searchconsumerservice.esdocument.ShowDocument;
+import org.springframework.data.elasticsearch.core.geo.GeoPoint;
+
+/**
+ * A decoded Debezium change event from {@code show_outbox_events}: a show to index (already
+ * joined with its movie and theater by the outbox trigger) or to delete, or a theater whose
+ * location changed and has to be copied into its shows.
+ */
+public class ShowOutboxEvent {
+
+    public enum Action {
+        UPSERT,
+        DELETE,
+        THEATER_MOVED,
+        SKIP
+    }
+
+    private final Action action;
+    // The show's id, or the theater's for THEATER_MOVED
+    private final Long id;
+    private final ShowDocument show;
+    private final String city;
+    private final GeoPoint location;
+    private final String eventType;
+
+    private ShowOutboxEvent(Action action, Long id, ShowDocument show, String city, GeoPoint location,
+                            String eventType) {
+        this.action = action;
+        this.id = id;
+        this.show = show;
+        this.city = city;
+        this.location = location;
+        this.eventType = eventType;
+    }
+
+    public static ShowOutboxEvent upsert(ShowDocument show, String eventType) {
+        return new ShowOutboxEvent(Action.UPSERT, show.getId(), show, show.getCity(), show.getLocation(), eventType);
+    }
+
+    public static ShowOutboxEvent delete(Long showId, String eventType) {
+        return new ShowOutboxEvent(Action.DELETE, showId, null, null, null, eventType);
+    }
+
+    public static ShowOutboxEvent theaterMoved(Long theaterId, String city, GeoPoint location) {
+        return new ShowOutboxEvent(Action.THEATER_MOVED, theaterId, null, city, location, "UPDATED");
+    }
+
+    public static ShowOutboxEvent skip(String reason) {
+        return new ShowOutboxEvent(Action.SKIP, null, null, null, null, reason);
+    }
+
+    public Action getAction() {
+        return action;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public ShowDocument getShow() {
+        return show;
+    }
+
+    public String getCity() {
+        return city;
+    }
+
+    public GeoPoint getLocation() {
+        return location;
+    }
+
+    public String getEventType() {
+        return eventType;
+    }
+
+    @Override
+    public String toString() {
+        return action + "(id=" + id + ", eventType=" + eventType + ")";
+    }
+}
@@ -0,0 +1,187 @@
+package com.mmtext.searchconsumerservice.event;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mmtext.searchconsumerservice.esdocument.ShowDocument;
+import org.springframework.data.elasticsearch.core.geo.GeoPoint;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Turns a raw Debezium envelope for {@code show_outbox_events} into a {@link ShowOutboxEvent},
+ * in a single streaming pass like {@link MovieOutboxEventDecoder}.
+ *
+ * {@code after.aggregate_type} tells the two kinds apart: a {@code SHOW} payload is the show
+ * joined with its movie's title and genre and its theater's address, a {@code THEATER} payload
+ * is the theater's new city and coordinates. Outbox rows are only ever inserted, so anything
+ * but {@code op = c} or {@code r} is skipped.
+ */
+@Component
+public class ShowOutboxEventDecoder {
+
+    private final JsonFactory jsonFactory;
+
+    public ShowOutboxEventDecoder(ObjectMapper objectMapper) {
+        this.jsonFactory = objectMapper.getFactory();
+    }
+
+    public ShowOutboxEvent decode(String message) throws IOException {
+        String operation = null;
+        String aggregateType = null;
+        Long aggregateId = null;
+        String eventType = null;
+        ShowDocument payload = null;
+
+        try (JsonParser parser = jsonFactory.createParser(message)) {
+            expect(parser.nextToken(), JsonToken.START_OBJECT);
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("op".equals(field)) {
+                    operation = parser.getText();
+                } else if ("after".equals(field) && value == JsonToken.START_OBJECT) {
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        String afterField = parser.currentName();
+                        JsonToken afterValue = parser.nextToken();
+                        switch (afterField) {
+                            case "aggregate_type":
+                                aggregateType = parser.getText();
+                                break;
+                            case "aggregate_id":
+                                aggregateId = afterValue == JsonToken.VALUE_NUMBER_INT ? parser.getLongValue() : null;
+                                break;
+                            case "type":
+                                eventType = parser.getText();
+                                break;
+                            case "payload":
+                                payload = readPayload(parser, afterValue);
+                                break;
+                            default:
+                                parser.skipChildren();
+                                break;
+                        }
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+
+        if (!"c".equals(operation) && !"r".equals(operation)) {
+            return ShowOutboxEvent.skip("unsupported operation " + operation);
+        }
+        if (aggregateId == null && payload != null) {
+            aggregateId = payload.getId();
+        }
+        if (aggregateId == null || eventType == null) {
+            return ShowOutboxEvent.skip("no aggregate id");
+        }
+
+        switch (String.valueOf(aggregateType)) {
+            case "SHOW":
+                if ("DELETED".equals(eventType)) {
+                    return ShowOutboxEvent.delete(aggregateId, eventType);
+                }
+                if (payload == null) {
+                    return ShowOutboxEvent.skip("no after.payload");
+                }
+                payload.setId(aggregateId);
+                return ShowOutboxEvent.upsert(payload, eventType);
+            case "THEATER":
+                return payload != null
+                        ? ShowOutboxEvent.theaterMoved(aggregateId, payload.getCity(), payload.getLocation())
+                        : ShowOutboxEvent.skip("no after.payload");
+            default:
+                return ShowOutboxEvent.skip("unsupported aggregate " + aggregateType);
+        }
+    }
+
+    private ShowDocument readPayload(JsonParser parser, JsonToken token) throws IOException {
+        if (token == JsonToken.START_OBJECT) {
+            return readShow(parser);
+        }
+        if (token != JsonToken.VALUE_STRING) {
+            parser.skipChildren();
+            return null;
+        }
+        // jsonb columns are emitted by Debezium as JSON text
+        try (JsonParser payloadParser = jsonFactory.createParser(
+                parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength())) {
+            return payloadParser.nextToken() == JsonToken.START_OBJECT ? readShow(payloadParser) : null;
+        }
+    }
+
+    /** Reads the object built by {@code show_search_payload} (or {@code theater_location_payload}). */
+    private static ShowDocument readShow(JsonParser parser) throws IOException {
+        ShowDocument show = new ShowDocument();
+        Double latitude = null;
+        Double longitude = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if (value == JsonToken.VALUE_NULL) {
+                continue;
+            }
+            switch (field) {
+                case "id":
+                    show.setId(parser.getValueAsLong());
+                    break;
+                case "title":
+                    show.setTitle(parser.getText());
+                    break;
+                case "theater_name":
+                    show.setTheaterName(parser.getText());
+                    break;
+                case "screen":
+                    show.setScreen(parser.getText());
+                    break;
+                case "show_time":
+                    // The index stores times without an offset, so they are kept in UTC
+                    show.setShowTime(OffsetDateTime.parse(parser.getText()).withOffsetSameInstant(ZoneOffset.UTC));
+                    break;
+                case "ticket_price":
+                    show.setTicketPrice(parser.getValueAsInt());
+                    break;
+                case "movie_id":
+                    show.setMovieId(parser.getValueAsLong());
+                    break;
+                case "theater_id":
+                    show.setTheaterId(parser.getValueAsLong());
+                    break;
+                case "movie_title":
+                    show.setMovieTitle(parser.getText());
+                    break;
+                case "genre":
+                    show.setGenre(parser.getText());
+                    break;
+                case "city":
+                    show.setCity(parser.getText());
+                    break;
+                case "latitude":
+                    latitude = parser.getValueAsDouble();
+                    break;
+                case "longitude":
+                    longitude = parser.getValueAsDouble();
+                    break;
+                default:
+                    parser.skipChildren();
+                    break;
+            }
+        }
+        if (latitude != null && longitude != null) {
+            show.setLocation(new GeoPoint(latitude, longitude));
+        }
+        return show;
+    }
+
+    private static void expect(JsonToken actual, JsonToken expected) throws IOException {
+        if (actual != expected) {
+            throw new IOException("Expected " + expected + " but found " + actual);
+        }
+    }
+}
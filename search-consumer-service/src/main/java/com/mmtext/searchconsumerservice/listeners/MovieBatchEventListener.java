@@ -0,0 +1,124 @@
+package com.mmtext.searchconsumerservice.listeners;
+
+import com.mmtext.searchconsumerservice.event.MovieOutboxEvent;
+import com.mmtext.searchconsumerservice.event.MovieOutboxEventDecoder;
+import com.mmtext.searchconsumerservice.service.MovieBulkIndexer;
+import com.mmtext.searchconsumerservice.service.SearchInvalidationPublisher;
+import com.mmtext.searchconsumerservice.service.ShowIndexer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Batch mode of the movie outbox listener: one poll becomes one {@code _bulk} request.
+ *
+ * Events are collapsed per movie id so only the latest state of each movie is written, by
+ * source LSN where both changes carry one, else by arrival order.
+ * A failed bulk item fails the batch at the first record of the failed movie, so the offsets
+ * of everything before it are committed and the container's error handler redelivers from
+ * there with its backoff, dead-lettering the record once its attempts are used up. Copying a
+ * changed movie into its shows counts as part of its write, a failure there redelivers the
+ * movie too.
+ */
+@Service
+@ConditionalOnProperty(prefix = "kafka.listener", name = "mode", havingValue = "batch")
+public class MovieBatchEventListener {
+
+    private static final Logger log = LoggerFactory.getLogger(MovieBatchEventListener.class);
+
+    private final MovieOutboxEventDecoder decoder;
+    private final MovieBulkIndexer bulkIndexer;
+    private final SearchInvalidationPublisher invalidationPublisher;
+    private final ShowIndexer showIndexer;
+
+    public MovieBatchEventListener(MovieOutboxEventDecoder decoder, MovieBulkIndexer bulkIndexer,
+                                   SearchInvalidationPublisher invalidationPublisher, ShowIndexer showIndexer) {
+        this.decoder = decoder;
+        this.bulkIndexer = bulkIndexer;
+        this.invalidationPublisher = invalidationPublisher;
+        this.showIndexer = showIndexer;
+    }
+
+    @KafkaListener(
+            topics = "${kafka.topic.db-movie-events}",
+            groupId = "${kafka.group.movie}",
+            containerFactory = "batchKafkaListenerContainerFactory",
+            properties = {
+                    "max.poll.records=${kafka.batch.size:500}",
+                    "fetch.max.wait.ms=${kafka.batch.linger-ms:200}",
+                    "fetch.min.bytes=${kafka.batch.fetch-min-bytes:65536}"
+            })
+    public void listen(List<ConsumerRecord<String, String>> records, Acknowledgment acknowledgment) throws Exception {
+        Map<Long, MovieOutboxEvent> latestByMovie = new LinkedHashMap<>();
+        Map<Long, Integer> firstRecordByMovie = new HashMap<>();
+        int firstFailedRecord = Integer.MAX_VALUE;
+        Exception firstFailure = null;
+
+        for (int i = 0; i < records.size(); i++) {
+            ConsumerRecord<String, String> record = records.get(i);
+            MovieOutboxEvent event;
+            try {
+                event = decoder.decode(record.value());
+            } catch (Exception e) {
+                log.error("Undecodable record {}-{}@{}: {}", record.topic(), record.partition(), record.offset(), e.getMessage());
+                if (i < firstFailedRecord) {
+                    firstFailedRecord = i;
+                    firstFailure = e;
+                }
+                continue;
+            }
+            if (event.getAction() == MovieOutboxEvent.Action.SKIP) {
+                log.debug("Skipping record {}-{}@{}: {}", record.topic(), record.partition(), record.offset(), event.getEventType());
+                continue;
+            }
+            firstRecordByMovie.putIfAbsent(event.getMovieId(), i);
+            // A poll spans partitions, so the record seen last is not necessarily the newest change
+            MovieOutboxEvent seen = latestByMovie.get(event.getMovieId());
+            if (seen != null && event.isOlderThan(seen)) {
+                continue;
+            }
+            // Re-insert so iteration order follows the last change of each movie
+            latestByMovie.remove(event.getMovieId());
+            latestByMovie.put(event.getMovieId(), event);
+        }
+
+        log.info("Indexing {} records collapsed to {} movie changes", records.size(), latestByMovie.size());
+        Map<Long, String> failures = new HashMap<>(bulkIndexer.write(latestByMovie.values()));
+        latestByMovie.forEach((movieId, event) -> {
+            if (failures.containsKey(movieId)) {
+                return;
+            }
+            try {
+                showIndexer.movieChanged(event);
+            } catch (Exception e) {
+                log.error("Could not update the shows of movie {}: {}", movieId, e.getMessage());
+                failures.put(movieId, "shows: " + e.getMessage());
+                return;
+            }
+            invalidationPublisher.movieChanged(event);
+        });
+
+        for (Map.Entry<Long, String> failure : failures.entrySet()) {
+            int index = firstRecordByMovie.get(failure.getKey());
+            if (index < firstFailedRecord) {
+                firstFailedRecord = index;
+                firstFailure = new IllegalStateException("Bulk write failed for movie " + failure.getKey() + ": " + failure.getValue());
+            }
+        }
+
+        if (firstFailure != null) {
+            throw new BatchListenerFailedException(firstFailure.getMessage(), firstFailure, firstFailedRecord);
+        }
+        acknowledgment.acknowledge();
+    }
+}
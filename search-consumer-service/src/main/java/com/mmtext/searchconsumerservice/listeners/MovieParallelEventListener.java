@@ -0,0 +1,106 @@
+package com.mmtext.searchconsumerservice.listeners;
+
+import com.mmtext.searchconsumerservice.event.MovieOutboxEvent;
+import com.mmtext.searchconsumerservice.event.MovieOutboxEventDecoder;
+import com.mmtext.searchconsumerservice.processing.KeyOrderedDispatcher;
+import com.mmtext.searchconsumerservice.service.MovieConsumeService;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.event.ListenerContainerIdleEvent;
+import org.springframework.stereotype.Service;
+import org.springframework.util.backoff.BackOff;
+import org.springframework.util.backoff.BackOffExecution;
+
+import java.util.List;
+
+/**
+ * Parallel mode of the movie outbox listener.
+ *
+ * Each record is routed to a lane by movie id, so changes to one movie are applied
+ * in order while unrelated movies are indexed concurrently and a slow write only
+ * holds back its own lane. Offsets are committed by the {@link KeyOrderedDispatcher}.
+ * Lanes only order what one consumer sees: the connector keys outbox records by
+ * {@code aggregate_id}, so all events of a movie share a partition and reach the same consumer.
+ */
+@Service
+@ConditionalOnProperty(prefix = "kafka.listener", name = "mode", havingValue = "parallel")
+public class MovieParallelEventListener {
+
+    private static final Logger log = LoggerFactory.getLogger(MovieParallelEventListener.class);
+
+    private final MovieOutboxEventDecoder decoder;
+    private final MovieConsumeService movieConsumeService;
+    private final KeyOrderedDispatcher dispatcher;
+    private final BackOff retryBackOff;
+
+    public MovieParallelEventListener(MovieOutboxEventDecoder decoder,
+                                      MovieConsumeService movieConsumeService,
+                                      KeyOrderedDispatcher dispatcher,
+                                      BackOff retryBackOff) {
+        this.decoder = decoder;
+        this.movieConsumeService = movieConsumeService;
+        this.dispatcher = dispatcher;
+        this.retryBackOff = retryBackOff;
+    }
+
+    @KafkaListener(
+            id = "movie-parallel-listener",
+            topics = "${kafka.topic.db-movie-events}",
+            groupId = "${kafka.group.movie}",
+            containerFactory = "parallelKafkaListenerContainerFactory",
+            properties = "max.poll.records=${kafka.batch.size:500}")
+    public void listen(List<ConsumerRecord<String, String>> records, Consumer<?, ?> consumer) throws InterruptedException {
+        for (ConsumerRecord<String, String> record : records) {
+            TopicPartition partition = new TopicPartition(record.topic(), record.partition());
+            MovieOutboxEvent event;
+            try {
+                event = decoder.decode(record.value());
+            } catch (Exception e) {
+                log.error("Skipping undecodable record {}@{}: {}", partition, record.offset(), e.getMessage());
+                dispatcher.skip(partition, record.offset());
+                continue;
+            }
+            if (event.getAction() == MovieOutboxEvent.Action.SKIP) {
+                dispatcher.skip(partition, record.offset());
+                continue;
+            }
+            dispatcher.dispatch(consumer, record, event.getMovieId(), () -> applyWithRetry(event));
+        }
+        dispatcher.commit(consumer);
+    }
+
+    /** Commits work that finished after the last poll returned records. */
+    @EventListener(condition = "event.listenerId.startsWith('movie-parallel-listener')")
+    public void onIdle(ListenerContainerIdleEvent event) {
+        dispatcher.commit(event.getConsumer());
+    }
+
+    // Runs on the movie's lane, so retrying here only delays later changes of the same movie
+    private void applyWithRetry(MovieOutboxEvent event) {
+        BackOffExecution backOff = retryBackOff.start();
+        while (true) {
+            try {
+                movieConsumeService.apply(event);
+                return;
+            } catch (RuntimeException e) {
+                long delay = backOff.nextBackOff();
+                if (delay == BackOffExecution.STOP) {
+                    throw e;
+                }
+                log.warn("Retrying {} in {} ms: {}", event, delay, e.getMessage());
+                try {
+                    Thread.sleep(delay);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
+    }
+}
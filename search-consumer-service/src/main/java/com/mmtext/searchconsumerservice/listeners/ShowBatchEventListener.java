@@ -0,0 +1,119 @@
+package com.mmtext.searchconsumerservice.listeners;
+
+import com.mmtext.searchconsumerservice.event.ShowOutboxEvent;
+import com.mmtext.searchconsumerservice.event.ShowOutboxEventDecoder;
+import com.mmtext.searchconsumerservice.service.SearchInvalidationPublisher;
+import com.mmtext.searchconsumerservice.service.ShowIndexer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds the denormalized {@code shows} index from {@code show_outbox_events}, one
+ * {@code _bulk} request per poll like {@link MovieBatchEventListener}.
+ *
+ * Show events are collapsed per show id and written first; theater moves are collapsed per
+ * theater and applied after them, so the shows of the batch end up with the latest location.
+ * A failed show or theater move fails the batch at its first record, so the container's error
+ * handler redelivers from there with its backoff and dead-letters the record once its attempts
+ * are used up.
+ */
+@Service
+public class ShowBatchEventListener {
+
+    private static final Logger log = LoggerFactory.getLogger(ShowBatchEventListener.class);
+
+    private final ShowOutboxEventDecoder decoder;
+    private final ShowIndexer showIndexer;
+    private final SearchInvalidationPublisher invalidationPublisher;
+
+    public ShowBatchEventListener(ShowOutboxEventDecoder decoder, ShowIndexer showIndexer,
+                                  SearchInvalidationPublisher invalidationPublisher) {
+        this.decoder = decoder;
+        this.showIndexer = showIndexer;
+        this.invalidationPublisher = invalidationPublisher;
+    }
+
+    @KafkaListener(
+            topics = "${kafka.topic.db-show-events}",
+            groupId = "${kafka.group.show}",
+            containerFactory = "batchKafkaListenerContainerFactory",
+            properties = {
+                    "max.poll.records=${kafka.batch.size:500}",
+                    "fetch.max.wait.ms=${kafka.batch.linger-ms:200}",
+                    "fetch.min.bytes=${kafka.batch.fetch-min-bytes:65536}"
+            })
+    public void listen(List<ConsumerRecord<String, String>> records, Acknowledgment acknowledgment) throws Exception {
+        Map<Long, ShowOutboxEvent> latestByShow = new LinkedHashMap<>();
+        Map<Long, ShowOutboxEvent> latestByTheater = new LinkedHashMap<>();
+        // First record of each show / theater, keyed by "show:<id>" and "theater:<id>"
+        Map<String, Integer> firstRecord = new HashMap<>();
+        int firstFailedRecord = Integer.MAX_VALUE;
+        Exception firstFailure = null;
+
+        for (int i = 0; i < records.size(); i++) {
+            ConsumerRecord<String, String> record = records.get(i);
+            ShowOutboxEvent event;
+            try {
+                event = decoder.decode(record.value());
+            } catch (Exception e) {
+                log.error("Undecodable record {}-{}@{}: {}", record.topic(), record.partition(), record.offset(), e.getMessage());
+                if (i < firstFailedRecord) {
+                    firstFailedRecord = i;
+                    firstFailure = e;
+                }
+                continue;
+            }
+            if (event.getAction() == ShowOutboxEvent.Action.SKIP) {
+                log.debug("Skipping record {}-{}@{}: {}", record.topic(), record.partition(), record.offset(), event.getEventType());
+                continue;
+            }
+            boolean theater = event.getAction() == ShowOutboxEvent.Action.THEATER_MOVED;
+            Map<Long, ShowOutboxEvent> latest = theater ? latestByTheater : latestByShow;
+            latest.remove(event.getId());
+            latest.put(event.getId(), event);
+            firstRecord.putIfAbsent((theater ? "theater:" : "show:") + event.getId(), i);
+        }
+
+        log.info("Indexing {} records collapsed to {} show changes and {} theater moves",
+                records.size(), latestByShow.size(), latestByTheater.size());
+        Map<String, String> failures = new HashMap<>();
+        showIndexer.write(latestByShow.values()).forEach((showId, reason) -> failures.put("show:" + showId, reason));
+        latestByShow.forEach((showId, event) -> {
+            if (!failures.containsKey("show:" + showId)) {
+                invalidationPublisher.showChanged(event);
+            }
+        });
+        latestByTheater.forEach((theaterId, event) -> {
+            try {
+                showIndexer.theaterMoved(event);
+                invalidationPublisher.showChanged(event);
+            } catch (Exception e) {
+                log.error("Could not move the shows of theater {}: {}", theaterId, e.getMessage());
+                failures.put("theater:" + theaterId, e.getMessage());
+            }
+        });
+
+        for (Map.Entry<String, String> failure : failures.entrySet()) {
+            int index = firstRecord.get(failure.getKey());
+            if (index < firstFailedRecord) {
+                firstFailedRecord = index;
+                firstFailure = new IllegalStateException("Indexing failed for " + failure.getKey() + ": " + failure.getValue());
+            }
+        }
+
+        if (firstFailure != null) {
+            throw new BatchListenerFailedException(firstFailure.getMessage(), firstFailure, firstFailedRecord);
+        }
+        acknowledgment.acknowledge();
+    }
+}
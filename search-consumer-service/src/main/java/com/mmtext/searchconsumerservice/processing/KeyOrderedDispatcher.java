@@ -0,0 +1,141 @@
+package com.mmtext.searchconsumerservice.processing;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.kafka.listener.ConsumerAwareRebalanceListener;
+import org.springframework.kafka.listener.ConsumerRecordRecoverer;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fans records out to a fixed set of single-threaded lanes chosen by key.
+ *
+ * Records with the same key always land on the same lane and therefore run in
+ * offset order, while different keys run concurrently. Commits follow the
+ * {@link PartitionOffsetTracker}, i.e. the lowest fully processed offset per partition,
+ * and are always issued from the consumer thread.
+ *
+ * A task that still fails after its own retries is handed to the recoverer (the dead letter
+ * topic) and only then counted as done. If that fails too, the record stays in flight, so
+ * commits stop in front of it and it is redelivered after a restart or rebalance.
+ */
+public class KeyOrderedDispatcher implements ConsumerAwareRebalanceListener, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(KeyOrderedDispatcher.class);
+    private static final long CAPACITY_WAIT_MS = 100;
+
+    private final ExecutorService[] lanes;
+    private final Semaphore capacity;
+    private final PartitionOffsetTracker tracker = new PartitionOffsetTracker();
+    private final Duration revokeTimeout;
+    private final ConsumerRecordRecoverer recoverer;
+
+    public KeyOrderedDispatcher(int laneCount, int maxInFlight, Duration revokeTimeout,
+                                ConsumerRecordRecoverer recoverer) {
+        this.lanes = new ExecutorService[laneCount];
+        for (int i = 0; i < laneCount; i++) {
+            lanes[i] = Executors.newSingleThreadExecutor(Thread.ofVirtual().name("movie-lane-" + i).factory());
+        }
+        this.capacity = new Semaphore(maxInFlight);
+        this.revokeTimeout = revokeTimeout;
+        this.recoverer = recoverer;
+    }
+
+    /**
+     * Queues {@code task} behind earlier tasks with the same key. Blocks the consumer
+     * thread while {@code maxInFlight} records are pending, committing progress meanwhile.
+     */
+    public void dispatch(Consumer<?, ?> consumer, ConsumerRecord<?, ?> record, Object key, Runnable task)
+            throws InterruptedException {
+        TopicPartition partition = new TopicPartition(record.topic(), record.partition());
+        long offset = record.offset();
+        while (!capacity.tryAcquire(CAPACITY_WAIT_MS, TimeUnit.MILLISECONDS)) {
+            commit(consumer);
+        }
+        tracker.started(partition, offset);
+        lanes[Math.floorMod(key.hashCode(), lanes.length)].execute(() -> {
+            boolean done = true;
+            try {
+                task.run();
+            } catch (Exception e) {
+                // Tasks handle their own retries, anything reaching here is given up on
+                done = recover(record, key, e);
+            } finally {
+                if (done) {
+                    tracker.completed(partition, offset);
+                }
+                capacity.release();
+            }
+        });
+    }
+
+    private boolean recover(ConsumerRecord<?, ?> record, Object key, Exception failure) {
+        try {
+            recoverer.accept(record, failure);
+            log.error("Giving up on {}-{}@{} (key {}), sent to the dead letter topic: {}",
+                    record.topic(), record.partition(), record.offset(), key, failure.getMessage(), failure);
+            return true;
+        } catch (Exception e) {
+            log.error("Could not dead-letter {}-{}@{} (key {}), holding commits at it: {}",
+                    record.topic(), record.partition(), record.offset(), key, e.getMessage(), failure);
+            return false;
+        }
+    }
+
+    /** Marks a record that needs no processing as done so it does not hold back the commit position. */
+    public void skip(TopicPartition partition, long offset) {
+        tracker.started(partition, offset);
+        tracker.completed(partition, offset);
+    }
+
+    /** Commits the lowest fully processed offset of every partition that advanced. Consumer thread only. */
+    public void commit(Consumer<?, ?> consumer) {
+        Map<TopicPartition, OffsetAndMetadata> offsets = tracker.drainCommittable();
+        if (!offsets.isEmpty()) {
+            consumer.commitSync(offsets);
+            log.debug("Committed {}", offsets);
+        }
+    }
+
+    @Override
+    public void onPartitionsRevokedBeforeCommit(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        // Let in-flight work of the revoked partitions finish so the new owner starts after it
+        long deadline = System.nanoTime() + revokeTimeout.toNanos();
+        while (tracker.hasInFlight(partitions) && System.nanoTime() < deadline) {
+            try {
+                Thread.sleep(CAPACITY_WAIT_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        commit(consumer);
+        tracker.forget(partitions);
+    }
+
+    @Override
+    public void onPartitionsLost(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        tracker.forget(partitions);
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        for (ExecutorService lane : lanes) {
+            lane.shutdown();
+        }
+        for (ExecutorService lane : lanes) {
+            lane.awaitTermination(revokeTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.mmtext.searchconsumerservice.processing;
+
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Tracks which offsets of each partition are still being processed when records
+ * complete out of order.
+ *
+ * The committable position of a partition is its lowest in-flight offset, or the
+ * offset after the highest one seen once nothing is in flight, so a commit never
+ * skips over a record that has not been fully processed.
+ */
+public class PartitionOffsetTracker {
+
+    private final Map<TopicPartition, PartitionState> partitions = new ConcurrentHashMap<>();
+
+    /** Must be called on the consumer thread, before the record is handed to a worker. */
+    public void started(TopicPartition partition, long offset) {
+        PartitionState state = partitions.computeIfAbsent(partition, p -> new PartitionState());
+        state.inFlight.add(offset);
+        state.highestSeen = Math.max(state.highestSeen, offset);
+    }
+
+    public void completed(TopicPartition partition, long offset) {
+        PartitionState state = partitions.get(partition);
+        if (state != null) {
+            state.inFlight.remove(offset);
+        }
+    }
+
+    /**
+     * Offsets that advanced since the last call, ready for {@code commitSync}.
+     * Must be called on the consumer thread.
+     */
+    public Map<TopicPartition, OffsetAndMetadata> drainCommittable() {
+        Map<TopicPartition, OffsetAndMetadata> committable = new HashMap<>();
+        partitions.forEach((partition, state) -> {
+            // One read of the set: workers may complete its last offset at any time
+            Long lowestInFlight = state.inFlight.ceiling(Long.MIN_VALUE);
+            long next = lowestInFlight != null ? lowestInFlight : state.highestSeen + 1;
+            if (next > state.lastCommitted) {
+                committable.put(partition, new OffsetAndMetadata(next));
+                state.lastCommitted = next;
+            }
+        });
+        return committable;
+    }
+
+    public boolean hasInFlight(Collection<TopicPartition> partitionsToCheck) {
+        for (TopicPartition partition : partitionsToCheck) {
+            PartitionState state = partitions.get(partition);
+            if (state != null && !state.inFlight.isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void forget(Collection<TopicPartition> partitionsToForget) {
+        partitionsToForget.forEach(partitions::remove);
+    }
+
+    private static final class PartitionState {
+        private final ConcurrentSkipListSet<Long> inFlight = new ConcurrentSkipListSet<>();
+        private volatile long highestSeen = -1;
+        private long lastCommitted = -1;
+    }
+}
@@ -0,0 +1,84 @@
+package com.mmtext.searchconsumerservice.service;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch.core.BulkResponse;
+import co.elastic.clients.elasticsearch.core.bulk.BulkOperation;
+import co.elastic.clients.elasticsearch.core.bulk.BulkResponseItem;
+import co.elastic.clients.json.JsonData;
+import com.mmtext.searchconsumerservice.esdocument.MovieDocument;
+import com.mmtext.searchconsumerservice.event.MovieOutboxEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.convert.ElasticsearchConverter;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes a set of movie changes to Elasticsearch with a single {@code _bulk} request.
+ *
+ * Documents are converted with the Spring Data converter so they look exactly like
+ * the ones written by {@code MovieSearchRepository.save}.
+ */
+@Service
+public class MovieBulkIndexer {
+
+    private static final Logger log = LoggerFactory.getLogger(MovieBulkIndexer.class);
+
+    private final ElasticsearchClient elasticsearchClient;
+    private final ElasticsearchConverter elasticsearchConverter;
+    private final String indexName;
+
+    public MovieBulkIndexer(ElasticsearchClient elasticsearchClient, ElasticsearchOperations elasticsearchOperations) {
+        this.elasticsearchClient = elasticsearchClient;
+        this.elasticsearchConverter = elasticsearchOperations.getElasticsearchConverter();
+        this.indexName = elasticsearchOperations.getIndexCoordinatesFor(MovieDocument.class).getIndexName();
+    }
+
+    /**
+     * @param events at most one event per movie id, already collapsed to the latest state
+     * @return movie ids whose bulk item failed, mapped to the failure reason; empty when everything was written
+     */
+    public Map<Long, String> write(Collection<MovieOutboxEvent> events) throws IOException {
+        List<BulkOperation> operations = new ArrayList<>(events.size());
+        for (MovieOutboxEvent event : events) {
+            String id = String.valueOf(event.getMovieId());
+            if (event.getAction() == MovieOutboxEvent.Action.UPSERT) {
+                String json = elasticsearchConverter.mapObject(event.getMovie()).toJson();
+                operations.add(BulkOperation.of(b -> b.index(i -> i
+                        .index(indexName)
+                        .id(id)
+                        .document(JsonData.fromJson(json)))));
+            } else if (event.getAction() == MovieOutboxEvent.Action.DELETE) {
+                operations.add(BulkOperation.of(b -> b.delete(d -> d
+                        .index(indexName)
+                        .id(id))));
+            }
+        }
+        if (operations.isEmpty()) {
+            return Map.of();
+        }
+
+        BulkResponse response = elasticsearchClient.bulk(r -> r.operations(operations));
+        log.info("Bulk wrote {} movie operations in {} ms", operations.size(), response.took());
+        if (!response.errors()) {
+            return Map.of();
+        }
+
+        Map<Long, String> failures = new HashMap<>();
+        for (BulkResponseItem item : response.items()) {
+            if (item.error() != null) {
+                log.error("Bulk {} failed for movie {}: [{}] {}",
+                        item.operationType(), item.id(), item.status(), item.error().reason());
+                failures.put(Long.valueOf(item.id()), item.error().type() + ": " + item.error().reason());
+            }
+        }
+        return failures;
+    }
+}
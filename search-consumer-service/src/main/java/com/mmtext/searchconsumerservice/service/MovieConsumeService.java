@@ -1,26 +1,40 @@
 package com.mmtext.searchconsumerservice.service;
 
-import com.fasterxml.jackson.databind.JsonNode;
 import com.mmtext.searchconsumerservice.esdocument.MovieDocument;
+import com.mmtext.searchconsumerservice.event.MovieOutboxEvent;
 import com.mmtext.searchconsumerservice.repo.MovieSearchRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
 @Service
 public class MovieConsumeService {
     private static final Logger log = LoggerFactory.getLogger(MovieConsumeService.class);
     @Autowired
     MovieSearchRepository movieSearchRepository;
+    @Autowired
+    SearchInvalidationPublisher invalidationPublisher;
+    @Autowired
+    ShowIndexer showIndexer;
 
     public void saveOrUpdateMovie(MovieDocument movieDocument) {
         try {
+            // Only a movie that was already indexed can have shows carrying a stale copy of it
+            boolean existed = movieSearchRepository.existsById(String.valueOf(movieDocument.getId()));
 
             // Save the document to Elasticsearch (save handles both create and update if ID exists)
             movieSearchRepository.save(movieDocument);
 
             log.info("Successfully saved/updated MovieDocument with ID: {}", movieDocument.getId());
+            MovieOutboxEvent event = MovieOutboxEvent.upsert(movieDocument, existed ? "UPDATED" : "CREATED");
+            if (existed) {
+                showIndexer.movieChanged(event);
+            }
+            invalidationPublisher.movieChanged(event);
 
         } catch (Exception e) {
             log.error("Error saving movie document: {}", movieDocument, e);
@@ -28,14 +42,34 @@ public class MovieConsumeService {
         }
     }
 
-    public void deleteMovie(JsonNode movieDataJson) {
-        // Extract the ID from the 'before' state of the deleted record
-        if (movieDataJson.has("id")) {
-            Long movieId = movieDataJson.get("id").asLong();
-//            movieSearchRepository.deleteById(movieId);
-            log.info("Successfully deleted MovieDocument with ID: {}", movieId);
-        } else {
-            log.warn("Cannot delete movie: ID field not found in 'before' payload.");
+    public void deleteMovie(Long movieId) {
+        movieSearchRepository.deleteById(String.valueOf(movieId));
+        log.info("Successfully deleted MovieDocument with ID: {}", movieId);
+        invalidationPublisher.movieChanged(MovieOutboxEvent.delete(movieId, "DELETED"));
+    }
+
+    /** Applies a decoded outbox event, letting failures propagate so the caller can retry. */
+    public void apply(MovieOutboxEvent event) {
+        switch (event.getAction()) {
+            case UPSERT:
+                movieSearchRepository.save(event.getMovie());
+                log.info("Successfully saved/updated MovieDocument with ID: {}", event.getMovieId());
+                updateShows(event);
+                invalidationPublisher.movieChanged(event);
+                break;
+            case DELETE:
+                deleteMovie(event.getMovieId());
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void updateShows(MovieOutboxEvent event) {
+        try {
+            showIndexer.movieChanged(event);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
     }
 }
@@ -0,0 +1,54 @@
+package com.mmtext.searchconsumerservice.service;
+
+import com.mmtext.searchconsumerservice.esdocument.MovieDocument;
+import com.mmtext.searchconsumerservice.esdocument.ShowDocument;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.IndexOperations;
+import org.springframework.stereotype.Component;
+
+/**
+ * Brings the mappings of the {@code movie} and {@code shows} indices up to date with
+ * {@link MovieDocument} and {@link ShowDocument}.
+ *
+ * The movie repository only creates its index when it is missing, so fields added later (like
+ * the {@code suggest} completion field) are put here. Adding fields is allowed on a live index;
+ * documents written before the field existed get it when they are indexed again. The shows
+ * index is written in bulk without a repository, so it is created here, before the first
+ * bulk request could map {@code location} as a plain object instead of a geo point.
+ */
+@Component
+public class SearchIndexMappings {
+
+    private static final Logger log = LoggerFactory.getLogger(SearchIndexMappings.class);
+
+    private final ElasticsearchOperations elasticsearchOperations;
+
+    public SearchIndexMappings(ElasticsearchOperations elasticsearchOperations) {
+        this.elasticsearchOperations = elasticsearchOperations;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void updateMappings() {
+        updateMapping(MovieDocument.class, false);
+        updateMapping(ShowDocument.class, true);
+    }
+
+    private void updateMapping(Class<?> documentClass, boolean create) {
+        try {
+            IndexOperations indexOps = elasticsearchOperations.indexOps(documentClass);
+            if (indexOps.exists()) {
+                indexOps.putMapping(indexOps.createMapping());
+                log.info("Updated mapping of index {}", indexOps.getIndexCoordinates().getIndexName());
+            } else if (create) {
+                indexOps.createWithMapping();
+                log.info("Created index {}", indexOps.getIndexCoordinates().getIndexName());
+            }
+        } catch (Exception e) {
+            log.warn("Could not update the mapping of {}: {}", documentClass.getSimpleName(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.mmtext.searchconsumerservice.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mmtext.searchconsumerservice.event.MovieOutboxEvent;
+import com.mmtext.searchconsumerservice.event.SearchInvalidationEvent;
+import com.mmtext.searchconsumerservice.event.ShowOutboxEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Tells search-service which cached queries went stale after an index write.
+ *
+ * Best effort: the index write already succeeded, so a failed publish is only logged and
+ * the affected entries fall back to expiring by TTL.
+ */
+@Component
+public class SearchInvalidationPublisher {
+
+    private static final Logger log = LoggerFactory.getLogger(SearchInvalidationPublisher.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final String channel;
+
+    public SearchInvalidationPublisher(StringRedisTemplate redisTemplate,
+                                       ObjectMapper objectMapper,
+                                       @Value("${search.invalidation.channel:search:invalidation}") String channel) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.channel = channel;
+    }
+
+    public void movieChanged(MovieOutboxEvent event) {
+        publish(SearchInvalidationEvent.forMovie(event));
+    }
+
+    public void showChanged(ShowOutboxEvent event) {
+        publish(SearchInvalidationEvent.forShow(event));
+    }
+
+    private void publish(SearchInvalidationEvent event) {
+        try {
+            redisTemplate.convertAndSend(channel, objectMapper.writeValueAsString(event));
+            log.debug("Published {}", event);
+        } catch (Exception e) {
+            log.warn("Could not publish {}: {}", event, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.mmtext.searchconsumerservice.service;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch._types.Conflicts;
+import co.elastic.clients.elasticsearch._types.FieldValue;
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import co.elastic.clients.elasticsearch.core.BulkResponse;
+import co.elastic.clients.elasticsearch.core.UpdateByQueryResponse;
+import co.elastic.clients.elasticsearch.core.bulk.BulkOperation;
+import co.elastic.clients.elasticsearch.core.bulk.BulkResponseItem;
+import co.elastic.clients.json.JsonData;
+import com.mmtext.searchconsumerservice.esdocument.ShowDocument;
+import com.mmtext.searchconsumerservice.event.MovieOutboxEvent;
+import com.mmtext.searchconsumerservice.event.ShowOutboxEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.convert.ElasticsearchConverter;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maintains the denormalized {@code shows} index: each show document carries its movie's title
+ * and genre and its theater's city and location, so show queries are flat filters.
+ *
+ * Shows arrive already joined from {@code show_outbox_events} and are written with one
+ * {@code _bulk} request per batch. When a movie or a theater changes, the copies in its shows
+ * are rewritten in place by an {@code _update_by_query} on {@code movieId} / {@code theaterId}.
+ * Version conflicts proceed: a show rewritten meanwhile by its own event is skipped instead of
+ * failing the update. The topics are consumed independently, so a show event that lags behind
+ * a later movie or theater change can still bring back the older copy until the next change.
+ */
+@Service
+public class ShowIndexer {
+
+    private static final Logger log = LoggerFactory.getLogger(ShowIndexer.class);
+
+    private static final String COPY_MOVIE = "ctx._source.movieTitle = params.title; ctx._source.genre = params.genre";
+    private static final String COPY_LOCATION = "ctx._source.city = params.city; ctx._source.location = params.location";
+
+    private final ElasticsearchClient elasticsearchClient;
+    private final ElasticsearchConverter elasticsearchConverter;
+    private final String indexName;
+
+    public ShowIndexer(ElasticsearchClient elasticsearchClient, ElasticsearchOperations elasticsearchOperations) {
+        this.elasticsearchClient = elasticsearchClient;
+        this.elasticsearchConverter = elasticsearchOperations.getElasticsearchConverter();
+        this.indexName = elasticsearchOperations.getIndexCoordinatesFor(ShowDocument.class).getIndexName();
+    }
+
+    /**
+     * @param events UPSERT and DELETE events, at most one per show id
+     * @return show ids whose bulk item failed, mapped to the failure reason
+     */
+    public Map<Long, String> write(Collection<ShowOutboxEvent> events) throws IOException {
+        List<BulkOperation> operations = new ArrayList<>(events.size());
+        for (ShowOutboxEvent event : events) {
+            String id = String.valueOf(event.getId());
+            if (event.getAction() == ShowOutboxEvent.Action.UPSERT) {
+                String json = elasticsearchConverter.mapObject(event.getShow()).toJson();
+                operations.add(BulkOperation.of(b -> b.index(i -> i
+                        .index(indexName)
+                        .id(id)
+                        .document(JsonData.fromJson(json)))));
+            } else if (event.getAction() == ShowOutboxEvent.Action.DELETE) {
+                operations.add(BulkOperation.of(b -> b.delete(d -> d
+                        .index(indexName)
+                        .id(id))));
+            }
+        }
+        if (operations.isEmpty()) {
+            return new HashMap<>();
+        }
+
+        BulkResponse response = elasticsearchClient.bulk(r -> r.operations(operations));
+        log.info("Bulk wrote {} show operations in {} ms", operations.size(), response.took());
+        Map<Long, String> failures = new HashMap<>();
+        if (!response.errors()) {
+            return failures;
+        }
+        for (BulkResponseItem item : response.items()) {
+            if (item.error() != null) {
+                log.error("Bulk {} failed for show {}: [{}] {}",
+                        item.operationType(), item.id(), item.status(), item.error().reason());
+                failures.put(Long.valueOf(item.id()), item.error().type() + ": " + item.error().reason());
+            }
+        }
+        return failures;
+    }
+
+    /** Copies a theater's new city and location into all of its shows. */
+    public long theaterMoved(ShowOutboxEvent event) throws IOException {
+        Map<String, JsonData> params = new HashMap<>();
+        param(params, "city", event.getCity());
+        if (event.getLocation() != null) {
+            param(params, "location", Map.of("lat", event.getLocation().getLat(), "lon", event.getLocation().getLon()));
+        }
+        return updateShows("theaterId", event.getId(), COPY_LOCATION, params);
+    }
+
+    /** Copies a movie's new title and genre into all of its shows; a new or deleted movie has none. */
+    public long movieChanged(MovieOutboxEvent event) throws IOException {
+        if (event.getAction() != MovieOutboxEvent.Action.UPSERT || "CREATED".equals(event.getEventType())) {
+            return 0;
+        }
+        Map<String, JsonData> params = new HashMap<>();
+        param(params, "title", event.getMovie().getTitle());
+        param(params, "genre", event.getMovie().getGenre());
+        return updateShows("movieId", event.getMovieId(), COPY_MOVIE, params);
+    }
+
+    // A missing parameter reads as null in the script
+    private static void param(Map<String, JsonData> params, String name, Object value) {
+        if (value != null) {
+            params.put(name, JsonData.of(value));
+        }
+    }
+
+    private long updateShows(String field, Long id, String script, Map<String, JsonData> params) throws IOException {
+        UpdateByQueryResponse response = elasticsearchClient.updateByQuery(u -> u
+                .index(indexName)
+                .query(Query.of(q -> q.term(t -> t.field(field).value(FieldValue.of(id)))))
+                .script(s -> s.source(script).params(params))
+                .conflicts(Conflicts.Proceed));
+        if (!response.failures().isEmpty()) {
+            throw new IllegalStateException("Updating the shows of " + field + " " + id + " failed: "
+                    + response.failures().get(0).cause().reason());
+        }
+        long updated = response.updated() != null ? response.updated() : 0;
+        log.info("Updated {} shows of {} {} in {} ms", updated, field, id, response.took());
+        return updated;
+    }
+}
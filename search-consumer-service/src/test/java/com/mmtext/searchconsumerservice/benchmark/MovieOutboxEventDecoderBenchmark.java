@@ -0,0 +1,103 @@
+package com.mmtext.searchconsumerservice.benchmark;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mmtext.searchconsumerservice.esdocument.MovieDocument;
+import com.mmtext.searchconsumerservice.event.MovieOutboxEvent;
+import com.mmtext.searchconsumerservice.event.MovieOutboxEventDecoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the streaming {@link MovieOutboxEventDecoder} with the tree based path the
+ * listener used before: {@code readTree} of the envelope, {@code toString} of it for the
+ * WARN log, {@code readTree} of the payload text, {@code toString} for the INFO log and
+ * {@code treeToValue}.
+ *
+ * Input is {@code src/test/resources/debezium/movie-outbox-envelopes.jsonl}, envelopes in the
+ * shape Debezium's JsonConverter (schemas disabled) emits for rows written by the
+ * {@code handle_movie_outbox_event} trigger.
+ *
+ * Run after {@code mvn test-compile} with {@code main}, e.g. from the IDE, or
+ * {@code java -cp target/test-classes:target/classes:<test classpath> org.openjdk.jmh.Main MovieOutboxEventDecoderBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MovieOutboxEventDecoderBenchmark {
+
+    private ObjectMapper objectMapper;
+    private MovieOutboxEventDecoder streamingDecoder;
+    private List<String> envelopes;
+
+    @Setup
+    public void setUp() throws IOException {
+        // Same leniency as the Spring Boot ObjectMapper the listener was injected with
+        objectMapper = new ObjectMapper().disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        streamingDecoder = new MovieOutboxEventDecoder(objectMapper);
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                getClass().getResourceAsStream("/debezium/movie-outbox-envelopes.jsonl"), StandardCharsets.UTF_8))) {
+            envelopes = reader.lines().toList();
+        }
+    }
+
+    @Benchmark
+    public void streaming(Blackhole blackhole) throws IOException {
+        for (String envelope : envelopes) {
+            blackhole.consume(streamingDecoder.decode(envelope));
+        }
+    }
+
+    @Benchmark
+    public void tree(Blackhole blackhole) throws IOException {
+        for (String envelope : envelopes) {
+            blackhole.consume(decodeWithTree(envelope));
+        }
+    }
+
+    private Object decodeWithTree(String message) throws IOException {
+        JsonNode eventNode = objectMapper.readTree(message);
+        String logged = eventNode.toString();
+        JsonNode afterNode = eventNode.get("after");
+        if (afterNode == null || !afterNode.has("type") || !afterNode.has("payload")) {
+            return logged;
+        }
+        String payloadString = afterNode.get("payload").asText();
+        String operation = eventNode.get("op").asText();
+        JsonNode movieDataJson = objectMapper.readTree(payloadString);
+        String loggedPayload = movieDataJson.toString();
+        if ("d".equals(operation)) {
+            return loggedPayload;
+        }
+        return MovieOutboxEvent.upsert(objectMapper.treeToValue(movieDataJson, MovieDocument.class), operation);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(MovieOutboxEventDecoderBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,89 @@
+package com.mmtext.searchconsumerservice.event;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MovieOutboxEventDecoderTests {
+
+    private final MovieOutboxEventDecoder decoder = new MovieOutboxEventDecoder(new ObjectMapper());
+
+    static List<String> sampleEnvelopes() throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                MovieOutboxEventDecoderTests.class.getResourceAsStream("/debezium/movie-outbox-envelopes.jsonl"),
+                StandardCharsets.UTF_8))) {
+            return reader.lines().toList();
+        }
+    }
+
+    @Test
+    void decodesCreatedPayloadIntoMovieDocument() throws IOException {
+        MovieOutboxEvent event = decoder.decode(sampleEnvelopes().get(0));
+
+        assertThat(event.getAction()).isEqualTo(MovieOutboxEvent.Action.UPSERT);
+        assertThat(event.getMovieId()).isEqualTo(1L);
+        assertThat(event.getMovie().getTitle()).isEqualTo("Dhoom 1");
+        assertThat(event.getMovie().getRating()).isNull();
+        assertThat(event.getMovie().getSuggest().getInput()).containsExactly("Dhoom 1", "1");
+    }
+
+    @Test
+    void mapsSnakeCaseDurationFromTrigger() throws IOException {
+        MovieOutboxEvent event = decoder.decode(sampleEnvelopes().get(1));
+
+        assertThat(event.getEventType()).isEqualTo("UPDATED");
+        assertThat(event.getMovie().getDurationMin()).isEqualTo(129);
+        assertThat(event.getMovie().getRating()).isEqualTo("PG-13");
+    }
+
+    @Test
+    void ordersChangesOfAMovieBySourceLsn() throws IOException {
+        MovieOutboxEvent created = decoder.decode(sampleEnvelopes().get(0));
+        MovieOutboxEvent updated = decoder.decode(sampleEnvelopes().get(1));
+
+        assertThat(created.getSourceLsn()).isEqualTo(26845120L);
+        assertThat(created.isOlderThan(updated)).isTrue();
+        assertThat(updated.isOlderThan(created)).isFalse();
+        assertThat(MovieOutboxEvent.delete(1L, "DELETED").isOlderThan(updated)).isFalse();
+    }
+
+    @Test
+    void treatsSnapshotReadAsUpsert() throws IOException {
+        assertThat(decoder.decode(sampleEnvelopes().get(2)).getAction()).isEqualTo(MovieOutboxEvent.Action.UPSERT);
+    }
+
+    @Test
+    void deletedOutboxTypeBecomesDelete() throws IOException {
+        MovieOutboxEvent event = decoder.decode(sampleEnvelopes().get(3));
+
+        assertThat(event.getAction()).isEqualTo(MovieOutboxEvent.Action.DELETE);
+        assertThat(event.getMovieId()).isEqualTo(2L);
+    }
+
+    @Test
+    void outboxRowCleanupIsSkipped() throws IOException {
+        assertThat(decoder.decode(sampleEnvelopes().get(4)).getAction()).isEqualTo(MovieOutboxEvent.Action.SKIP);
+    }
+
+    @Test
+    void acceptsPayloadAsJsonObject() throws IOException {
+        MovieOutboxEvent event = decoder.decode(
+                "{\"after\":{\"type\":\"CREATED\",\"payload\":{\"id\":5,\"title\":\"Inception\",\"durationMin\":148}},\"op\":\"c\"}");
+
+        assertThat(event.getMovieId()).isEqualTo(5L);
+        assertThat(event.getMovie().getDurationMin()).isEqualTo(148);
+    }
+
+    @Test
+    void rejectsNonObjectEnvelope() {
+        assertThatThrownBy(() -> decoder.decode("[]")).isInstanceOf(IOException.class);
+    }
+}
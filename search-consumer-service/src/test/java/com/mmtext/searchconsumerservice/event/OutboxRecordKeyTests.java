@@ -0,0 +1,81 @@
+package com.mmtext.searchconsumerservice.event;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.apache.kafka.common.utils.Utils;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Derives the record keys Debezium produces for the sample envelopes from the connector's
+ * {@code message.key.columns}, and the partitions Kafka's default partitioner picks for them.
+ */
+class OutboxRecordKeyTests {
+
+    private static final Path CONNECTOR = Path.of("..", "connectors", "postgres-connector.json");
+    private static final int PARTITIONS = 12;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void eventsOfOneMovieShareAPartitionKey() throws IOException {
+        List<String> envelopes = MovieOutboxEventDecoderTests.sampleEnvelopes();
+        Map<String, List<String>> keyColumns = keyColumns();
+
+        // Two outbox rows (different UUIDs) of movie 1, then movie 7
+        String created = recordKey(envelopes.get(0), keyColumns);
+        String updated = recordKey(envelopes.get(1), keyColumns);
+        String other = recordKey(envelopes.get(2), keyColumns);
+
+        assertThat(created).isEqualTo("{\"aggregate_id\":1}").isEqualTo(updated);
+        assertThat(partition(created)).isEqualTo(partition(updated));
+        assertThat(other).isNotEqualTo(created);
+    }
+
+    @Test
+    void eventsOfOneShowShareAPartitionKey() throws IOException {
+        List<String> envelopes = ShowOutboxEventDecoderTests.sampleEnvelopes();
+        Map<String, List<String>> keyColumns = keyColumns();
+
+        String created = recordKey(envelopes.get(0), keyColumns);
+        String deleted = recordKey(envelopes.get(1), keyColumns);
+
+        assertThat(created).isEqualTo("{\"aggregate_id\":11}").isEqualTo(deleted);
+        assertThat(partition(created)).isEqualTo(partition(deleted));
+    }
+
+    // "schema.table:column,column;schema.table:column"
+    private Map<String, List<String>> keyColumns() throws IOException {
+        JsonNode config = objectMapper.readTree(CONNECTOR.toFile()).path("config");
+        Map<String, List<String>> keyColumns = new HashMap<>();
+        for (String table : config.path("message.key.columns").asText().split(";")) {
+            String[] parts = table.split(":", 2);
+            keyColumns.put(parts[0], List.of(parts[1].split(",")));
+        }
+        return keyColumns;
+    }
+
+    // With schemas disabled the JsonConverter writes the key struct as a plain object of its columns
+    private String recordKey(String envelope, Map<String, List<String>> keyColumns) throws IOException {
+        JsonNode root = objectMapper.readTree(envelope);
+        String table = root.path("source").path("schema").asText() + "." + root.path("source").path("table").asText();
+        List<String> columns = keyColumns.get(table);
+        assertThat(columns).as("key columns of %s", table).isNotNull();
+        ObjectNode key = objectMapper.createObjectNode();
+        columns.forEach(column -> key.set(column, root.path("after").path(column)));
+        return objectMapper.writeValueAsString(key);
+    }
+
+    private static int partition(String key) {
+        return Utils.toPositive(Utils.murmur2(key.getBytes(StandardCharsets.UTF_8))) % PARTITIONS;
+    }
+}
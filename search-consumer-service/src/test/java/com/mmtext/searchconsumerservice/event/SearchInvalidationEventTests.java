@@ -0,0 +1,54 @@
+package com.mmtext.searchconsumerservice.event;
+
+import com.mmtext.searchconsumerservice.esdocument.MovieDocument;
+import com.mmtext.searchconsumerservice.esdocument.ShowDocument;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SearchInvalidationEventTests {
+
+    @Test
+    void upsertCarriesNormalisedTokens() {
+        MovieDocument movie = new MovieDocument();
+        movie.setId(5L);
+        movie.setTitle("Spider-Man: No Way Home");
+        movie.setGenre("Action");
+        movie.setLanguage("English");
+
+        SearchInvalidationEvent event = SearchInvalidationEvent.forMovie(MovieOutboxEvent.upsert(movie, "UPDATED"));
+
+        assertEquals(5L, event.getMovieId());
+        assertEquals("Spider-Man: No Way Home", event.getTitle());
+        assertEquals(List.of("spider", "man", "no", "way", "home", "action", "english"), event.getTokens());
+    }
+
+    @Test
+    void deleteOnlyNamesTheMovie() {
+        SearchInvalidationEvent event = SearchInvalidationEvent.forMovie(MovieOutboxEvent.delete(9L, "DELETED"));
+
+        assertEquals(9L, event.getMovieId());
+        assertNull(event.getTitle());
+        assertTrue(event.getTokens().isEmpty());
+    }
+
+    @Test
+    void showNamesItsTheaterAndMovieTitleWithoutTheMovie() {
+        ShowDocument show = new ShowDocument();
+        show.setId(11L);
+        show.setMovieId(1L);
+        show.setTheaterId(3L);
+        show.setMovieTitle("Dhoom 1");
+
+        SearchInvalidationEvent event = SearchInvalidationEvent.forShow(ShowOutboxEvent.upsert(show, "CREATED"));
+
+        assertEquals(11L, event.getShowId());
+        assertEquals(3L, event.getTheaterId());
+        assertNull(event.getMovieId());
+        assertEquals(List.of("dhoom", "1"), event.getTokens());
+    }
+}
@@ -0,0 +1,67 @@
+package com.mmtext.searchconsumerservice.event;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ShowOutboxEventDecoderTests {
+
+    private final ShowOutboxEventDecoder decoder = new ShowOutboxEventDecoder(new ObjectMapper());
+
+    static List<String> sampleEnvelopes() throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                ShowOutboxEventDecoderTests.class.getResourceAsStream("/debezium/show-outbox-envelopes.jsonl"),
+                StandardCharsets.UTF_8))) {
+            return reader.lines().toList();
+        }
+    }
+
+    @Test
+    void decodesShowJoinedWithMovieAndTheater() throws IOException {
+        ShowOutboxEvent event = decoder.decode(sampleEnvelopes().get(0));
+
+        assertThat(event.getAction()).isEqualTo(ShowOutboxEvent.Action.UPSERT);
+        assertThat(event.getId()).isEqualTo(11L);
+        assertThat(event.getShow().getMovieTitle()).isEqualTo("Dhoom 1");
+        assertThat(event.getShow().getGenre()).isEqualTo("Action");
+        assertThat(event.getShow().getCity()).isEqualTo("Mumbai");
+        assertThat(event.getShow().getLocation().getLat()).isEqualTo(19.076);
+        assertThat(event.getShow().getLocation().getLon()).isEqualTo(72.8777);
+        assertThat(event.getShow().getTicketPrice()).isEqualTo(250);
+        assertThat(event.getShow().getShowTime())
+                .isEqualTo(OffsetDateTime.of(2025, 11, 13, 14, 0, 0, 0, ZoneOffset.UTC));
+    }
+
+    @Test
+    void deletedShowBecomesDelete() throws IOException {
+        ShowOutboxEvent event = decoder.decode(sampleEnvelopes().get(1));
+
+        assertThat(event.getAction()).isEqualTo(ShowOutboxEvent.Action.DELETE);
+        assertThat(event.getId()).isEqualTo(11L);
+    }
+
+    @Test
+    void theaterEventCarriesTheNewLocation() throws IOException {
+        ShowOutboxEvent event = decoder.decode(sampleEnvelopes().get(2));
+
+        assertThat(event.getAction()).isEqualTo(ShowOutboxEvent.Action.THEATER_MOVED);
+        assertThat(event.getId()).isEqualTo(3L);
+        assertThat(event.getCity()).isEqualTo("Pune");
+        assertThat(event.getLocation().getLat()).isEqualTo(18.5204);
+    }
+
+    @Test
+    void outboxRowCleanupIsSkipped() throws IOException {
+        assertThat(decoder.decode("{\"before\":{\"id\":\"8a41c0d2\"},\"after\":null,\"op\":\"d\"}").getAction())
+                .isEqualTo(ShowOutboxEvent.Action.SKIP);
+    }
+}
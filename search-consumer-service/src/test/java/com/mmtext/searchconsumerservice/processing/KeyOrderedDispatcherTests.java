@@ -0,0 +1,62 @@
+package com.mmtext.searchconsumerservice.processing;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class KeyOrderedDispatcherTests {
+
+    private final TopicPartition partition = new TopicPartition("movies", 0);
+    private final MockConsumer<String, String> consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+
+    KeyOrderedDispatcherTests() {
+        consumer.assign(List.of(partition));
+    }
+
+    @Test
+    void failedTaskIsDeadLetteredBeforeItsOffsetIsCommitted() throws Exception {
+        List<Long> deadLettered = new CopyOnWriteArrayList<>();
+        KeyOrderedDispatcher dispatcher = new KeyOrderedDispatcher(2, 10, Duration.ofSeconds(1),
+                (record, e) -> deadLettered.add(record.offset()));
+
+        dispatcher.dispatch(consumer, record(0), 1L, () -> {
+            throw new IllegalStateException("mapping conflict");
+        });
+        dispatcher.destroy();
+        dispatcher.commit(consumer);
+
+        assertThat(deadLettered).containsExactly(0L);
+        assertThat(consumer.committed(Set.of(partition))).containsEntry(partition, new OffsetAndMetadata(1));
+    }
+
+    @Test
+    void commitsStopAtATaskThatCouldNotBeDeadLettered() throws Exception {
+        KeyOrderedDispatcher dispatcher = new KeyOrderedDispatcher(2, 10, Duration.ofSeconds(1), (record, e) -> {
+            throw new IllegalStateException("broker unavailable");
+        });
+
+        dispatcher.dispatch(consumer, record(0), 1L, () -> { });
+        dispatcher.dispatch(consumer, record(1), 2L, () -> {
+            throw new IllegalStateException("mapping conflict");
+        });
+        dispatcher.dispatch(consumer, record(2), 3L, () -> { });
+        dispatcher.destroy();
+        dispatcher.commit(consumer);
+
+        assertThat(consumer.committed(Set.of(partition))).containsEntry(partition, new OffsetAndMetadata(1));
+    }
+
+    private ConsumerRecord<String, String> record(long offset) {
+        return new ConsumerRecord<>(partition.topic(), partition.partition(), offset, null, "{}");
+    }
+}
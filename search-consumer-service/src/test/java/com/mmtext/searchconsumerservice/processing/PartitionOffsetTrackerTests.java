@@ -0,0 +1,78 @@
+package com.mmtext.searchconsumerservice.processing;
+
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PartitionOffsetTrackerTests {
+
+    private final TopicPartition partition = new TopicPartition("movies", 0);
+    private final PartitionOffsetTracker tracker = new PartitionOffsetTracker();
+
+    @Test
+    void commitStopsAtLowestInFlightOffset() {
+        tracker.started(partition, 10);
+        tracker.started(partition, 11);
+        tracker.started(partition, 12);
+
+        tracker.completed(partition, 11);
+        tracker.completed(partition, 12);
+        assertThat(tracker.drainCommittable()).containsEntry(partition, new OffsetAndMetadata(10));
+
+        tracker.completed(partition, 10);
+        assertThat(tracker.drainCommittable()).containsEntry(partition, new OffsetAndMetadata(13));
+    }
+
+    @Test
+    void onlyAdvancedPartitionsAreReturned() {
+        tracker.started(partition, 5);
+        tracker.completed(partition, 5);
+        assertThat(tracker.drainCommittable()).hasSize(1);
+
+        Map<TopicPartition, OffsetAndMetadata> again = tracker.drainCommittable();
+        assertThat(again).isEmpty();
+    }
+
+    @Test
+    void reportsInFlightUntilForgotten() {
+        tracker.started(partition, 1);
+        assertThat(tracker.hasInFlight(List.of(partition))).isTrue();
+
+        tracker.forget(List.of(partition));
+        assertThat(tracker.hasInFlight(List.of(partition))).isFalse();
+    }
+
+    @Test
+    void drainingWhileWorkersCompleteNeverFailsOrGoesBack() throws Exception {
+        int records = 20_000;
+        ExecutorService workers = Executors.newFixedThreadPool(4);
+        long lastCommitted = -1;
+        try {
+            for (int offset = 0; offset < records; offset++) {
+                long started = offset;
+                tracker.started(partition, started);
+                workers.execute(() -> tracker.completed(partition, started));
+                OffsetAndMetadata committed = tracker.drainCommittable().get(partition);
+                if (committed != null) {
+                    assertThat(committed.offset()).isGreaterThan(lastCommitted).isLessThanOrEqualTo(offset + 1);
+                    lastCommitted = committed.offset();
+                }
+            }
+        } finally {
+            workers.shutdown();
+            assertThat(workers.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+        }
+
+        OffsetAndMetadata last = tracker.drainCommittable().get(partition);
+        assertThat(last != null ? last.offset() : lastCommitted).isEqualTo(records);
+        assertThat(tracker.hasInFlight(List.of(partition))).isFalse();
+    }
+}
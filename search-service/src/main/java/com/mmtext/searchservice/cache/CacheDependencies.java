@@ -0,0 +1,89 @@
+package com.mmtext.searchservice.cache;
+
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.Callable;
+
+/**
+ * Collects what a cached value was computed from, e.g. {@code movie:42} for a document in the
+ * result or {@code token:avengers} for a word of the query. {@link TwoTierCache} captures the
+ * dependencies while the loader runs and hands them to the {@link CacheKeyIndex}, so a change
+ * event can later evict exactly the entries built from the changed data.
+ *
+ * Loaders record from the thread they are called on; outside a capture recording is a no-op.
+ */
+public final class CacheDependencies {
+
+    public static final String ANY_MOVIE = "movie:any";
+    public static final String ANY_SHOW = "show:any";
+    public static final String SUGGEST = "suggest:";
+
+    private static final ThreadLocal<Set<String>> CURRENT = new ThreadLocal<>();
+
+    private CacheDependencies() {
+    }
+
+    public static void record(String dependency) {
+        Set<String> current = CURRENT.get();
+        if (current != null) {
+            current.add(dependency);
+        }
+    }
+
+    public static void recordTokens(String text) {
+        for (String token : tokens(text)) {
+            record("token:" + token);
+        }
+    }
+
+    /** Lower-cased letter/digit runs, must stay in line with the tokens search-consumer-service publishes. */
+    public static Set<String> tokens(String text) {
+        Set<String> tokens = new LinkedHashSet<>();
+        if (text == null) {
+            return tokens;
+        }
+        for (String token : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Autocomplete prefix as the suggest cache keys and dependencies use it: its words joined
+     * by single spaces, so "Spider-M" and "spider m" share an entry.
+     */
+    public static String normalizePrefix(String text) {
+        if (text == null) {
+            return "";
+        }
+        StringBuilder normalized = new StringBuilder();
+        for (String word : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!word.isEmpty()) {
+                if (normalized.length() > 0) {
+                    normalized.append(' ');
+                }
+                normalized.append(word);
+            }
+        }
+        return normalized.toString();
+    }
+
+    /** Runs {@code loader}, collecting what it records into {@code into}. Nested captures also count for the outer one. */
+    public static <T> T capture(Callable<T> loader, Set<String> into) throws Exception {
+        Set<String> outer = CURRENT.get();
+        CURRENT.set(into);
+        try {
+            return loader.call();
+        } finally {
+            if (outer != null) {
+                outer.addAll(into);
+                CURRENT.set(outer);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.mmtext.searchservice.cache;
+
+/**
+ * What {@link TwoTierCache} actually stores when refresh-ahead is on: the cached value plus
+ * when it was computed, how long that took and when it should be refreshed. The Redis TTL
+ * runs past {@code softExpiresAt}, so a stale value can still be served while it is recomputed.
+ *
+ * Plain mutable bean so the Redis cache mapper can round-trip it.
+ */
+public class CacheEnvelope {
+
+    private Object value;
+    private long computedAt;
+    private long computeMillis;
+    private long softExpiresAt;
+
+    public CacheEnvelope() {
+    }
+
+    public CacheEnvelope(Object value, long computedAt, long computeMillis, long softExpiresAt) {
+        this.value = value;
+        this.computedAt = computedAt;
+        this.computeMillis = computeMillis;
+        this.softExpiresAt = softExpiresAt;
+    }
+
+    public Object getValue() {
+        return value;
+    }
+
+    public void setValue(Object value) {
+        this.value = value;
+    }
+
+    public long getComputedAt() {
+        return computedAt;
+    }
+
+    public void setComputedAt(long computedAt) {
+        this.computedAt = computedAt;
+    }
+
+    public long getComputeMillis() {
+        return computeMillis;
+    }
+
+    public void setComputeMillis(long computeMillis) {
+        this.computeMillis = computeMillis;
+    }
+
+    public long getSoftExpiresAt() {
+        return softExpiresAt;
+    }
+
+    public void setSoftExpiresAt(long softExpiresAt) {
+        this.softExpiresAt = softExpiresAt;
+    }
+}
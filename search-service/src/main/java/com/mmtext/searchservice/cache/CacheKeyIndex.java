@@ -0,0 +1,170 @@
+package com.mmtext.searchservice.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reverse index from dependencies (see {@link CacheDependencies}) to the cache entries built from
+ * them, kept as one Redis set per dependency whose members are {@code <cacheName>::<key>}.
+ *
+ * The sets expire after {@code ttl}, which must outlive the longest cache entry; members whose
+ * entry already expired are harmless, evicting them is a no-op.
+ *
+ * Every drain also stamps its dependencies with the next value of a shared generation counter.
+ * A value computed while one of its dependencies was drained may hold the old data, so
+ * {@link TwoTierCache} compares the stamps with the {@link #generation()} read before loading
+ * (see {@link #invalidatedSince}) and does not keep such a value.
+ */
+public class CacheKeyIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(CacheKeyIndex.class);
+
+    // One step, so an entry indexed while draining is either returned or kept for the next drain.
+    // KEYS: the n index sets, their n generation keys, the counter; ARGV: n, generation ttl
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> DRAIN = new DefaultRedisScript<>(
+            "local n = tonumber(ARGV[1]) "
+                    + "local sets = {unpack(KEYS, 1, n)} "
+                    + "local members = redis.call('sunion', unpack(sets)) "
+                    + "redis.call('del', unpack(sets)) "
+                    + "local generation = redis.call('incr', KEYS[2 * n + 1]) "
+                    + "for i = n + 1, 2 * n do redis.call('set', KEYS[i], generation, 'px', ARGV[2]) end "
+                    + "return members",
+            List.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final String keyPrefix;
+    private final Duration ttl;
+
+    public CacheKeyIndex(StringRedisTemplate redisTemplate, String keyPrefix, Duration ttl) {
+        this.redisTemplate = redisTemplate;
+        this.keyPrefix = keyPrefix;
+        this.ttl = ttl;
+    }
+
+    public void record(String cacheName, String key, Set<String> dependencies) {
+        if (dependencies.isEmpty()) {
+            return;
+        }
+        byte[] member = (cacheName + "::" + key).getBytes(StandardCharsets.UTF_8);
+        try {
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (String dependency : dependencies) {
+                    add(connection, indexKey(dependency), member);
+                }
+                return null;
+            });
+        } catch (Exception e) {
+            // The entry is cached anyway, it just will not be evicted early
+            log.warn("Could not index {}::{} under {}: {}", cacheName, key, dependencies, e.getMessage());
+        }
+    }
+
+    /** {@link #record} for several entries of one cache, in one pipeline. */
+    public void recordAll(String cacheName, Map<String, Set<String>> dependenciesByKey) {
+        try {
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                dependenciesByKey.forEach((key, dependencies) -> {
+                    byte[] member = (cacheName + "::" + key).getBytes(StandardCharsets.UTF_8);
+                    for (String dependency : dependencies) {
+                        add(connection, indexKey(dependency), member);
+                    }
+                });
+                return null;
+            });
+        } catch (Exception e) {
+            log.warn("Could not index {} entries of {}: {}", dependenciesByKey.size(), cacheName, e.getMessage());
+        }
+    }
+
+    /**
+     * Current generation, read before computing a value. {@code -1} when Redis cannot tell, a
+     * value computed from then on is kept without the check, like an entry that failed to index.
+     */
+    public long generation() {
+        try {
+            String generation = redisTemplate.opsForValue().get(generationKey());
+            return generation != null ? Long.parseLong(generation) : 0;
+        } catch (Exception e) {
+            log.warn("Could not read the invalidation generation: {}", e.getMessage());
+            return -1;
+        }
+    }
+
+    /** Whether any of {@code dependencies} was drained after {@code generation} was read. */
+    public boolean invalidatedSince(Collection<String> dependencies, long generation) {
+        if (generation < 0 || dependencies.isEmpty()) {
+            return false;
+        }
+        List<String> keys = new ArrayList<>(dependencies.size());
+        for (String dependency : dependencies) {
+            keys.add(generationKey(dependency));
+        }
+        try {
+            List<String> stamps = redisTemplate.opsForValue().multiGet(keys);
+            if (stamps != null) {
+                for (String stamp : stamps) {
+                    if (stamp != null && Long.parseLong(stamp) > generation) {
+                        return true;
+                    }
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Could not check {} for invalidations: {}", dependencies, e.getMessage());
+        }
+        return false;
+    }
+
+    /** Returns every {@code <cacheName>::<key>} recorded under any of {@code dependencies} and forgets them. */
+    public Set<String> drain(Collection<String> dependencies) {
+        if (dependencies.isEmpty()) {
+            return Set.of();
+        }
+        List<String> keys = new ArrayList<>(2 * dependencies.size() + 1);
+        for (String dependency : dependencies) {
+            keys.add(keyPrefix + dependency);
+        }
+        for (String dependency : dependencies) {
+            keys.add(generationKey(dependency));
+        }
+        keys.add(generationKey());
+        List<?> members = redisTemplate.execute(DRAIN, keys,
+                String.valueOf(dependencies.size()), String.valueOf(ttl.toMillis()));
+        Set<String> drained = new HashSet<>();
+        if (members != null) {
+            members.forEach(member -> drained.add(String.valueOf(member)));
+        }
+        return drained;
+    }
+
+    private void add(RedisConnection connection, byte[] indexKey, byte[] member) {
+        connection.setCommands().sAdd(indexKey, member);
+        connection.keyCommands().pExpire(indexKey, ttl.toMillis());
+    }
+
+    private byte[] indexKey(String dependency) {
+        return (keyPrefix + dependency).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private String generationKey(String dependency) {
+        return keyPrefix + "gen:" + dependency;
+    }
+
+    private String generationKey() {
+        return keyPrefix + "generation";
+    }
+}
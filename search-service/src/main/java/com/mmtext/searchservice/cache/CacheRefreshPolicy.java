@@ -0,0 +1,57 @@
+package com.mmtext.searchservice.cache;
+
+import org.springframework.data.redis.cache.RedisCacheWriter;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Refresh-ahead rules of one cache.
+ *
+ * Each entry gets a soft expiry of {@code ttl} ± {@code jitter} so entries written together do
+ * not expire together. Before that, a read triggers an early refresh with the probability of
+ * the XFetch rule ({@code now - computeMillis * beta * ln(rand) >= softExpiresAt}): expensive
+ * entries start refreshing earlier, cheap ones barely before their soft expiry. Redis keeps
+ * every entry {@code staleWindow} past its soft expiry so the old value can be served meanwhile.
+ */
+public class CacheRefreshPolicy implements RedisCacheWriter.TtlFunction {
+
+    private final Duration ttl;
+    private final double jitter;
+    private final double beta;
+    private final Duration staleWindow;
+
+    public CacheRefreshPolicy(Duration ttl, double jitter, double beta, Duration staleWindow) {
+        this.ttl = ttl;
+        this.jitter = jitter;
+        this.beta = beta;
+        this.staleWindow = staleWindow;
+    }
+
+    public CacheEnvelope wrap(Object value, long computedAt, long computeMillis) {
+        long ttlMillis = ttl.toMillis();
+        long spread = (long) (ttlMillis * jitter);
+        long softTtl = spread > 0 ? ttlMillis + ThreadLocalRandom.current().nextLong(-spread, spread + 1) : ttlMillis;
+        return new CacheEnvelope(value, computedAt, computeMillis, computedAt + softTtl);
+    }
+
+    public boolean shouldRefresh(CacheEnvelope envelope, long now) {
+        if (now >= envelope.getSoftExpiresAt()) {
+            return true;
+        }
+        double delta = Math.max(envelope.getComputeMillis(), 1);
+        // 1 - nextDouble() is in (0, 1], so the logarithm is finite and <= 0
+        double random = 1.0 - ThreadLocalRandom.current().nextDouble();
+        return now - delta * beta * Math.log(random) >= envelope.getSoftExpiresAt();
+    }
+
+    /** Hard expiry in Redis: the rest of the soft TTL plus the stale window. */
+    @Override
+    public Duration getTimeToLive(Object key, Object value) {
+        if (value instanceof CacheEnvelope envelope) {
+            long remaining = Math.max(envelope.getSoftExpiresAt() - System.currentTimeMillis(), 0);
+            return Duration.ofMillis(remaining).plus(staleWindow);
+        }
+        return ttl.plus(staleWindow);
+    }
+}
@@ -0,0 +1,65 @@
+package com.mmtext.searchservice.cache;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.mmtext.searchservice.dto.SearchPage;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The value types the compact cache format knows, each under a one-byte tag written in front
+ * of the body instead of a class name per element.
+ *
+ * Containers are told apart by the class of their first element ({@code SearchPage<MovieDocument>}
+ * vs {@code SearchPage<TheaterSummary>}); an empty container decodes the same under any
+ * element type, so it uses whichever was registered first for its container class.
+ */
+public class CachedTypes {
+
+    private final Map<Byte, JavaType> typesByTag = new HashMap<>();
+    private final Map<String, Byte> tagsByShape = new HashMap<>();
+
+    public CachedTypes register(int tag, JavaType type) {
+        if (tag <= 0 || tag > Byte.MAX_VALUE) {
+            throw new IllegalArgumentException("Tag must be within 1.." + Byte.MAX_VALUE + ": " + tag);
+        }
+        if (typesByTag.putIfAbsent((byte) tag, type) != null) {
+            throw new IllegalArgumentException("Tag " + tag + " is already registered");
+        }
+        Class<?> element = type.containedTypeCount() > 0 ? type.containedType(0).getRawClass() : null;
+        tagsByShape.put(shape(container(type.getRawClass()), element), (byte) tag);
+        tagsByShape.putIfAbsent(shape(container(type.getRawClass()), null), (byte) tag);
+        return this;
+    }
+
+    /** @return the tag for {@code value}, or {@code null} if it has to go through the generic format */
+    public Byte tagFor(Object value) {
+        Class<?> container = container(value.getClass());
+        Object first = firstElement(value);
+        return tagsByShape.get(shape(container, first != null ? first.getClass() : null));
+    }
+
+    public JavaType typeOf(byte tag) {
+        JavaType type = typesByTag.get(tag);
+        if (type == null) {
+            throw new IllegalArgumentException("Unknown cached type tag " + tag);
+        }
+        return type;
+    }
+
+    private static Object firstElement(Object value) {
+        List<?> items = value instanceof SearchPage<?> page ? page.getItems()
+                : value instanceof List<?> list ? list : null;
+        return items != null && !items.isEmpty() ? items.get(0) : null;
+    }
+
+    // Any List implementation (ArrayList, Collections$Unmodifiable...) is stored and read back as a List
+    private static Class<?> container(Class<?> type) {
+        return List.class.isAssignableFrom(type) ? List.class : type;
+    }
+
+    private static String shape(Class<?> container, Class<?> element) {
+        return element != null ? container.getName() + "<" + element.getName() + ">" : container.getName();
+    }
+}
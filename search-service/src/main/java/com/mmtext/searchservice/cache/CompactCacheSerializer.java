@@ -0,0 +1,141 @@
+package com.mmtext.searchservice.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4SafeDecompressor;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Binary cache value format: a small header, then the value encoded with a mapper that has no
+ * default typing (Smile in production), LZ4-compressed once it reaches {@code compressionThreshold}.
+ *
+ * <pre>
+ * magic(1) flags(1) tag(1) [computedAt(8) computeMillis(8) softExpiresAt(8)] [rawLength(4)] body
+ * </pre>
+ *
+ * A {@link CacheEnvelope} is flattened into the header so the body is always a concrete
+ * registered type (see {@link CachedTypes}). Values of unregistered types, and any bytes not
+ * starting with the magic byte (e.g. entries written before this format), go through
+ * {@code fallback}.
+ */
+public class CompactCacheSerializer implements RedisSerializer<Object> {
+
+    // Never the first byte of a JSON document
+    static final byte MAGIC = (byte) 0xC5;
+
+    private static final int FLAG_ENVELOPE = 1;
+    private static final int FLAG_LZ4 = 1 << 1;
+
+    private final ObjectMapper mapper;
+    private final CachedTypes types;
+    private final RedisSerializer<Object> fallback;
+    private final int compressionThreshold;
+    private final LZ4Compressor compressor = LZ4Factory.fastestInstance().fastCompressor();
+    // Bounds-checked: cache bytes come from Redis and the stored length is not trusted
+    private final LZ4SafeDecompressor decompressor = LZ4Factory.fastestInstance().safeDecompressor();
+
+    public CompactCacheSerializer(ObjectMapper mapper, CachedTypes types,
+                                  RedisSerializer<Object> fallback, int compressionThreshold) {
+        this.mapper = mapper;
+        this.types = types;
+        this.fallback = fallback;
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null) {
+            return fallback.serialize(null);
+        }
+        CacheEnvelope envelope = value instanceof CacheEnvelope e ? e : null;
+        Object payload = envelope != null ? envelope.getValue() : value;
+        Byte tag = payload != null ? types.tagFor(payload) : null;
+        if (tag == null) {
+            return fallback.serialize(value);
+        }
+
+        byte[] body;
+        try {
+            body = mapper.writerFor(types.typeOf(tag)).writeValueAsBytes(payload);
+        } catch (Exception e) {
+            throw new SerializationException("Could not write cached " + payload.getClass().getName(), e);
+        }
+
+        int rawLength = body.length;
+        int flags = envelope != null ? FLAG_ENVELOPE : 0;
+        if (rawLength >= compressionThreshold) {
+            byte[] compressed = compress(body);
+            if (compressed.length < rawLength) {
+                body = compressed;
+                flags |= FLAG_LZ4;
+            }
+        }
+
+        int headerLength = 3 + (envelope != null ? 24 : 0) + ((flags & FLAG_LZ4) != 0 ? 4 : 0);
+        ByteBuffer out = ByteBuffer.allocate(headerLength + body.length)
+                .put(MAGIC)
+                .put((byte) flags)
+                .put(tag);
+        if (envelope != null) {
+            out.putLong(envelope.getComputedAt())
+                    .putLong(envelope.getComputeMillis())
+                    .putLong(envelope.getSoftExpiresAt());
+        }
+        if ((flags & FLAG_LZ4) != 0) {
+            out.putInt(rawLength);
+        }
+        return out.put(body).array();
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0 || bytes[0] != MAGIC) {
+            return fallback.deserialize(bytes);
+        }
+        try {
+            ByteBuffer in = ByteBuffer.wrap(bytes, 1, bytes.length - 1);
+            int flags = in.get();
+            byte tag = in.get();
+            CacheEnvelope envelope = null;
+            if ((flags & FLAG_ENVELOPE) != 0) {
+                envelope = new CacheEnvelope(null, in.getLong(), in.getLong(), in.getLong());
+            }
+
+            Object value;
+            if ((flags & FLAG_LZ4) != 0) {
+                int rawLength = in.getInt();
+                byte[] body = decompress(bytes, in.position(), rawLength);
+                value = mapper.readerFor(types.typeOf(tag)).readValue(body);
+            } else {
+                value = mapper.readerFor(types.typeOf(tag)).readValue(bytes, in.position(), bytes.length - in.position());
+            }
+            if (envelope == null) {
+                return value;
+            }
+            envelope.setValue(value);
+            return envelope;
+        } catch (Exception e) {
+            throw new SerializationException("Could not read compact cache value", e);
+        }
+    }
+
+    private byte[] decompress(byte[] bytes, int offset, int rawLength) {
+        byte[] body = new byte[rawLength];
+        int length = decompressor.decompress(bytes, offset, bytes.length - offset, body, 0, rawLength);
+        if (length != rawLength) {
+            throw new SerializationException("Compressed body is " + length + " bytes, expected " + rawLength);
+        }
+        return body;
+    }
+
+    private byte[] compress(byte[] raw) {
+        byte[] buffer = new byte[compressor.maxCompressedLength(raw.length)];
+        int length = compressor.compress(raw, 0, raw.length, buffer, 0, buffer.length);
+        return Arrays.copyOf(buffer, length);
+    }
+}
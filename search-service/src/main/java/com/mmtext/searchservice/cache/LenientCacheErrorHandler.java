@@ -0,0 +1,36 @@
+package com.mmtext.searchservice.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.interceptor.CacheErrorHandler;
+
+/**
+ * Keeps Redis trouble out of the search responses: a failed read is a miss (the method runs
+ * against Elasticsearch) and a failed write is only logged. Evictions and clears still fail,
+ * the cache endpoints must not report success for data that is still cached.
+ */
+public class LenientCacheErrorHandler implements CacheErrorHandler {
+
+    private static final Logger log = LoggerFactory.getLogger(LenientCacheErrorHandler.class);
+
+    @Override
+    public void handleCacheGetError(RuntimeException exception, Cache cache, Object key) {
+        log.warn("Cache read of {}::{} failed, treating it as a miss: {}", cache.getName(), key, exception.getMessage());
+    }
+
+    @Override
+    public void handleCachePutError(RuntimeException exception, Cache cache, Object key, Object value) {
+        log.warn("Cache write of {}::{} failed: {}", cache.getName(), key, exception.getMessage());
+    }
+
+    @Override
+    public void handleCacheEvictError(RuntimeException exception, Cache cache, Object key) {
+        throw exception;
+    }
+
+    @Override
+    public void handleCacheClearError(RuntimeException exception, Cache cache) {
+        throw exception;
+    }
+}
@@ -0,0 +1,47 @@
+package com.mmtext.searchservice.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Applies invalidations published by other replicas to the local L1 tier.
+ * Messages originating from this instance are ignored, the local tier was already updated.
+ */
+public class NearCacheInvalidationListener implements MessageListener {
+
+    private static final Logger log = LoggerFactory.getLogger(NearCacheInvalidationListener.class);
+
+    private final TwoTierCacheManager cacheManager;
+    private final String instanceId;
+
+    public NearCacheInvalidationListener(TwoTierCacheManager cacheManager, String instanceId) {
+        this.cacheManager = cacheManager;
+        this.instanceId = instanceId;
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        String[] parts = body.split("\\|", 4);
+        if (parts.length < 4) {
+            log.warn("Ignoring malformed near cache invalidation: {}", body);
+            return;
+        }
+        if (instanceId.equals(parts[1])) {
+            return;
+        }
+
+        String cacheName = parts[2];
+        if (NearCacheInvalidationPublisher.CLEAR.equals(parts[0])) {
+            log.debug("Clearing L1 cache {} on request of {}", cacheName, parts[1]);
+            cacheManager.clearLocal(cacheName);
+        } else {
+            log.debug("Evicting L1 entry {}::{} on request of {}", cacheName, parts[3], parts[1]);
+            cacheManager.evictLocal(cacheName, parts[3]);
+        }
+    }
+}
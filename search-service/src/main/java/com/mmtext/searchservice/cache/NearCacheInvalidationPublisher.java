@@ -0,0 +1,55 @@
+package com.mmtext.searchservice.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.UUID;
+
+/**
+ * Broadcasts L1 invalidations over Redis pub/sub so that every replica drops its
+ * in-process copy when an entry is written, evicted or cleared on any instance.
+ *
+ * Message format: {@code <E|C>|<originInstanceId>|<cacheName>|<key>}, key is empty for clears.
+ */
+public class NearCacheInvalidationPublisher {
+
+    private static final Logger log = LoggerFactory.getLogger(NearCacheInvalidationPublisher.class);
+
+    static final String EVICT = "E";
+    static final String CLEAR = "C";
+
+    private final StringRedisTemplate redisTemplate;
+    private final String channel;
+    private final String instanceId = UUID.randomUUID().toString();
+
+    public NearCacheInvalidationPublisher(StringRedisTemplate redisTemplate, String channel) {
+        this.redisTemplate = redisTemplate;
+        this.channel = channel;
+    }
+
+    public String getInstanceId() {
+        return instanceId;
+    }
+
+    public String getChannel() {
+        return channel;
+    }
+
+    public void publishEvict(String cacheName, String key) {
+        publish(String.join("|", EVICT, instanceId, cacheName, key));
+    }
+
+    public void publishClear(String cacheName) {
+        publish(String.join("|", CLEAR, instanceId, cacheName, ""));
+    }
+
+    private void publish(String message) {
+        try {
+            redisTemplate.convertAndSend(channel, message);
+        } catch (Exception e) {
+            // A lost invalidation only leaves other replicas stale until the L1 TTL expires
+            log.warn("Failed to publish near cache invalidation {}: {}", message, e.getMessage());
+        }
+    }
+}
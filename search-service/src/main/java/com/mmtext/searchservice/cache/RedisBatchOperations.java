@@ -0,0 +1,186 @@
+package com.mmtext.searchservice.cache;
+
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.util.ByteUtils;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Multi-key access to the Redis caches, which the cache abstraction only offers one key at a
+ * time. Keys and values go through each cache's own prefix, serializers and TTL, so the entries
+ * are the same ones {@code RedisCache} reads and writes.
+ *
+ * Reads are {@code MGET}s of at most {@code maxKeysPerCommand} keys, writes are {@code SET ... PX}
+ * per key ({@code MSET} cannot carry a TTL); either way all commands of a call are sent in one
+ * pipeline, so N keys cost one round trip. Every call is counted per operation with its batch
+ * size, see {@link #stats()}.
+ */
+public class RedisBatchOperations {
+
+    // Upper bounds of the batch size histogram, the last bucket takes everything above
+    private static final int[] SIZE_BUCKETS = {1, 5, 10, 50, 100};
+
+    private final StringRedisTemplate redisTemplate;
+    private final int maxKeysPerCommand;
+    private final Map<String, BatchStats> stats = new ConcurrentHashMap<>();
+
+    public RedisBatchOperations(StringRedisTemplate redisTemplate, int maxKeysPerCommand) {
+        this.redisTemplate = redisTemplate;
+        this.maxKeysPerCommand = Math.max(maxKeysPerCommand, 1);
+    }
+
+    /** @return the stored value of every key present in Redis */
+    public Map<String, Object> getAll(RedisCache cache, List<String> keys) {
+        Map<String, Object> found = new HashMap<>();
+        if (keys.isEmpty()) {
+            return found;
+        }
+        RedisCacheConfiguration config = cache.getCacheConfiguration();
+        List<byte[]> rawKeys = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            rawKeys.add(rawKey(cache, config, key));
+        }
+
+        long start = System.nanoTime();
+        // No result serializer, the values are decoded with the cache's own below
+        List<Object> replies = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            RedisStringCommands commands = connection.stringCommands();
+            for (int from = 0; from < rawKeys.size(); from += maxKeysPerCommand) {
+                List<byte[]> chunk = rawKeys.subList(from, Math.min(from + maxKeysPerCommand, rawKeys.size()));
+                commands.mGet(chunk.toArray(new byte[0][]));
+            }
+            return null;
+        }, (RedisSerializer<?>) null);
+        int index = 0;
+        for (Object reply : replies) {
+            for (Object raw : (List<?>) reply) {
+                if (raw instanceof byte[] bytes) {
+                    Object value = config.getValueSerializationPair().read(ByteBuffer.wrap(bytes));
+                    if (value != null) {
+                        found.put(keys.get(index), value);
+                    }
+                }
+                index++;
+            }
+        }
+        record("mget:" + cache.getName(), keys.size(), found.size(), start);
+        return found;
+    }
+
+    /** Writes all values with the cache's TTL, in one pipeline. */
+    public void putAll(RedisCache cache, Map<String, Object> values) {
+        if (values.isEmpty()) {
+            return;
+        }
+        RedisCacheConfiguration config = cache.getCacheConfiguration();
+        Map<byte[], byte[]> raw = new LinkedHashMap<>();
+        List<Duration> ttls = new ArrayList<>(values.size());
+        values.forEach((key, value) -> {
+            raw.put(rawKey(cache, config, key), ByteUtils.getBytes(config.getValueSerializationPair().write(value)));
+            ttls.add(config.getTtlFunction().getTimeToLive(key, value));
+        });
+
+        long start = System.nanoTime();
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            RedisStringCommands commands = connection.stringCommands();
+            int i = 0;
+            for (Map.Entry<byte[], byte[]> entry : raw.entrySet()) {
+                Duration ttl = ttls.get(i++);
+                Expiration expiration = ttl != null && !ttl.isZero() && !ttl.isNegative()
+                        ? Expiration.from(ttl) : Expiration.persistent();
+                commands.set(entry.getKey(), entry.getValue(), expiration, RedisStringCommands.SetOption.upsert());
+            }
+            return null;
+        });
+        record("mset:" + cache.getName(), values.size(), values.size(), start);
+    }
+
+    /**
+     * Runs any commands in one pipeline through the string template, counted under
+     * {@code operation} with {@code commands} as the batch size.
+     */
+    public List<Object> pipelined(String operation, int commands, RedisCallback<?> callback) {
+        long start = System.nanoTime();
+        List<Object> replies = redisTemplate.executePipelined(callback);
+        record(operation, commands, replies.size(), start);
+        return replies;
+    }
+
+    /** Calls, keys and batch size histogram per operation since startup. */
+    public Map<String, Object> stats() {
+        Map<String, Object> all = new LinkedHashMap<>();
+        stats.forEach((operation, batch) -> all.put(operation, batch.toMap()));
+        return all;
+    }
+
+    private void record(String operation, int size, int found, long startNanos) {
+        stats.computeIfAbsent(operation, o -> new BatchStats()).record(size, found, System.nanoTime() - startNanos);
+    }
+
+    private static byte[] rawKey(RedisCache cache, RedisCacheConfiguration config, String key) {
+        String prefix = config.usePrefix() ? config.getKeyPrefixFor(cache.getName()) : "";
+        return ByteUtils.getBytes(config.getKeySerializationPair().write(prefix + key));
+    }
+
+    private static final class BatchStats {
+        final LongAdder calls = new LongAdder();
+        final LongAdder keys = new LongAdder();
+        final LongAdder found = new LongAdder();
+        final LongAdder nanos = new LongAdder();
+        final AtomicLong maxSize = new AtomicLong();
+        final LongAdder[] sizes = new LongAdder[SIZE_BUCKETS.length + 1];
+
+        BatchStats() {
+            for (int i = 0; i < sizes.length; i++) {
+                sizes[i] = new LongAdder();
+            }
+        }
+
+        void record(int size, int hits, long elapsedNanos) {
+            calls.increment();
+            keys.add(size);
+            found.add(hits);
+            nanos.add(elapsedNanos);
+            maxSize.accumulateAndGet(size, Math::max);
+            int bucket = 0;
+            while (bucket < SIZE_BUCKETS.length && size > SIZE_BUCKETS[bucket]) {
+                bucket++;
+            }
+            sizes[bucket].increment();
+        }
+
+        Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            long count = calls.sum();
+            map.put("calls", count);
+            map.put("keys", keys.sum());
+            map.put("found", found.sum());
+            map.put("maxBatchSize", maxSize.get());
+            map.put("avgMillis", count > 0 ? nanos.sum() / 1_000_000.0 / count : 0);
+            Map<String, Long> histogram = new LinkedHashMap<>();
+            for (int i = 0; i < sizes.length; i++) {
+                String label = i == 0 ? "1"
+                        : i < SIZE_BUCKETS.length ? (SIZE_BUCKETS[i - 1] + 1) + "-" + SIZE_BUCKETS[i]
+                        : ">" + SIZE_BUCKETS[SIZE_BUCKETS.length - 1];
+                histogram.put(label, sizes[i].sum());
+            }
+            map.put("batchSizes", histogram);
+            return map;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.mmtext.searchservice.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Short-lived Redis lease ({@code SET NX PX}) that elects one replica to recompute a missing
+ * cache entry. The lease expires on its own, so a replica dying mid-load only delays the
+ * others by the lease TTL.
+ */
+public class RedisLoadLease {
+
+    private static final Logger log = LoggerFactory.getLogger(RedisLoadLease.class);
+
+    // Only the holder may release, a lease that already expired and was re-taken is left alone
+    private static final RedisScript<Long> RELEASE = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final String keyPrefix;
+    private final Duration ttl;
+    private final Duration waitTimeout;
+    private final Duration pollInterval;
+
+    public RedisLoadLease(StringRedisTemplate redisTemplate, String keyPrefix,
+                          Duration ttl, Duration waitTimeout, Duration pollInterval) {
+        this.redisTemplate = redisTemplate;
+        this.keyPrefix = keyPrefix;
+        this.ttl = ttl;
+        this.waitTimeout = waitTimeout;
+        this.pollInterval = pollInterval;
+    }
+
+    /** How long a replica that lost the lease waits for the holder's value before loading itself. */
+    public Duration getWaitTimeout() {
+        return waitTimeout;
+    }
+
+    public Duration getPollInterval() {
+        return pollInterval;
+    }
+
+    /**
+     * @return a token to pass to {@link #release}, or {@code null} when another replica holds the lease.
+     * If Redis cannot be reached the caller is treated as the holder and simply loads.
+     */
+    public String tryAcquire(String cacheName, String key) {
+        String token = UUID.randomUUID().toString();
+        try {
+            Boolean acquired = redisTemplate.opsForValue().setIfAbsent(leaseKey(cacheName, key), token, ttl);
+            return Boolean.FALSE.equals(acquired) ? null : token;
+        } catch (Exception e) {
+            log.warn("Could not take load lease for {}::{}: {}", cacheName, key, e.getMessage());
+            return token;
+        }
+    }
+
+    public void release(String cacheName, String key, String token) {
+        try {
+            redisTemplate.execute(RELEASE, List.of(leaseKey(cacheName, key)), token);
+        } catch (Exception e) {
+            log.warn("Could not release load lease for {}::{}: {}", cacheName, key, e.getMessage());
+        }
+    }
+
+    private String leaseKey(String cacheName, String key) {
+        return keyPrefix + cacheName + "::" + key;
+    }
+}
@@ -0,0 +1,66 @@
+package com.mmtext.searchservice.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Registers a pub/sub listener (L1 or search invalidations) once the application is up.
+ *
+ * The listener container fails hard when Redis cannot be reached while subscribing,
+ * so the subscription is retried in the background instead of blocking startup.
+ * Until it succeeds, staleness is bounded by the cache TTLs.
+ */
+public class RedisTopicSubscriber implements ApplicationListener<ApplicationReadyEvent>, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(RedisTopicSubscriber.class);
+    private static final long RETRY_DELAY_SECONDS = 5;
+
+    private final RedisMessageListenerContainer container;
+    private final MessageListener listener;
+    private final ChannelTopic topic;
+    private final ScheduledExecutorService retryExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "redis-subscriber");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public RedisTopicSubscriber(RedisMessageListenerContainer container,
+                                           MessageListener listener,
+                                           ChannelTopic topic) {
+        this.container = container;
+        this.listener = listener;
+        this.topic = topic;
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        retryExecutor.execute(this::subscribe);
+    }
+
+    private void subscribe() {
+        try {
+            container.addMessageListener(listener, topic);
+            log.info("Subscribed to {}", topic.getTopic());
+        } catch (Exception e) {
+            container.removeMessageListener(listener, topic);
+            log.warn("Could not subscribe to {} ({}), retrying in {}s",
+                    topic.getTopic(), e.getMessage(), RETRY_DELAY_SECONDS);
+            retryExecutor.schedule(this::subscribe, RETRY_DELAY_SECONDS, TimeUnit.SECONDS);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        retryExecutor.shutdownNow();
+    }
+}
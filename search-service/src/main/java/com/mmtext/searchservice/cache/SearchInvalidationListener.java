@@ -0,0 +1,103 @@
+package com.mmtext.searchservice.cache;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Evicts the cached queries affected by an index write reported by search-consumer-service.
+ *
+ * An event names the changed movie (and/or theater), the searchable tokens of its new version
+ * and its title. Entries are looked up in the {@link CacheKeyIndex} by: the document itself
+ * (results that contained it), its tokens and title prefixes (queries it may match now) and
+ * {@link CacheDependencies#ANY_MOVIE} / {@link CacheDependencies#ANY_SHOW} (queries without text
+ * that any movie or show can enter).
+ * Suggestions complete from every word of the title, so the prefixes of each word suffix
+ * count for {@link CacheDependencies#SUGGEST} entries.
+ */
+public class SearchInvalidationListener implements MessageListener {
+
+    private static final Logger log = LoggerFactory.getLogger(SearchInvalidationListener.class);
+    private static final int MAX_PREFIX_LENGTH = 32;
+    // search-consumer-service indexes at most this many word suffixes of a title for completion
+    private static final int MAX_SUGGEST_INPUTS = 8;
+
+    // Plain mapper, the event is not written by the cache serializer
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final CacheKeyIndex keyIndex;
+    private final CacheManager cacheManager;
+
+    public SearchInvalidationListener(CacheKeyIndex keyIndex, CacheManager cacheManager) {
+        this.keyIndex = keyIndex;
+        this.cacheManager = cacheManager;
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            Set<String> dependencies = dependenciesOf(objectMapper.readTree(message.getBody()));
+            int evicted = 0;
+            for (String entry : keyIndex.drain(dependencies)) {
+                int separator = entry.indexOf("::");
+                Cache cache = separator > 0 ? cacheManager.getCache(entry.substring(0, separator)) : null;
+                if (cache != null) {
+                    cache.evict(entry.substring(separator + 2));
+                    evicted++;
+                }
+            }
+            log.debug("Evicted {} entries for {}", evicted, dependencies);
+        } catch (Exception e) {
+            log.warn("Could not apply search invalidation {}: {}", new String(message.getBody()), e.getMessage());
+        }
+    }
+
+    static Set<String> dependenciesOf(JsonNode event) {
+        Set<String> dependencies = new LinkedHashSet<>();
+        if (event.hasNonNull("movieId")) {
+            dependencies.add("movie:" + event.get("movieId").asLong());
+            dependencies.add(CacheDependencies.ANY_MOVIE);
+        }
+        if (event.hasNonNull("theaterId")) {
+            dependencies.add("theater:" + event.get("theaterId").asLong());
+        }
+        if (event.hasNonNull("showId")) {
+            dependencies.add("show:" + event.get("showId").asLong());
+            dependencies.add(CacheDependencies.ANY_SHOW);
+        }
+        for (JsonNode token : event.path("tokens")) {
+            dependencies.add("token:" + token.asText());
+        }
+        if (event.hasNonNull("title")) {
+            String title = event.get("title").asText().toLowerCase(Locale.ROOT);
+            for (int length = 1; length <= Math.min(title.length(), MAX_PREFIX_LENGTH); length++) {
+                dependencies.add("prefix:" + title.substring(0, length));
+            }
+            addSuggestPrefixes(CacheDependencies.normalizePrefix(title), dependencies);
+        }
+        return dependencies;
+    }
+
+    private static void addSuggestPrefixes(String words, Set<String> dependencies) {
+        int start = 0;
+        for (int input = 0; input < MAX_SUGGEST_INPUTS && start < words.length(); input++) {
+            String suffix = words.substring(start);
+            for (int length = 1; length <= Math.min(suffix.length(), MAX_PREFIX_LENGTH); length++) {
+                dependencies.add(CacheDependencies.SUGGEST + suffix.substring(0, length));
+            }
+            int space = words.indexOf(' ', start);
+            if (space < 0) {
+                break;
+            }
+            start = space + 1;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.mmtext.searchservice.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.util.ByteUtils;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Stale shadow copies of the cache entries: every value {@link TwoTierCache} writes to Redis is
+ * also written under {@code <keyPrefix><cache>::<key>} with a much longer TTL, in the cache's own
+ * serialization. Nothing reads a shadow while the entry can be computed; when computing it
+ * fails (the Elasticsearch circuit is open, a timeout) the shadow is served instead of an error.
+ *
+ * Shadows are not evicted with their entries, an outage answer may predate the last change.
+ * Failures to read or write a shadow are logged and otherwise ignored.
+ */
+public class StaleCacheShadow {
+
+    private static final Logger log = LoggerFactory.getLogger(StaleCacheShadow.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final String keyPrefix;
+    private final Expiration ttl;
+    private final LongAdder served = new LongAdder();
+    private final LongAdder missing = new LongAdder();
+
+    public StaleCacheShadow(StringRedisTemplate redisTemplate, String keyPrefix, Duration ttl) {
+        this.redisTemplate = redisTemplate;
+        this.keyPrefix = keyPrefix;
+        this.ttl = Expiration.from(ttl);
+    }
+
+    public void put(RedisCache cache, String key, Object stored) {
+        putAll(cache, Map.of(key, stored));
+    }
+
+    /** Writes the shadows of all values in one pipeline. */
+    public void putAll(RedisCache cache, Map<String, Object> stored) {
+        if (stored.isEmpty()) {
+            return;
+        }
+        RedisCacheConfiguration config = cache.getCacheConfiguration();
+        Map<byte[], byte[]> raw = new LinkedHashMap<>();
+        stored.forEach((key, value) -> raw.put(rawKey(cache, key),
+                ByteUtils.getBytes(config.getValueSerializationPair().write(value))));
+        try {
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                RedisStringCommands commands = connection.stringCommands();
+                raw.forEach((key, value) -> commands.set(key, value, ttl, RedisStringCommands.SetOption.upsert()));
+                return null;
+            });
+        } catch (RuntimeException e) {
+            log.debug("Could not write the stale shadows of {} {} entries: {}", stored.size(), cache.getName(),
+                    e.getMessage());
+        }
+    }
+
+    /** The stored form last written for {@code key}, however old, or {@code null}. */
+    public Object get(RedisCache cache, String key) {
+        byte[] bytes;
+        try {
+            bytes = redisTemplate.execute((RedisCallback<byte[]>) connection ->
+                    connection.stringCommands().get(rawKey(cache, key)));
+        } catch (RuntimeException e) {
+            log.debug("Could not read the stale shadow of {}::{}: {}", cache.getName(), key, e.getMessage());
+            bytes = null;
+        }
+        Object stored = bytes != null
+                ? cache.getCacheConfiguration().getValueSerializationPair().read(ByteBuffer.wrap(bytes))
+                : null;
+        (stored != null ? served : missing).increment();
+        return stored;
+    }
+
+    /** Shadows served, and failed computations that found none, since startup. */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("served", served.sum());
+        stats.put("missing", missing.sum());
+        return stats;
+    }
+
+    private byte[] rawKey(RedisCache cache, String key) {
+        return (keyPrefix + cache.getName() + "::" + key).getBytes(StandardCharsets.UTF_8);
+    }
+}
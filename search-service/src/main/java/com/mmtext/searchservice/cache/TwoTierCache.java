@@ -0,0 +1,460 @@
+package com.mmtext.searchservice.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.data.redis.cache.RedisCache;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Composite cache: a bounded in-process L1 (Caffeine) in front of the shared L2 (Redis).
+ *
+ * Reads are served from L1 when possible and otherwise fall through to Redis, promoting
+ * the value into L1. Every write, eviction and clear goes to Redis first and is then
+ * broadcast so the L1 tier of every replica stays consistent.
+ *
+ * Loads ({@code @Cacheable(sync = true)}) are single-flight per key: concurrent misses on this
+ * instance share one call to the loader. With a {@link RedisLoadLease} the replicas also agree
+ * on a single loader, the others wait briefly for its value to show up in Redis.
+ *
+ * With a {@link CacheRefreshPolicy} values are stored as {@link CacheEnvelope}s and hot entries
+ * are recomputed in the background before they expire, while readers keep getting the
+ * current value (stale-while-revalidate).
+ *
+ * With a {@link CacheKeyIndex} every computed entry is indexed under the dependencies its
+ * loader recorded, so change events can evict it selectively.
+ *
+ * With a {@link StaleCacheShadow} every value written to Redis also gets a long-lived shadow
+ * copy, and a load that fails is answered from that copy when there is one.
+ */
+public class TwoTierCache implements Cache {
+
+    private static final Logger log = LoggerFactory.getLogger(TwoTierCache.class);
+
+    private final Cache redisCache;
+    private final com.github.benmanes.caffeine.cache.Cache<String, Object> localCache;
+    private final NearCacheInvalidationPublisher invalidationPublisher;
+    private final RedisLoadLease loadLease;
+    private final CacheRefreshPolicy refreshPolicy;
+    private final Executor refreshExecutor;
+    private final CacheKeyIndex keyIndex;
+    private final RedisBatchOperations batchOperations;
+    private final StaleCacheShadow staleShadow;
+    private final SingleFlight singleFlight = new SingleFlight();
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+
+    public TwoTierCache(Cache redisCache,
+                        com.github.benmanes.caffeine.cache.Cache<String, Object> localCache,
+                        NearCacheInvalidationPublisher invalidationPublisher,
+                        RedisLoadLease loadLease,
+                        CacheRefreshPolicy refreshPolicy,
+                        Executor refreshExecutor,
+                        CacheKeyIndex keyIndex,
+                        RedisBatchOperations batchOperations,
+                        StaleCacheShadow staleShadow) {
+        this.redisCache = redisCache;
+        this.localCache = localCache;
+        this.invalidationPublisher = invalidationPublisher;
+        this.loadLease = loadLease;
+        this.refreshPolicy = refreshPolicy;
+        this.refreshExecutor = refreshExecutor;
+        this.keyIndex = keyIndex;
+        this.batchOperations = batchOperations;
+        this.staleShadow = staleShadow;
+    }
+
+    @Override
+    public String getName() {
+        return redisCache.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return redisCache.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        Object stored = lookup(key, localKey(key));
+        return stored != null ? new SimpleValueWrapper(unwrap(stored)) : null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper != null ? wrapper.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException(
+                    "Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        String localKey = localKey(key);
+        Object stored = lookup(key, localKey);
+        if (stored != null) {
+            refreshIfDue(key, localKey, stored, valueLoader);
+            return (T) unwrap(stored);
+        }
+
+        try {
+            return singleFlight.execute(localKey, () -> load(key, localKey, valueLoader));
+        } catch (Exception e) {
+            Object stale = stale(localKey);
+            if (stale != null) {
+                log.warn("Loading {}::{} failed, serving its stale shadow: {}", getName(), localKey, e.getMessage());
+                return (T) unwrap(stale);
+            }
+            throw e instanceof ValueRetrievalException retrieval ? retrieval
+                    : new ValueRetrievalException(key, valueLoader, e);
+        }
+    }
+
+    /**
+     * Non-blocking lookup for reactive callers: L1, else Redis through the async retrieval of
+     * the underlying cache, promoting a hit into L1. Completes with {@code null} on a miss and
+     * never loads or refreshes, the caller computes and writes the value.
+     */
+    @Override
+    public CompletableFuture<?> retrieve(Object key) {
+        String localKey = localKey(key);
+        Object local = localCache.getIfPresent(localKey);
+        if (local != null) {
+            return CompletableFuture.completedFuture(unwrap(local));
+        }
+        return redisCache.retrieve(key).thenApply(found -> {
+            Object stored = found instanceof ValueWrapper wrapper ? wrapper.get() : found;
+            if (stored == null) {
+                return null;
+            }
+            localCache.put(localKey, stored);
+            return unwrap(stored);
+        });
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        String localKey = localKey(key);
+        if (value != null) {
+            Object stored = wrap(value, System.currentTimeMillis(), 0);
+            redisCache.put(key, stored);
+            shadow(localKey, stored);
+            localCache.put(localKey, stored);
+        } else {
+            redisCache.put(key, null);
+            localCache.invalidate(localKey);
+        }
+        invalidationPublisher.publishEvict(getName(), localKey);
+    }
+
+    /**
+     * Like {@link #put}, for a value computed outside {@link #get(Object, Callable)}: the entry
+     * is also indexed under the dependencies its computation recorded.
+     */
+    public void put(Object key, Object value, Set<String> dependencies) {
+        // Indexed first, so an invalidation racing the write still finds the entry
+        if (value != null && keyIndex != null) {
+            keyIndex.record(getName(), localKey(key), dependencies);
+        }
+        put(key, value);
+    }
+
+    /**
+     * Values of all {@code keys} present in either tier: L1 first, the rest in one Redis round
+     * trip and promoted into L1. Nothing is loaded or refreshed, the caller computes the misses.
+     */
+    public Map<String, Object> getAll(List<String> keys) {
+        Map<String, Object> found = new HashMap<>();
+        List<String> remote = new ArrayList<>();
+        for (String key : keys) {
+            Object local = localCache.getIfPresent(key);
+            if (local != null) {
+                found.put(key, unwrap(local));
+            } else {
+                remote.add(key);
+            }
+        }
+        if (remote.isEmpty()) {
+            return found;
+        }
+        if (batchOperations != null && redisCache instanceof RedisCache cache) {
+            batchOperations.getAll(cache, remote).forEach((key, stored) -> {
+                localCache.put(key, stored);
+                found.put(key, unwrap(stored));
+            });
+        } else {
+            for (String key : remote) {
+                Object stored = lookup(key, key);
+                if (stored != null) {
+                    found.put(key, unwrap(stored));
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Writes values computed outside {@link #get(Object, Callable)} in one Redis round trip, each
+     * indexed under its entry of {@code dependencies} like {@link #put(Object, Object, Set)}.
+     */
+    public void putAll(Map<String, Object> values, Map<String, Set<String>> dependencies) {
+        if (values.isEmpty()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        Map<String, Object> stored = new HashMap<>();
+        values.forEach((key, value) -> {
+            if (value != null) {
+                stored.put(key, wrap(value, now, 0));
+            }
+        });
+        // Indexed first, so an invalidation racing the write still finds the entries
+        if (keyIndex != null) {
+            Map<String, Set<String>> indexed = new HashMap<>();
+            stored.keySet().forEach(key -> indexed.put(key, dependencies.getOrDefault(key, Set.of())));
+            keyIndex.recordAll(getName(), indexed);
+        }
+        if (batchOperations != null && redisCache instanceof RedisCache cache) {
+            batchOperations.putAll(cache, stored);
+        } else {
+            stored.forEach(redisCache::put);
+        }
+        if (staleShadow != null && redisCache instanceof RedisCache cache) {
+            staleShadow.putAll(cache, stored);
+        }
+        stored.forEach((key, value) -> {
+            localCache.put(key, value);
+            invalidationPublisher.publishEvict(getName(), key);
+        });
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        Object stored = value != null ? wrap(value, System.currentTimeMillis(), 0) : null;
+        ValueWrapper existing = redisCache.putIfAbsent(key, stored);
+        // Whichever value won lives in Redis now, let the next read promote it
+        localCache.invalidate(localKey(key));
+        return existing != null ? new SimpleValueWrapper(unwrap(existing.get())) : null;
+    }
+
+    @Override
+    public void evict(Object key) {
+        redisCache.evict(key);
+        evictLocalAndBroadcast(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        boolean evicted = redisCache.evictIfPresent(key);
+        evictLocalAndBroadcast(key);
+        return evicted;
+    }
+
+    @Override
+    public void clear() {
+        redisCache.clear();
+        localCache.invalidateAll();
+        invalidationPublisher.publishClear(getName());
+    }
+
+    @Override
+    public boolean invalidate() {
+        boolean invalidated = redisCache.invalidate();
+        localCache.invalidateAll();
+        invalidationPublisher.publishClear(getName());
+        return invalidated;
+    }
+
+    /** Drops a single L1 entry without touching Redis, used when another replica wrote the key. */
+    void evictLocal(String localKey) {
+        localCache.invalidate(localKey);
+    }
+
+    /** Drops the whole L1 tier without touching Redis, used when another replica cleared the cache. */
+    void clearLocal() {
+        localCache.invalidateAll();
+    }
+
+    // Returns the stored form (envelope or plain value), promoting Redis hits into L1
+    private Object lookup(Object key, String localKey) {
+        Object local = localCache.getIfPresent(localKey);
+        if (local != null) {
+            return local;
+        }
+
+        ValueWrapper remote;
+        try {
+            remote = redisCache.get(key);
+        } catch (RuntimeException e) {
+            // Redis is slow or down: a miss, the caller computes the value instead of failing
+            log.warn("Redis lookup of {}::{} failed, treating it as a miss: {}", getName(), localKey, e.getMessage());
+            return null;
+        }
+        Object stored = remote != null ? remote.get() : null;
+        if (stored != null) {
+            localCache.put(localKey, stored);
+        }
+        return stored;
+    }
+
+    // Runs once per key and instance at a time, see SingleFlight
+    @SuppressWarnings("unchecked")
+    private <T> T load(Object key, String localKey, Callable<T> valueLoader) throws Exception {
+        Object stored = lookup(key, localKey);
+        if (stored != null) {
+            return (T) unwrap(stored);
+        }
+        if (loadLease == null) {
+            return compute(key, localKey, valueLoader);
+        }
+
+        String token = loadLease.tryAcquire(getName(), localKey);
+        if (token == null) {
+            stored = awaitRemote(key, localKey);
+            if (stored != null) {
+                return (T) unwrap(stored);
+            }
+            // The holder is too slow or gone, load ourselves rather than fail the request
+            return compute(key, localKey, valueLoader);
+        }
+        try {
+            return compute(key, localKey, valueLoader);
+        } finally {
+            loadLease.release(getName(), localKey, token);
+        }
+    }
+
+    /**
+     * Loads and caches a value. The entry is indexed before it is written, so an invalidation
+     * drains it from then on; one that drained a dependency since the load started may have
+     * missed it, so the value is then served but not kept.
+     */
+    private <T> T compute(Object key, String localKey, Callable<T> valueLoader) throws Exception {
+        long startedAt = System.currentTimeMillis();
+        long generation = keyIndex != null ? keyIndex.generation() : -1;
+        Set<String> dependencies = new HashSet<>();
+        T value = CacheDependencies.capture(valueLoader, dependencies);
+        if (value == null) {
+            return value;
+        }
+        if (keyIndex != null) {
+            keyIndex.record(getName(), localKey, dependencies);
+            if (keyIndex.invalidatedSince(dependencies, generation)) {
+                log.debug("{}::{} changed while loading, not caching it", getName(), localKey);
+                return value;
+            }
+        }
+        Object stored = wrap(value, startedAt, System.currentTimeMillis() - startedAt);
+        try {
+            redisCache.put(key, stored);
+        } catch (RuntimeException e) {
+            // The computed value is still served, other replicas just compute it themselves
+            log.warn("Could not write {}::{} to Redis: {}", getName(), localKey, e.getMessage());
+        }
+        shadow(localKey, stored);
+        localCache.put(localKey, stored);
+        // An invalidation between the check and the write may have evicted before we wrote
+        if (keyIndex != null && keyIndex.invalidatedSince(dependencies, generation)) {
+            evict(key);
+        }
+        return value;
+    }
+
+    private Object awaitRemote(Object key, String localKey) throws InterruptedException {
+        long deadline = System.nanoTime() + loadLease.getWaitTimeout().toNanos();
+        while (System.nanoTime() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(loadLease.getPollInterval().toMillis());
+            Object stored = lookup(key, localKey);
+            if (stored != null) {
+                return stored;
+            }
+        }
+        return null;
+    }
+
+    /** Starts a background recomputation when the entry is due; the caller keeps the current value. */
+    private void refreshIfDue(Object key, String localKey, Object stored, Callable<?> valueLoader) {
+        if (refreshPolicy == null
+                || !(stored instanceof CacheEnvelope envelope)
+                || !refreshPolicy.shouldRefresh(envelope, System.currentTimeMillis())
+                || !refreshing.add(localKey)) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> refresh(key, localKey, valueLoader));
+        } catch (RejectedExecutionException e) {
+            // Refresh queue is full, the entry is still served and will be retried on a later read
+            refreshing.remove(localKey);
+        }
+    }
+
+    private void refresh(Object key, String localKey, Callable<?> valueLoader) {
+        String token = null;
+        try {
+            if (loadLease != null) {
+                token = loadLease.tryAcquire(getName(), localKey);
+                if (token == null) {
+                    // Another replica is already refreshing this key
+                    return;
+                }
+            }
+            compute(key, localKey, valueLoader);
+            // Other replicas hold the previous value in L1
+            invalidationPublisher.publishEvict(getName(), localKey);
+        } catch (Exception e) {
+            log.warn("Background refresh of {}::{} failed, serving the previous value: {}",
+                    getName(), localKey, e.getMessage());
+        } finally {
+            if (token != null) {
+                loadLease.release(getName(), localKey, token);
+            }
+            refreshing.remove(localKey);
+        }
+    }
+
+    private void shadow(String localKey, Object stored) {
+        if (staleShadow != null && redisCache instanceof RedisCache cache) {
+            staleShadow.put(cache, localKey, stored);
+        }
+    }
+
+    private Object stale(String localKey) {
+        return staleShadow != null && redisCache instanceof RedisCache cache ? staleShadow.get(cache, localKey) : null;
+    }
+
+    private Object wrap(Object value, long computedAt, long computeMillis) {
+        return refreshPolicy != null ? refreshPolicy.wrap(value, computedAt, computeMillis) : value;
+    }
+
+    private static Object unwrap(Object stored) {
+        return stored instanceof CacheEnvelope envelope ? envelope.getValue() : stored;
+    }
+
+    private void evictLocalAndBroadcast(Object key) {
+        String localKey = localKey(key);
+        localCache.invalidate(localKey);
+        invalidationPublisher.publishEvict(getName(), localKey);
+    }
+
+    // Keys travel over pub/sub as text, so L1 is keyed the same way Redis keys are built
+    private static String localKey(Object key) {
+        return String.valueOf(key);
+    }
+}
@@ -0,0 +1,116 @@
+package com.mmtext.searchservice.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mmtext.searchservice.configuration.NearCacheProperties;
+import com.mmtext.searchservice.configuration.ThreadFactories;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decorates every cache of the Redis {@link CacheManager} with an L1 tier sized
+ * per cache name from {@link NearCacheProperties}. {@code loadLease} is optional, and caches
+ * without an entry in {@code refreshPolicies} are not refreshed ahead of expiry. Without a
+ * {@code keyIndex} entries are only invalidated by TTL and the cache endpoints. {@code batchOperations}
+ * serves {@link TwoTierCache#getAll} and {@link TwoTierCache#putAll}, which fall back to one Redis
+ * command per key without it. Without a {@code staleShadow} failed loads are not answered from
+ * stale copies.
+ */
+public class TwoTierCacheManager implements CacheManager, DisposableBean {
+
+    private static final int REFRESH_QUEUE_CAPACITY = 1000;
+
+    private final CacheManager redisCacheManager;
+    private final NearCacheProperties properties;
+    private final NearCacheInvalidationPublisher invalidationPublisher;
+    private final RedisLoadLease loadLease;
+    private final Map<String, CacheRefreshPolicy> refreshPolicies;
+    private final ExecutorService refreshExecutor;
+    private final CacheKeyIndex keyIndex;
+    private final RedisBatchOperations batchOperations;
+    private final StaleCacheShadow staleShadow;
+    private final ConcurrentMap<String, TwoTierCache> caches = new ConcurrentHashMap<>();
+
+    public TwoTierCacheManager(CacheManager redisCacheManager,
+                               NearCacheProperties properties,
+                               NearCacheInvalidationPublisher invalidationPublisher,
+                               RedisLoadLease loadLease,
+                               Map<String, CacheRefreshPolicy> refreshPolicies,
+                               int refreshThreads,
+                               boolean virtualThreads,
+                               CacheKeyIndex keyIndex,
+                               RedisBatchOperations batchOperations,
+                               StaleCacheShadow staleShadow) {
+        this.redisCacheManager = redisCacheManager;
+        this.properties = properties;
+        this.invalidationPublisher = invalidationPublisher;
+        this.loadLease = loadLease;
+        this.refreshPolicies = refreshPolicies;
+        this.refreshExecutor = newRefreshExecutor(refreshThreads, virtualThreads);
+        this.keyIndex = keyIndex;
+        this.batchOperations = batchOperations;
+        this.staleShadow = staleShadow;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        TwoTierCache cache = caches.get(name);
+        if (cache != null) {
+            return cache;
+        }
+        Cache redisCache = redisCacheManager.getCache(name);
+        if (redisCache == null) {
+            return null;
+        }
+        return caches.computeIfAbsent(name, n -> new TwoTierCache(redisCache, buildLocalCache(n),
+                invalidationPublisher, loadLease, refreshPolicies.get(n), refreshExecutor, keyIndex, batchOperations,
+                staleShadow));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return redisCacheManager.getCacheNames();
+    }
+
+    public void evictLocal(String cacheName, String key) {
+        TwoTierCache cache = caches.get(cacheName);
+        if (cache != null) {
+            cache.evictLocal(key);
+        }
+    }
+
+    public void clearLocal(String cacheName) {
+        TwoTierCache cache = caches.get(cacheName);
+        if (cache != null) {
+            cache.clearLocal();
+        }
+    }
+
+    @Override
+    public void destroy() {
+        refreshExecutor.shutdownNow();
+    }
+
+    private com.github.benmanes.caffeine.cache.Cache<String, Object> buildLocalCache(String cacheName) {
+        NearCacheProperties.Spec spec = properties.specFor(cacheName);
+        return Caffeine.newBuilder()
+                .maximumSize(spec.getMaximumSize())
+                .expireAfterWrite(spec.getTtl())
+                .build();
+    }
+
+    // Bounded: when Elasticsearch is slow, refreshes are dropped rather than piling up
+    private static ExecutorService newRefreshExecutor(int threads, boolean virtual) {
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(REFRESH_QUEUE_CAPACITY), ThreadFactories.named("cache-refresh-", virtual));
+    }
+}
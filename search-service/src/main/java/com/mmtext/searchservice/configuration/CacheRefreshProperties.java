@@ -0,0 +1,64 @@
+package com.mmtext.searchservice.configuration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Refresh-ahead of the Redis caches (stale-while-revalidate), see {@code CacheRefreshPolicy}.
+ * Applies on top of the near cache; with the near cache disabled entries simply expire.
+ */
+@ConfigurationProperties(prefix = "search.cache.refresh")
+public class CacheRefreshProperties {
+
+    private boolean enabled = true;
+
+    // XFetch aggressiveness, > 1 refreshes earlier, < 1 later
+    private double beta = 1.0;
+
+    // Soft TTL is spread by +/- this fraction of the cache TTL
+    private double jitter = 0.1;
+
+    // How long past its soft expiry an entry may still be served, as a fraction of the cache TTL
+    private double staleRatio = 1.0;
+
+    private int threads = 4;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public double getBeta() {
+        return beta;
+    }
+
+    public void setBeta(double beta) {
+        this.beta = beta;
+    }
+
+    public double getJitter() {
+        return jitter;
+    }
+
+    public void setJitter(double jitter) {
+        this.jitter = jitter;
+    }
+
+    public double getStaleRatio() {
+        return staleRatio;
+    }
+
+    public void setStaleRatio(double staleRatio) {
+        this.staleRatio = staleRatio;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+}
@@ -0,0 +1,38 @@
+package com.mmtext.searchservice.configuration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Encoding of the values stored in the Redis caches.
+ */
+@ConfigurationProperties(prefix = "search.cache.serializer")
+public class CacheSerializerProperties {
+
+    public enum Format {
+        /** Jackson JSON with a class name on every object, readable with redis-cli. */
+        JSON,
+        /** Typed Smile body behind a binary header, see {@code CompactCacheSerializer}. */
+        COMPACT
+    }
+
+    private Format format = Format.COMPACT;
+
+    // Bodies at least this large are LZ4-compressed (kept only if that makes them smaller)
+    private int compressionThreshold = 1024;
+
+    public Format getFormat() {
+        return format;
+    }
+
+    public void setFormat(Format format) {
+        this.format = format;
+    }
+
+    public int getCompressionThreshold() {
+        return compressionThreshold;
+    }
+
+    public void setCompressionThreshold(int compressionThreshold) {
+        this.compressionThreshold = compressionThreshold;
+    }
+}
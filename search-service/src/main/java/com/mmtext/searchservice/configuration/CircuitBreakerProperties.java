@@ -0,0 +1,69 @@
+package com.mmtext.searchservice.configuration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Circuit breaker in front of the request-path Elasticsearch calls, see
+ * {@code SearchCircuitBreaker}. While open, searches fail at once instead of waiting out their
+ * budget, and cached searches are answered from the stale shadow copies (see
+ * {@link StaleShadowProperties}).
+ */
+@ConfigurationProperties(prefix = "search.circuit-breaker")
+public class CircuitBreakerProperties {
+
+    private boolean enabled = true;
+
+    // Share of failed calls (errors and timeouts) among the recent ones that opens the circuit
+    private double failureRateThreshold = 0.5;
+
+    // No decision before this many calls are in the window
+    private int minimumCalls = 20;
+
+    // Most recent call outcomes the failure rate is taken over
+    private int window = 50;
+
+    // How long an open circuit rejects calls before letting a single probe through
+    private Duration openDuration = Duration.ofSeconds(10);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public double getFailureRateThreshold() {
+        return failureRateThreshold;
+    }
+
+    public void setFailureRateThreshold(double failureRateThreshold) {
+        this.failureRateThreshold = failureRateThreshold;
+    }
+
+    public int getMinimumCalls() {
+        return minimumCalls;
+    }
+
+    public void setMinimumCalls(int minimumCalls) {
+        this.minimumCalls = minimumCalls;
+    }
+
+    public int getWindow() {
+        return window;
+    }
+
+    public void setWindow(int window) {
+        this.window = window;
+    }
+
+    public Duration getOpenDuration() {
+        return openDuration;
+    }
+
+    public void setOpenDuration(Duration openDuration) {
+        this.openDuration = openDuration;
+    }
+}
@@ -0,0 +1,38 @@
+package com.mmtext.searchservice.configuration;
+
+import com.mmtext.searchservice.service.SearchCallExecutor;
+import com.mmtext.searchservice.service.SearchCircuitBreaker;
+import org.apache.http.impl.nio.client.HttpAsyncClientBuilder;
+import org.elasticsearch.client.RestClientBuilder;
+import org.springframework.boot.autoconfigure.elasticsearch.RestClientBuilderCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties({ElasticsearchClientProperties.class, LatencyProperties.class,
+        CircuitBreakerProperties.class})
+public class ElasticsearchClientConfig {
+
+    @Bean
+    public RestClientBuilderCustomizer connectionLimitsCustomizer(ElasticsearchClientProperties properties) {
+        return new RestClientBuilderCustomizer() {
+            @Override
+            public void customize(RestClientBuilder builder) {
+            }
+
+            @Override
+            public void customize(HttpAsyncClientBuilder builder) {
+                builder.setMaxConnPerRoute(properties.getMaxConnectionsPerNode())
+                        .setMaxConnTotal(properties.getMaxConnections());
+            }
+        };
+    }
+
+    @Bean
+    public SearchCallExecutor searchCallExecutor(LatencyProperties properties,
+                                                 CircuitBreakerProperties circuitBreakerProperties) {
+        return new SearchCallExecutor(properties,
+                circuitBreakerProperties.isEnabled() ? new SearchCircuitBreaker(circuitBreakerProperties) : null);
+    }
+}
@@ -0,0 +1,34 @@
+package com.mmtext.searchservice.configuration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Connection limits of the Elasticsearch REST client. The client's defaults (10 per node, 30 in
+ * total) were sized for a fixed request thread pool; with virtual threads they are what bounds
+ * how many searches are in flight, so they are set explicitly.
+ */
+@ConfigurationProperties(prefix = "search.elasticsearch")
+public class ElasticsearchClientProperties {
+
+    // Connections per Elasticsearch node, callers beyond this wait for a free one
+    private int maxConnectionsPerNode = 50;
+
+    // Connections across all nodes
+    private int maxConnections = 100;
+
+    public int getMaxConnectionsPerNode() {
+        return maxConnectionsPerNode;
+    }
+
+    public void setMaxConnectionsPerNode(int maxConnectionsPerNode) {
+        this.maxConnectionsPerNode = maxConnectionsPerNode;
+    }
+
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    public void setMaxConnections(int maxConnections) {
+        this.maxConnections = maxConnections;
+    }
+}
@@ -0,0 +1,55 @@
+package com.mmtext.searchservice.configuration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Targeted eviction driven by search-consumer-service: cached entries are indexed by the
+ * documents and query terms they depend on, and evicted when a change event names one of them.
+ * Requires the near cache, which is where dependencies are captured.
+ */
+@ConfigurationProperties(prefix = "search.cache.invalidation")
+public class InvalidationProperties {
+
+    private boolean enabled = true;
+
+    private String channel = "search:invalidation";
+
+    private String keyPrefix = "search-service:deps:";
+
+    // Must outlive the longest entry including its stale window
+    private Duration indexTtl = Duration.ofHours(1);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getChannel() {
+        return channel;
+    }
+
+    public void setChannel(String channel) {
+        this.channel = channel;
+    }
+
+    public String getKeyPrefix() {
+        return keyPrefix;
+    }
+
+    public void setKeyPrefix(String keyPrefix) {
+        this.keyPrefix = keyPrefix;
+    }
+
+    public Duration getIndexTtl() {
+        return indexTtl;
+    }
+
+    public void setIndexTtl(Duration indexTtl) {
+        this.indexTtl = indexTtl;
+    }
+}
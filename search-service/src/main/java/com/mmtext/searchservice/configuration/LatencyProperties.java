@@ -0,0 +1,120 @@
+package com.mmtext.searchservice.configuration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Latency budgets of the Elasticsearch calls made while serving a request, see
+ * {@code SearchCallExecutor}. A call that has not answered within its endpoint's budget fails
+ * the request with 504 instead of holding it until the socket times out.
+ */
+@ConfigurationProperties(prefix = "search.latency")
+public class LatencyProperties {
+
+    // Off: calls run on the caller's thread, bounded only by the client's socket timeout
+    private boolean enabled = true;
+
+    // Budget of endpoints without an entry in budgets
+    private Duration defaultBudget = Duration.ofSeconds(2);
+
+    // Per endpoint, e.g. movies, weighted, advanced, autocomplete, suggest, theater, batch
+    private Map<String, Duration> budgets = new HashMap<>();
+
+    private Hedge hedge = new Hedge();
+
+    public Duration budgetFor(String endpoint) {
+        return budgets.getOrDefault(endpoint, defaultBudget);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Duration getDefaultBudget() {
+        return defaultBudget;
+    }
+
+    public void setDefaultBudget(Duration defaultBudget) {
+        this.defaultBudget = defaultBudget;
+    }
+
+    public Map<String, Duration> getBudgets() {
+        return budgets;
+    }
+
+    public void setBudgets(Map<String, Duration> budgets) {
+        this.budgets = budgets;
+    }
+
+    public Hedge getHedge() {
+        return hedge;
+    }
+
+    public void setHedge(Hedge hedge) {
+        this.hedge = hedge;
+    }
+
+    public static class Hedge {
+
+        // Sends the same read again once the first one is slower than the endpoint's recent percentile
+        private boolean enabled = false;
+
+        private double percentile = 0.95;
+
+        // Never hedge sooner than this, however fast the endpoint usually is
+        private Duration minDelay = Duration.ofMillis(20);
+
+        // No hedging until this many latencies are known for the endpoint
+        private int minSamples = 50;
+
+        // Most recent latencies kept per endpoint
+        private int window = 500;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public double getPercentile() {
+            return percentile;
+        }
+
+        public void setPercentile(double percentile) {
+            this.percentile = percentile;
+        }
+
+        public Duration getMinDelay() {
+            return minDelay;
+        }
+
+        public void setMinDelay(Duration minDelay) {
+            this.minDelay = minDelay;
+        }
+
+        public int getMinSamples() {
+            return minSamples;
+        }
+
+        public void setMinSamples(int minSamples) {
+            this.minSamples = minSamples;
+        }
+
+        public int getWindow() {
+            return window;
+        }
+
+        public void setWindow(int window) {
+            this.window = window;
+        }
+    }
+}
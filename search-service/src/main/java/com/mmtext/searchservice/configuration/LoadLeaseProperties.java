@@ -0,0 +1,65 @@
+package com.mmtext.searchservice.configuration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Cross-replica coordination of cache misses. Within one instance concurrent misses are
+ * always coalesced; with the lease enabled only one replica recomputes a missing key
+ * while the others poll Redis for its result.
+ */
+@ConfigurationProperties(prefix = "search.cache.load-lease")
+public class LoadLeaseProperties {
+
+    private boolean enabled = false;
+
+    private String keyPrefix = "search-service:lease:";
+
+    // Upper bound for one recomputation; the lease lapses on its own after this
+    private Duration ttl = Duration.ofSeconds(10);
+
+    private Duration waitTimeout = Duration.ofSeconds(2);
+
+    private Duration pollInterval = Duration.ofMillis(50);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getKeyPrefix() {
+        return keyPrefix;
+    }
+
+    public void setKeyPrefix(String keyPrefix) {
+        this.keyPrefix = keyPrefix;
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    public void setTtl(Duration ttl) {
+        this.ttl = ttl;
+    }
+
+    public Duration getWaitTimeout() {
+        return waitTimeout;
+    }
+
+    public void setWaitTimeout(Duration waitTimeout) {
+        this.waitTimeout = waitTimeout;
+    }
+
+    public Duration getPollInterval() {
+        return pollInterval;
+    }
+
+    public void setPollInterval(Duration pollInterval) {
+        this.pollInterval = pollInterval;
+    }
+}
@@ -0,0 +1,85 @@
+package com.mmtext.searchservice.configuration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Sizing of the in-process L1 cache that sits in front of the Redis caches.
+ * Entries are bounded per cache name; anything not listed under {@code caches}
+ * falls back to {@code default-spec}.
+ */
+@ConfigurationProperties(prefix = "search.cache.near-cache")
+public class NearCacheProperties {
+
+    private boolean enabled = true;
+
+    // Redis pub/sub channel used to drop L1 entries on every replica
+    private String invalidationChannel = "search-service:near-cache:invalidation";
+
+    private Spec defaultSpec = new Spec();
+
+    private Map<String, Spec> caches = new HashMap<>();
+
+    public Spec specFor(String cacheName) {
+        return caches.getOrDefault(cacheName, defaultSpec);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getInvalidationChannel() {
+        return invalidationChannel;
+    }
+
+    public void setInvalidationChannel(String invalidationChannel) {
+        this.invalidationChannel = invalidationChannel;
+    }
+
+    public Spec getDefaultSpec() {
+        return defaultSpec;
+    }
+
+    public void setDefaultSpec(Spec defaultSpec) {
+        this.defaultSpec = defaultSpec;
+    }
+
+    public Map<String, Spec> getCaches() {
+        return caches;
+    }
+
+    public void setCaches(Map<String, Spec> caches) {
+        this.caches = caches;
+    }
+
+    public static class Spec {
+
+        private long maximumSize = 500;
+
+        // Kept well below the Redis TTL so a lost invalidation only costs a short stale window
+        private Duration ttl = Duration.ofSeconds(30);
+
+        public long getMaximumSize() {
+            return maximumSize;
+        }
+
+        public void setMaximumSize(long maximumSize) {
+            this.maximumSize = maximumSize;
+        }
+
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+    }
+}
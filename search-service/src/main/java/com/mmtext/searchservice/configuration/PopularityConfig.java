@@ -0,0 +1,16 @@
+package com.mmtext.searchservice.configuration;
+
+import com.mmtext.searchservice.popularity.SearchPopularity;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(PopularityProperties.class)
+public class PopularityConfig {
+
+    @Bean
+    public SearchPopularity searchPopularity(PopularityProperties properties) {
+        return new SearchPopularity(properties);
+    }
+}
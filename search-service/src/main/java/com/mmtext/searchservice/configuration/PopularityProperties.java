@@ -0,0 +1,88 @@
+package com.mmtext.searchservice.configuration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * In-memory popularity counters of search traffic, see {@code SearchPopularity}. Each of the
+ * three counters (queries, result views, clicks) takes
+ * {@code stripes * buckets * depth * width * 4} bytes.
+ */
+@ConfigurationProperties(prefix = "search.popularity")
+public class PopularityProperties {
+
+    private boolean enabled = true;
+
+    // Counts older than this drop out, one bucket at a time
+    private Duration window = Duration.ofHours(1);
+
+    private int buckets = 12;
+
+    // Lock stripes, a power of two
+    private int stripes = 8;
+
+    // Count-Min rows and counters per row (a power of two)
+    private int depth = 4;
+
+    private int width = 512;
+
+    // Most frequent keys tracked per stripe
+    private int candidatesPerStripe = 64;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Duration getWindow() {
+        return window;
+    }
+
+    public void setWindow(Duration window) {
+        this.window = window;
+    }
+
+    public int getBuckets() {
+        return buckets;
+    }
+
+    public void setBuckets(int buckets) {
+        this.buckets = buckets;
+    }
+
+    public int getStripes() {
+        return stripes;
+    }
+
+    public void setStripes(int stripes) {
+        this.stripes = stripes;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public void setDepth(int depth) {
+        this.depth = depth;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public void setWidth(int width) {
+        this.width = width;
+    }
+
+    public int getCandidatesPerStripe() {
+        return candidatesPerStripe;
+    }
+
+    public void setCandidatesPerStripe(int candidatesPerStripe) {
+        this.candidatesPerStripe = candidatesPerStripe;
+    }
+}
@@ -1,26 +1,81 @@
 package com.mmtext.searchservice.configuration;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.databind.jsontype.BasicPolymorphicTypeValidator;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.mmtext.searchservice.cache.CacheKeyIndex;
+import com.mmtext.searchservice.cache.CacheRefreshPolicy;
+import com.mmtext.searchservice.cache.CachedTypes;
+import com.mmtext.searchservice.cache.CompactCacheSerializer;
+import com.mmtext.searchservice.cache.LenientCacheErrorHandler;
+import com.mmtext.searchservice.cache.NearCacheInvalidationListener;
+import com.mmtext.searchservice.cache.NearCacheInvalidationPublisher;
+import com.mmtext.searchservice.cache.RedisBatchOperations;
+import com.mmtext.searchservice.cache.RedisLoadLease;
+import com.mmtext.searchservice.cache.RedisTopicSubscriber;
+import com.mmtext.searchservice.cache.SearchInvalidationListener;
+import com.mmtext.searchservice.cache.StaleCacheShadow;
+import com.mmtext.searchservice.cache.TwoTierCacheManager;
+import com.mmtext.searchservice.dto.MovieSuggestion;
+import com.mmtext.searchservice.dto.SearchPage;
+import com.mmtext.searchservice.dto.TheaterSummary;
+import com.mmtext.searchservice.esdocument.MovieDocument;
+import com.mmtext.searchservice.esdocument.ShowDocument;
+import com.mmtext.searchservice.esdocument.TheaterDocument;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CachingConfigurer;
 import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.interceptor.CacheErrorHandler;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.elasticsearch.core.geo.GeoPoint;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 @Configuration
 @EnableCaching
-public class RedisCacheConfig {
+@EnableConfigurationProperties({NearCacheProperties.class, LoadLeaseProperties.class, CacheRefreshProperties.class,
+        InvalidationProperties.class, CacheSerializerProperties.class, WarmupProperties.class,
+        StaleShadowProperties.class})
+public class RedisCacheConfig implements CachingConfigurer {
+
+    private static final Map<String, Duration> CACHE_TTLS = new LinkedHashMap<>();
+
+    static {
+        CACHE_TTLS.put("movies", Duration.ofMinutes(15));
+        CACHE_TTLS.put("theaters", Duration.ofMinutes(20));
+        CACHE_TTLS.put("shows", Duration.ofMinutes(10));
+        CACHE_TTLS.put("suggest", Duration.ofMinutes(10));
+    }
+
+    @Override
+    public CacheErrorHandler errorHandler() {
+        return new LenientCacheErrorHandler();
+    }
 
     @Bean
     public ObjectMapper redisCacheObjectMapper() {
@@ -42,10 +97,73 @@ public class RedisCacheConfig {
         return mapper;
     }
 
+    /** Mapper of the compact format: binary Smile, no type information in the body. Not a bean on purpose. */
+    public static ObjectMapper compactCacheObjectMapper() {
+        ObjectMapper mapper = new ObjectMapper(new SmileFactory());
+        mapper.registerModule(new JavaTimeModule());
+        mapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        // Tolerate entries written by a newer version of a class
+        mapper.disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        mapper.addMixIn(GeoPoint.class, GeoPointMixIn.class);
+        return mapper;
+    }
+
+    /** Tags are persisted in Redis: never reuse or renumber one, only append. */
+    public static CachedTypes cachedTypes(TypeFactory typeFactory) {
+        return new CachedTypes()
+                .register(1, typeFactory.constructParametricType(SearchPage.class, MovieDocument.class))
+                .register(2, typeFactory.constructParametricType(SearchPage.class, TheaterSummary.class))
+                .register(3, typeFactory.constructParametricType(SearchPage.class, ShowDocument.class))
+                .register(4, typeFactory.constructCollectionType(List.class, MovieDocument.class))
+                .register(5, typeFactory.constructType(TheaterDocument.class))
+                .register(6, typeFactory.constructCollectionType(List.class, MovieSuggestion.class))
+                .register(7, typeFactory.constructCollectionType(List.class, TheaterSummary.class))
+                .register(8, typeFactory.constructCollectionType(List.class, ShowDocument.class));
+    }
+
+    @Bean
+    public NearCacheInvalidationPublisher nearCacheInvalidationPublisher(StringRedisTemplate redisTemplate,
+                                                                         NearCacheProperties nearCacheProperties) {
+        return new NearCacheInvalidationPublisher(redisTemplate, nearCacheProperties.getInvalidationChannel());
+    }
+
+    @Bean
+    public CacheKeyIndex cacheKeyIndex(StringRedisTemplate redisTemplate, InvalidationProperties invalidationProperties) {
+        return new CacheKeyIndex(redisTemplate, invalidationProperties.getKeyPrefix(), invalidationProperties.getIndexTtl());
+    }
+
+    @Bean
+    public RedisBatchOperations redisBatchOperations(StringRedisTemplate redisTemplate) {
+        // Keeps a single MGET from holding up Redis for long, a pipeline carries any number of them
+        return new RedisBatchOperations(redisTemplate, 100);
+    }
+
+    @Bean
+    public StaleCacheShadow staleCacheShadow(StringRedisTemplate redisTemplate, StaleShadowProperties properties) {
+        return new StaleCacheShadow(redisTemplate, properties.getKeyPrefix(), properties.getTtl());
+    }
+
     @Bean
-    public CacheManager cacheManager(RedisConnectionFactory connectionFactory) {
-        GenericJackson2JsonRedisSerializer serializer =
-                new GenericJackson2JsonRedisSerializer(redisCacheObjectMapper());
+    public CacheManager cacheManager(RedisConnectionFactory connectionFactory,
+                                     NearCacheProperties nearCacheProperties,
+                                     NearCacheInvalidationPublisher invalidationPublisher,
+                                     LoadLeaseProperties loadLeaseProperties,
+                                     CacheRefreshProperties refreshProperties,
+                                     InvalidationProperties invalidationProperties,
+                                     CacheKeyIndex cacheKeyIndex,
+                                     CacheSerializerProperties serializerProperties,
+                                     StringRedisTemplate redisTemplate,
+                                     RedisBatchOperations redisBatchOperations,
+                                     StaleCacheShadow staleCacheShadow,
+                                     StaleShadowProperties staleShadowProperties,
+                                     Environment environment) {
+        RedisSerializer<Object> serializer = new GenericJackson2JsonRedisSerializer(redisCacheObjectMapper());
+        if (serializerProperties.getFormat() == CacheSerializerProperties.Format.COMPACT) {
+            ObjectMapper compactMapper = compactCacheObjectMapper();
+            // Still reads JSON entries written before the switch
+            serializer = new CompactCacheSerializer(compactMapper, cachedTypes(compactMapper.getTypeFactory()),
+                    serializer, serializerProperties.getCompressionThreshold());
+        }
 
         RedisCacheConfiguration config = RedisCacheConfiguration.defaultCacheConfig()
                 .entryTtl(Duration.ofMinutes(30))
@@ -59,12 +177,77 @@ public class RedisCacheConfig {
                 )
                 .disableCachingNullValues();
 
-        return RedisCacheManager.builder(connectionFactory)
-                .cacheDefaults(config)
-                .withCacheConfiguration("movies", config.entryTtl(Duration.ofMinutes(15)))
-                .withCacheConfiguration("theaters", config.entryTtl(Duration.ofMinutes(20)))
-                .withCacheConfiguration("shows", config.entryTtl(Duration.ofMinutes(10)))
-                .withCacheConfiguration("trending", config.entryTtl(Duration.ofMinutes(5)))
-                .build();
+        boolean refreshAhead = nearCacheProperties.isEnabled() && refreshProperties.isEnabled();
+        Map<String, CacheRefreshPolicy> refreshPolicies = new HashMap<>();
+        RedisCacheManager.RedisCacheManagerBuilder builder = RedisCacheManager.builder(connectionFactory)
+                .cacheDefaults(config);
+        CACHE_TTLS.forEach((name, ttl) -> {
+            if (refreshAhead) {
+                // Redis keeps entries past the soft TTL so they can be served while refreshing
+                CacheRefreshPolicy policy = new CacheRefreshPolicy(ttl, refreshProperties.getJitter(),
+                        refreshProperties.getBeta(),
+                        Duration.ofMillis((long) (ttl.toMillis() * refreshProperties.getStaleRatio())));
+                refreshPolicies.put(name, policy);
+                builder.withCacheConfiguration(name, config.entryTtl(policy));
+            } else {
+                builder.withCacheConfiguration(name, config.entryTtl(ttl));
+            }
+        });
+        RedisCacheManager redisCacheManager = builder.build();
+
+        if (!nearCacheProperties.isEnabled()) {
+            // RedisCache still serialises sync=true loads, but with one lock per cache instead of per key
+            return redisCacheManager;
+        }
+
+        RedisLoadLease loadLease = null;
+        if (loadLeaseProperties.isEnabled()) {
+            loadLease = new RedisLoadLease(redisTemplate, loadLeaseProperties.getKeyPrefix(),
+                    loadLeaseProperties.getTtl(), loadLeaseProperties.getWaitTimeout(),
+                    loadLeaseProperties.getPollInterval());
+        }
+
+        // Not exposed as a bean, so the per-cache configurations have to be loaded by hand
+        redisCacheManager.initializeCaches();
+        return new TwoTierCacheManager(redisCacheManager, nearCacheProperties, invalidationPublisher, loadLease,
+                refreshPolicies, refreshProperties.getThreads(), ThreadFactories.virtual(environment),
+                invalidationProperties.isEnabled() ? cacheKeyIndex : null, redisBatchOperations,
+                staleShadowProperties.isEnabled() ? staleCacheShadow : null);
+    }
+
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory connectionFactory) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        return container;
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "search.cache.near-cache", name = "enabled", matchIfMissing = true)
+    public RedisTopicSubscriber nearCacheInvalidationSubscriber(RedisMessageListenerContainer container,
+                                                                CacheManager cacheManager,
+                                                                NearCacheInvalidationPublisher invalidationPublisher) {
+        NearCacheInvalidationListener listener = new NearCacheInvalidationListener(
+                (TwoTierCacheManager) cacheManager, invalidationPublisher.getInstanceId());
+        return new RedisTopicSubscriber(
+                container, listener, new ChannelTopic(invalidationPublisher.getChannel()));
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "search.cache.invalidation", name = "enabled", matchIfMissing = true)
+    public RedisTopicSubscriber searchInvalidationSubscriber(RedisMessageListenerContainer container,
+                                                             CacheManager cacheManager,
+                                                             CacheKeyIndex cacheKeyIndex,
+                                                             InvalidationProperties invalidationProperties) {
+        SearchInvalidationListener listener = new SearchInvalidationListener(cacheKeyIndex, cacheManager);
+        return new RedisTopicSubscriber(
+                container, listener, new ChannelTopic(invalidationProperties.getChannel()));
+    }
+
+    // GeoPoint has no default constructor
+    abstract static class GeoPointMixIn {
+        @JsonCreator
+        GeoPointMixIn(@JsonProperty("lat") double lat, @JsonProperty("lon") double lon) {
+        }
     }
-}
\ No newline at end of file
+}
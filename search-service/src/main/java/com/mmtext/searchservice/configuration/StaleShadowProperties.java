@@ -0,0 +1,44 @@
+package com.mmtext.searchservice.configuration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Second copy of every cache entry, kept in Redis well past the entry's own TTL and only read
+ * when computing the entry fails (e.g. the Elasticsearch circuit is open). Needs the near cache.
+ */
+@ConfigurationProperties(prefix = "search.cache.stale-shadow")
+public class StaleShadowProperties {
+
+    private boolean enabled = true;
+
+    private String keyPrefix = "search-service:stale:";
+
+    // How old an answer may be when it is all there is; also what the shadows cost in Redis memory
+    private Duration ttl = Duration.ofDays(1);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getKeyPrefix() {
+        return keyPrefix;
+    }
+
+    public void setKeyPrefix(String keyPrefix) {
+        this.keyPrefix = keyPrefix;
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    public void setTtl(Duration ttl) {
+        this.ttl = ttl;
+    }
+}
@@ -0,0 +1,50 @@
+package com.mmtext.searchservice.configuration;
+
+import com.mmtext.searchservice.cache.RedisTopicSubscriber;
+import com.mmtext.searchservice.geo.TheaterSpatialIndex;
+import com.mmtext.searchservice.geo.UpcomingShowIndex;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+@Configuration
+@EnableConfigurationProperties({TheaterIndexProperties.class, UpcomingShowProperties.class})
+public class TheaterIndexConfig {
+
+    @Bean
+    public TheaterSpatialIndex theaterSpatialIndex(ElasticsearchOperations elasticsearchOperations,
+                                                   TheaterIndexProperties properties) {
+        return new TheaterSpatialIndex(elasticsearchOperations, properties);
+    }
+
+    /** Theater changes come over the cache invalidation channel too. */
+    @Bean
+    @ConditionalOnProperty(prefix = "search.geo.memory", name = "enabled", matchIfMissing = true)
+    public RedisTopicSubscriber theaterIndexSubscriber(RedisMessageListenerContainer container,
+                                                       TheaterSpatialIndex theaterSpatialIndex,
+                                                       InvalidationProperties invalidationProperties) {
+        return new RedisTopicSubscriber(
+                container, theaterSpatialIndex, new ChannelTopic(invalidationProperties.getChannel()));
+    }
+
+    @Bean
+    public UpcomingShowIndex upcomingShowIndex(ElasticsearchOperations elasticsearchOperations,
+                                               TheaterSpatialIndex theaterSpatialIndex,
+                                               UpcomingShowProperties properties) {
+        return new UpcomingShowIndex(elasticsearchOperations, theaterSpatialIndex, properties);
+    }
+
+    /** Movie and theater changes re-read their upcoming shows. */
+    @Bean
+    @ConditionalOnProperty(prefix = "search.shows.memory", name = "enabled", matchIfMissing = true)
+    public RedisTopicSubscriber upcomingShowSubscriber(RedisMessageListenerContainer container,
+                                                       UpcomingShowIndex upcomingShowIndex,
+                                                       InvalidationProperties invalidationProperties) {
+        return new RedisTopicSubscriber(
+                container, upcomingShowIndex, new ChannelTopic(invalidationProperties.getChannel()));
+    }
+}
@@ -0,0 +1,67 @@
+package com.mmtext.searchservice.configuration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * In-process grid of theater locations answering the nearby searches, see {@code TheaterSpatialIndex}.
+ * While it is disabled, not loaded yet or stale, the searches go to Elasticsearch.
+ */
+@ConfigurationProperties(prefix = "search.geo.memory")
+public class TheaterIndexProperties {
+
+    private boolean enabled = true;
+
+    // Grid cell side in degrees, 0.05 is about 5.5 km at the equator
+    private double cellDegrees = 0.05;
+
+    // Full reload from the theater index, heals missed change events
+    private Duration reloadInterval = Duration.ofMinutes(10);
+
+    // Changes arriving within this window are folded into one rebuild
+    private Duration rebuildDelay = Duration.ofSeconds(1);
+
+    // Without a successful full reload for this long the grid is not trusted any more
+    private Duration maxStaleness = Duration.ofMinutes(30);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public double getCellDegrees() {
+        return cellDegrees;
+    }
+
+    public void setCellDegrees(double cellDegrees) {
+        this.cellDegrees = cellDegrees;
+    }
+
+    public Duration getReloadInterval() {
+        return reloadInterval;
+    }
+
+    public void setReloadInterval(Duration reloadInterval) {
+        this.reloadInterval = reloadInterval;
+    }
+
+    public Duration getRebuildDelay() {
+        return rebuildDelay;
+    }
+
+    public void setRebuildDelay(Duration rebuildDelay) {
+        this.rebuildDelay = rebuildDelay;
+    }
+
+    public Duration getMaxStaleness() {
+        return maxStaleness;
+    }
+
+    public void setMaxStaleness(Duration maxStaleness) {
+        this.maxStaleness = maxStaleness;
+    }
+}
@@ -0,0 +1,29 @@
+package com.mmtext.searchservice.configuration;
+
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Thread factories of the executors that run blocking work (cache refresh, warm-up, batch
+ * searches). With {@code spring.threads.virtual.enabled} they start virtual threads, like the
+ * ones Tomcat then serves requests on; how much runs at once is still bounded by the executors
+ * and, below them, by the Elasticsearch and Redis connection limits.
+ */
+public final class ThreadFactories {
+
+    private ThreadFactories() {
+    }
+
+    public static boolean virtual(Environment environment) {
+        return Threading.VIRTUAL.isActive(environment);
+    }
+
+    /** Threads named {@code <prefix>1}, {@code <prefix>2}, ...; platform ones are daemons. */
+    public static ThreadFactory named(String prefix, boolean virtual) {
+        return virtual
+                ? Thread.ofVirtual().name(prefix, 1).factory()
+                : Thread.ofPlatform().name(prefix, 1).daemon(true).factory();
+    }
+}
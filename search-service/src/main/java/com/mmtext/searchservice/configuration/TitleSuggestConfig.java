@@ -0,0 +1,32 @@
+package com.mmtext.searchservice.configuration;
+
+import com.mmtext.searchservice.cache.RedisTopicSubscriber;
+import com.mmtext.searchservice.suggest.TitleSuggestIndex;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+@Configuration
+@EnableConfigurationProperties(TitleSuggestProperties.class)
+public class TitleSuggestConfig {
+
+    @Bean
+    public TitleSuggestIndex titleSuggestIndex(ElasticsearchOperations elasticsearchOperations,
+                                               TitleSuggestProperties properties) {
+        return new TitleSuggestIndex(elasticsearchOperations, properties);
+    }
+
+    /** Same channel the cache invalidation listens on, each index write also updates the title trie. */
+    @Bean
+    @ConditionalOnProperty(prefix = "search.suggest.memory", name = "enabled", matchIfMissing = true)
+    public RedisTopicSubscriber titleSuggestSubscriber(RedisMessageListenerContainer container,
+                                                       TitleSuggestIndex titleSuggestIndex,
+                                                       InvalidationProperties invalidationProperties) {
+        return new RedisTopicSubscriber(
+                container, titleSuggestIndex, new ChannelTopic(invalidationProperties.getChannel()));
+    }
+}
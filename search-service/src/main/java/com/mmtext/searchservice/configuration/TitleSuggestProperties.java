@@ -0,0 +1,56 @@
+package com.mmtext.searchservice.configuration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * In-process title trie answering {@code /api/search/movies/suggest}, see {@code TitleSuggestIndex}.
+ * While it is disabled or not loaded yet, suggestions come from the Elasticsearch completion field.
+ */
+@ConfigurationProperties(prefix = "search.suggest.memory")
+public class TitleSuggestProperties {
+
+    private boolean enabled = true;
+
+    // Suggestions kept per prefix, also the most a request can get
+    private int topK = 20;
+
+    // Full reload from the movie index, heals missed invalidation events and refreshes weights
+    private Duration reloadInterval = Duration.ofMinutes(10);
+
+    // Changes arriving within this window are folded into one rebuild
+    private Duration rebuildDelay = Duration.ofSeconds(1);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getTopK() {
+        return topK;
+    }
+
+    public void setTopK(int topK) {
+        this.topK = topK;
+    }
+
+    public Duration getReloadInterval() {
+        return reloadInterval;
+    }
+
+    public void setReloadInterval(Duration reloadInterval) {
+        this.reloadInterval = reloadInterval;
+    }
+
+    public Duration getRebuildDelay() {
+        return rebuildDelay;
+    }
+
+    public void setRebuildDelay(Duration rebuildDelay) {
+        this.rebuildDelay = rebuildDelay;
+    }
+}
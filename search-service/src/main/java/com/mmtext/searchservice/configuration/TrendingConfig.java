@@ -0,0 +1,18 @@
+package com.mmtext.searchservice.configuration;
+
+import com.mmtext.searchservice.service.TrendingService;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+
+@Configuration
+@EnableConfigurationProperties(TrendingProperties.class)
+public class TrendingConfig {
+
+    @Bean
+    public TrendingService trendingService(ElasticsearchOperations elasticsearchOperations,
+                                           TrendingProperties properties) {
+        return new TrendingService(elasticsearchOperations, properties);
+    }
+}
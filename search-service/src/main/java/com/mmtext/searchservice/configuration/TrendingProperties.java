@@ -0,0 +1,56 @@
+package com.mmtext.searchservice.configuration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Trending movies, see {@code TrendingService}: movies ranked by their upcoming shows, a show
+ * counting less the further away it is.
+ */
+@ConfigurationProperties(prefix = "search.trending")
+public class TrendingProperties {
+
+    private int limit = 10;
+
+    // Only shows starting within this window count
+    private Duration horizon = Duration.ofDays(7);
+
+    // A show this far in the future counts half as much as one starting now
+    private Duration halfLife = Duration.ofHours(24);
+
+    // How often the ranking is recomputed; the endpoint always serves the last one
+    private Duration refreshInterval = Duration.ofMinutes(1);
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public void setLimit(int limit) {
+        this.limit = limit;
+    }
+
+    public Duration getHorizon() {
+        return horizon;
+    }
+
+    public void setHorizon(Duration horizon) {
+        this.horizon = horizon;
+    }
+
+    public Duration getHalfLife() {
+        return halfLife;
+    }
+
+    public void setHalfLife(Duration halfLife) {
+        this.halfLife = halfLife;
+    }
+
+    public Duration getRefreshInterval() {
+        return refreshInterval;
+    }
+
+    public void setRefreshInterval(Duration refreshInterval) {
+        this.refreshInterval = refreshInterval;
+    }
+}
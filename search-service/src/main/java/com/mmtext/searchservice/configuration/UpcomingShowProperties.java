@@ -0,0 +1,79 @@
+package com.mmtext.searchservice.configuration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * In-process slot and geohash buckets of upcoming shows answering the near-now search, see
+ * {@code UpcomingShowIndex}. While it is disabled, not loaded yet or stale, the search goes to
+ * Elasticsearch.
+ */
+@ConfigurationProperties(prefix = "search.shows.memory")
+public class UpcomingShowProperties {
+
+    private boolean enabled = true;
+
+    // How far ahead shows are loaded; must exceed the 2h near-now window by more than reloadInterval
+    private Duration horizon = Duration.ofHours(6);
+
+    // Geohash precision of the buckets, 5 is about 4.9 x 4.9 km
+    private int cellPrecision = 5;
+
+    // Full reload from the show index, also extends the horizon
+    private Duration reloadInterval = Duration.ofMinutes(5);
+
+    // Changes arriving within this window are folded into one rebuild
+    private Duration rebuildDelay = Duration.ofSeconds(1);
+
+    // Without a successful full reload for this long the buckets are not trusted any more
+    private Duration maxStaleness = Duration.ofMinutes(15);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Duration getHorizon() {
+        return horizon;
+    }
+
+    public void setHorizon(Duration horizon) {
+        this.horizon = horizon;
+    }
+
+    public int getCellPrecision() {
+        return cellPrecision;
+    }
+
+    public void setCellPrecision(int cellPrecision) {
+        this.cellPrecision = cellPrecision;
+    }
+
+    public Duration getReloadInterval() {
+        return reloadInterval;
+    }
+
+    public void setReloadInterval(Duration reloadInterval) {
+        this.reloadInterval = reloadInterval;
+    }
+
+    public Duration getRebuildDelay() {
+        return rebuildDelay;
+    }
+
+    public void setRebuildDelay(Duration rebuildDelay) {
+        this.rebuildDelay = rebuildDelay;
+    }
+
+    public Duration getMaxStaleness() {
+        return maxStaleness;
+    }
+
+    public void setMaxStaleness(Duration maxStaleness) {
+        this.maxStaleness = maxStaleness;
+    }
+}
@@ -0,0 +1,77 @@
+package com.mmtext.searchservice.configuration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Cache warm-up from the most popular requests, see {@code CacheWarmer}. The top keys of each
+ * replica are kept in Redis sorted sets, so a fresh deploy warms from what the old one served.
+ */
+@ConfigurationProperties(prefix = "search.cache.warmup")
+public class WarmupProperties {
+
+    private boolean enabled = true;
+
+    private String keyPrefix = "search-service:warmup:";
+
+    // Keys kept and replayed per kind (queries, prefixes, nearby, clicks)
+    private int maxKeys = 100;
+
+    // Searches sent to Elasticsearch at the same time while warming
+    private int concurrency = 4;
+
+    // How often the current top keys are written to Redis
+    private Duration recordInterval = Duration.ofMinutes(5);
+
+    // Recorded keys of a service that stopped recording are forgotten after this
+    private Duration keyTtl = Duration.ofDays(1);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getKeyPrefix() {
+        return keyPrefix;
+    }
+
+    public void setKeyPrefix(String keyPrefix) {
+        this.keyPrefix = keyPrefix;
+    }
+
+    public int getMaxKeys() {
+        return maxKeys;
+    }
+
+    public void setMaxKeys(int maxKeys) {
+        this.maxKeys = maxKeys;
+    }
+
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    public void setConcurrency(int concurrency) {
+        this.concurrency = concurrency;
+    }
+
+    public Duration getRecordInterval() {
+        return recordInterval;
+    }
+
+    public void setRecordInterval(Duration recordInterval) {
+        this.recordInterval = recordInterval;
+    }
+
+    public Duration getKeyTtl() {
+        return keyTtl;
+    }
+
+    public void setKeyTtl(Duration keyTtl) {
+        this.keyTtl = keyTtl;
+    }
+}
@@ -0,0 +1,75 @@
+package com.mmtext.searchservice.controller;
+
+import com.mmtext.searchservice.dto.SearchPage;
+import com.mmtext.searchservice.esdocument.MovieDocument;
+import com.mmtext.searchservice.esdocument.TheaterDocument;
+import com.mmtext.searchservice.popularity.SearchPopularity;
+import com.mmtext.searchservice.service.ReactiveSearchService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+/**
+ * The Elasticsearch-backed search endpoints on {@link ReactiveSearchService}, only with the
+ * {@code reactive} profile. Spring MVC completes the returned {@link Mono}s as async requests,
+ * so the servlet thread is released while Redis and Elasticsearch answer.
+ */
+@RestController
+@Profile("reactive")
+@RequestMapping("/api/search/reactive")
+public class ReactiveSearchController {
+
+    @Autowired
+    private ReactiveSearchService reactiveSearchService;
+
+    @Autowired
+    private SearchPopularity searchPopularity;
+
+    /**
+     * 🔎 Fuzzy search by movie title
+     * GET /api/search/reactive/movies?keyword=avengers&size=20
+     */
+    @GetMapping("/movies")
+    public Mono<SearchPage<MovieDocument>> searchMovies(
+            @RequestParam String keyword,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String cursor) {
+        return reactiveSearchService.searchMovies(keyword, page, size, cursor)
+                .doOnNext(movies -> {
+                    searchPopularity.queried(keyword);
+                    searchPopularity.viewed(movies.getItems());
+                });
+    }
+
+    /**
+     * ⚖️ Weighted multi-field search (for best ranking)
+     * GET /api/search/reactive/movies/weighted?text=action thriller
+     */
+    @GetMapping("/movies/weighted")
+    public Mono<SearchPage<MovieDocument>> weightedSearch(
+            @RequestParam String text,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String cursor) {
+        return reactiveSearchService.weightedSearch(text, page, size, cursor)
+                .doOnNext(movies -> {
+                    searchPopularity.queried(text);
+                    searchPopularity.viewed(movies.getItems());
+                });
+    }
+
+    /**
+     * 🏛️ Full theater details (address and shows)
+     * GET /api/search/reactive/theaters/42
+     */
+    @GetMapping("/theaters/{id:\\d+}")
+    public Mono<ResponseEntity<TheaterDocument>> getTheater(@PathVariable Long id) {
+        return reactiveSearchService.getTheater(id)
+                .doOnNext(searchPopularity::clicked)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+}
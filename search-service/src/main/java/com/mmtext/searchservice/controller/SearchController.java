@@ -1,15 +1,33 @@
 package com.mmtext.searchservice.controller;
 
+import com.mmtext.searchservice.cache.RedisBatchOperations;
+import com.mmtext.searchservice.cache.StaleCacheShadow;
+import com.mmtext.searchservice.dto.BatchSearchRequest;
+import com.mmtext.searchservice.dto.BatchSearchResponse;
+import com.mmtext.searchservice.dto.HeavyHitter;
+import com.mmtext.searchservice.dto.MovieSuggestion;
+import com.mmtext.searchservice.dto.SearchPage;
+import com.mmtext.searchservice.dto.SearchSpec;
+import com.mmtext.searchservice.dto.TheaterSummary;
 import com.mmtext.searchservice.esdocument.MovieDocument;
 import com.mmtext.searchservice.esdocument.ShowDocument;
 import com.mmtext.searchservice.esdocument.TheaterDocument;
+import com.mmtext.searchservice.geo.TheaterSpatialIndex;
+import com.mmtext.searchservice.geo.UpcomingShowIndex;
+import com.mmtext.searchservice.popularity.SearchPopularity;
+import com.mmtext.searchservice.service.BatchSearchService;
+import com.mmtext.searchservice.service.CacheWarmer;
+import com.mmtext.searchservice.service.SearchCallExecutor;
 import com.mmtext.searchservice.service.SearchService;
+import com.mmtext.searchservice.service.TrendingService;
+import com.mmtext.searchservice.suggest.TitleSuggestIndex;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.OffsetDateTime;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -20,38 +38,118 @@ public class SearchController {
     @Autowired
     private SearchService searchService;
 
+    @Autowired
+    private TitleSuggestIndex titleSuggestIndex;
+
+    @Autowired
+    private TheaterSpatialIndex theaterSpatialIndex;
+
+    @Autowired
+    private UpcomingShowIndex upcomingShowIndex;
+
+    @Autowired
+    private TrendingService trendingService;
+
+    @Autowired
+    private SearchPopularity searchPopularity;
+
+    @Autowired
+    private CacheWarmer cacheWarmer;
+
+    @Autowired
+    private BatchSearchService batchSearchService;
+
+    @Autowired
+    private RedisBatchOperations redisBatchOperations;
+
+    @Autowired
+    private SearchCallExecutor searchCallExecutor;
+
+    @Autowired
+    private StaleCacheShadow staleCacheShadow;
+
     /**
      * 🔎 Fuzzy search by movie title
-     * GET /api/search/movies?keyword=avengers
+     * GET /api/search/movies?keyword=avengers&size=20
+     * Next page: pass the returned nextCursor as cursor (or page=1 for offset paging)
      */
     @GetMapping("/movies")
-    public ResponseEntity<List<MovieDocument>> searchMovies(
-            @RequestParam String keyword) {
-        List<MovieDocument> movies = searchService.searchMovies(keyword);
+    public ResponseEntity<SearchPage<MovieDocument>> searchMovies(
+            @RequestParam String keyword,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String cursor) {
+        SearchPage<MovieDocument> movies = searchService.searchMovies(keyword, page, size, cursor);
+        searchPopularity.queried(keyword);
+        searchPopularity.viewed(movies.getItems());
         return ResponseEntity.ok(movies);
     }
 
     /**
-     * 🏠 Theaters near a geo point
+     * 🏠 Theaters near a geo point, nearest first
      * GET /api/search/theaters/nearby?lat=40.7128&lon=-74.0060&distance=5km
      */
     @GetMapping("/theaters/nearby")
-    public ResponseEntity<List<TheaterDocument>> searchTheatersNear(
+    public ResponseEntity<SearchPage<TheaterSummary>> searchTheatersNear(
+            @RequestParam double lat,
+            @RequestParam double lon,
+            @RequestParam(defaultValue = "10km") String distance,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String cursor) {
+        SearchPage<TheaterSummary> theaters = searchService.searchTheatersNear(lat, lon, distance, page, size, cursor);
+        searchPopularity.searchedNearby(lat, lon, distance);
+        searchPopularity.viewed(theaters.getItems());
+        return ResponseEntity.ok(theaters);
+    }
+
+    /**
+     * 📍 The k theaters nearest to a geo point, at any distance
+     * GET /api/search/theaters/nearest?lat=40.7128&lon=-74.0060&k=5
+     */
+    @GetMapping("/theaters/nearest")
+    public ResponseEntity<List<TheaterSummary>> nearestTheaters(
             @RequestParam double lat,
             @RequestParam double lon,
-            @RequestParam(defaultValue = "10km") String distance) {
-        List<TheaterDocument> theaters = searchService.searchTheatersNear(lat, lon, distance);
+            @RequestParam(defaultValue = "10") int k) {
+        List<TheaterSummary> theaters = searchService.nearestTheaters(lat, lon, k);
+        searchPopularity.viewed(theaters);
         return ResponseEntity.ok(theaters);
     }
 
+    /**
+     * 📏 Size and freshness of the in-memory theater grid
+     * GET /api/search/theaters/nearby/stats
+     */
+    @GetMapping("/theaters/nearby/stats")
+    public ResponseEntity<Map<String, Object>> theaterIndexStats() {
+        return ResponseEntity.ok(theaterSpatialIndex.stats());
+    }
+
+    /**
+     * 🏛️ Full theater details (address and shows)
+     * GET /api/search/theaters/42
+     */
+    @GetMapping("/theaters/{id:\\d+}")
+    public ResponseEntity<TheaterDocument> getTheater(@PathVariable Long id) {
+        TheaterDocument theater = searchService.getTheater(id);
+        searchPopularity.clicked(theater);
+        return theater != null ? ResponseEntity.ok(theater) : ResponseEntity.notFound().build();
+    }
+
     /**
      * 🎭 Find theaters showing a given movie
      * GET /api/search/theaters/by-movie?movieTitle=Inception
      */
     @GetMapping("/theaters/by-movie")
-    public ResponseEntity<List<TheaterDocument>> searchTheatersByMovie(
-            @RequestParam String movieTitle) {
-        List<TheaterDocument> theaters = searchService.searchTheatersByMovie(movieTitle);
+    public ResponseEntity<SearchPage<TheaterSummary>> searchTheatersByMovie(
+            @RequestParam String movieTitle,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String cursor) {
+        SearchPage<TheaterSummary> theaters = searchService.searchTheatersByMovie(movieTitle, page, size, cursor);
+        searchPopularity.queried(movieTitle);
+        searchPopularity.viewed(theaters.getItems());
         return ResponseEntity.ok(theaters);
     }
 
@@ -60,11 +158,16 @@ public class SearchController {
      * GET /api/search/shows?movieTitle=Avatar&minPrice=100&maxPrice=500
      */
     @GetMapping("/shows")
-    public ResponseEntity<List<ShowDocument>> searchShows(
+    public ResponseEntity<SearchPage<ShowDocument>> searchShows(
             @RequestParam String movieTitle,
             @RequestParam int minPrice,
-            @RequestParam int maxPrice) {
-        List<ShowDocument> shows = searchService.searchShows(movieTitle, minPrice, maxPrice);
+            @RequestParam int maxPrice,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String cursor) {
+        SearchPage<ShowDocument> shows = searchService.searchShows(movieTitle, minPrice, maxPrice, page, size, cursor);
+        searchPopularity.queried(movieTitle);
+        searchPopularity.viewed(shows.getItems());
         return ResponseEntity.ok(shows);
     }
 
@@ -73,26 +176,56 @@ public class SearchController {
      * GET /api/search/movies/autocomplete?prefix=ave
      */
     @GetMapping("/movies/autocomplete")
-    public ResponseEntity<List<MovieDocument>> autocompleteMovie(
-            @RequestParam String prefix) {
-        List<MovieDocument> movies = searchService.autocompleteMovie(prefix);
+    public ResponseEntity<SearchPage<MovieDocument>> autocompleteMovie(
+            @RequestParam String prefix,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String cursor) {
+        SearchPage<MovieDocument> movies = searchService.autocompleteMovie(prefix, page, size, cursor);
         return ResponseEntity.ok(movies);
     }
 
+    /**
+     * 💡 Title suggestions while typing, from the in-memory title trie once it is loaded
+     * GET /api/search/movies/suggest?prefix=spider-m&size=10
+     */
+    @GetMapping("/movies/suggest")
+    public ResponseEntity<List<MovieSuggestion>> suggestMovies(
+            @RequestParam String prefix,
+            @RequestParam(defaultValue = "10") int size) {
+        List<MovieSuggestion> suggestions = titleSuggestIndex.suggest(prefix, size);
+        searchPopularity.typed(prefix);
+        return ResponseEntity.ok(suggestions != null ? suggestions : searchService.suggestMovies(prefix, size));
+    }
+
+    /**
+     * 📏 Size and memory footprint of the in-memory title trie
+     * GET /api/search/movies/suggest/stats
+     */
+    @GetMapping("/movies/suggest/stats")
+    public ResponseEntity<Map<String, Object>> suggestStats() {
+        return ResponseEntity.ok(titleSuggestIndex.stats());
+    }
+
     /**
      * 🔍 Advanced movie search with filters and sorting
      * GET /api/search/movies/advanced?keyword=action&language=English&genre=Action&minRating=4.0&sortBy=rating&desc=true
      */
     @GetMapping("/movies/advanced")
-    public ResponseEntity<List<MovieDocument>> searchMoviesAdvanced(
+    public ResponseEntity<SearchPage<MovieDocument>> searchMoviesAdvanced(
             @RequestParam(required = false) String keyword,
             @RequestParam(required = false) String language,
             @RequestParam(required = false) String genre,
             @RequestParam(required = false) Double minRating,
             @RequestParam(required = false) String sortBy,
-            @RequestParam(defaultValue = "false") boolean desc) {
-        List<MovieDocument> movies = searchService.searchMoviesAdvanced(
-                keyword, language, genre, minRating, sortBy, desc);
+            @RequestParam(defaultValue = "false") boolean desc,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String cursor) {
+        SearchPage<MovieDocument> movies = searchService.searchMoviesAdvanced(
+                keyword, language, genre, minRating, sortBy, desc, page, size, cursor);
+        searchPopularity.queried(keyword);
+        searchPopularity.viewed(movies.getItems());
         return ResponseEntity.ok(movies);
     }
 
@@ -101,10 +234,14 @@ public class SearchController {
      * GET /api/search/shows/by-date?start=2025-11-13T10:00:00Z&end=2025-11-13T22:00:00Z
      */
     @GetMapping("/shows/by-date")
-    public ResponseEntity<List<ShowDocument>> searchShowsByDateRange(
+    public ResponseEntity<SearchPage<ShowDocument>> searchShowsByDateRange(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime start,
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime end) {
-        List<ShowDocument> shows = searchService.searchShowsByDateRange(start, end);
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime end,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String cursor) {
+        SearchPage<ShowDocument> shows = searchService.searchShowsByDateRange(start, end, page, size, cursor);
+        searchPopularity.viewed(shows.getItems());
         return ResponseEntity.ok(shows);
     }
 
@@ -113,21 +250,66 @@ public class SearchController {
      * GET /api/search/shows/near-now?lat=40.7128&lon=-74.0060&distanceKm=5km
      */
     @GetMapping("/shows/near-now")
-    public ResponseEntity<List<ShowDocument>> searchShowsNearNow(
+    public ResponseEntity<SearchPage<ShowDocument>> searchShowsNearNow(
             @RequestParam double lat,
             @RequestParam double lon,
-            @RequestParam(defaultValue = "10km") String distanceKm) {
-        List<ShowDocument> shows = searchService.searchShowsNearNow(lat, lon, distanceKm);
+            @RequestParam(defaultValue = "10km") String distanceKm,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String cursor) {
+        SearchPage<ShowDocument> shows = searchService.searchShowsNearNow(lat, lon, distanceKm, page, size, cursor);
+        searchPopularity.viewed(shows.getItems());
         return ResponseEntity.ok(shows);
     }
 
     /**
-     * 🔥 Trending movies based on number of shows
+     * 📏 Size and freshness of the in-memory upcoming-show buckets
+     * GET /api/search/shows/near-now/stats
+     */
+    @GetMapping("/shows/near-now/stats")
+    public ResponseEntity<Map<String, Object>> upcomingShowStats() {
+        return ResponseEntity.ok(upcomingShowIndex.stats());
+    }
+
+    /**
+     * 📦 Several searches of one page in a single request, cached parts in one Redis round trip
+     * and the rest in one Elasticsearch multi-search
+     * POST /api/search/batch {"searches": [{"id": "hits", "type": "movies", "keyword": "action"}, {"type": "trending"}]}
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<BatchSearchResponse> batchSearch(@RequestBody BatchSearchRequest request) {
+        BatchSearchResponse response = batchSearchService.search(request.getSearches());
+        for (SearchSpec spec : request.getSearches()) {
+            switch (spec.getType()) {
+                case "movies", "weighted" -> searchPopularity.queried(spec.getKeyword());
+                case "suggest" -> searchPopularity.typed(spec.getPrefix());
+                case "theaters-nearby" -> searchPopularity.searchedNearby(spec.getLat(), spec.getLon(),
+                        spec.getDistance() != null ? spec.getDistance() : "10km");
+                default -> {
+                }
+            }
+        }
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * 📈 Most frequent queries, prefixes, nearby searches, result views or detail clicks of the last hour (approximate)
+     * GET /api/search/popular?type=queries&limit=20
+     */
+    @GetMapping("/popular")
+    public ResponseEntity<List<HeavyHitter>> popular(
+            @RequestParam(defaultValue = "queries") String type,
+            @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(searchPopularity.top(SearchPopularity.kind(type), Math.min(Math.max(limit, 1), 100)));
+    }
+
+    /**
+     * 🔥 Trending movies based on upcoming shows, sooner shows weigh more
      * GET /api/search/movies/trending
      */
     @GetMapping("/movies/trending")
     public ResponseEntity<List<MovieDocument>> trendingMovies() {
-        List<MovieDocument> movies = searchService.trendingMovies();
+        List<MovieDocument> movies = trendingService.trendingMovies();
         return ResponseEntity.ok(movies);
     }
 
@@ -136,9 +318,14 @@ public class SearchController {
      * GET /api/search/movies/weighted?text=action thriller
      */
     @GetMapping("/movies/weighted")
-    public ResponseEntity<List<MovieDocument>> weightedSearch(
-            @RequestParam String text) {
-        List<MovieDocument> movies = searchService.weightedSearch(text);
+    public ResponseEntity<SearchPage<MovieDocument>> weightedSearch(
+            @RequestParam String text,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String cursor) {
+        SearchPage<MovieDocument> movies = searchService.weightedSearch(text, page, size, cursor);
+        searchPopularity.queried(text);
+        searchPopularity.viewed(movies.getItems());
         return ResponseEntity.ok(movies);
     }
 
@@ -151,6 +338,7 @@ public class SearchController {
     @DeleteMapping("/cache/movies")
     public ResponseEntity<Map<String, String>> clearMoviesCache() {
         searchService.evictMoviesCache();
+        cacheWarmer.warmUpAsync();
         return ResponseEntity.ok(Map.of("message", "Movies cache cleared successfully"));
     }
 
@@ -161,6 +349,7 @@ public class SearchController {
     @DeleteMapping("/cache/theaters")
     public ResponseEntity<Map<String, String>> clearTheatersCache() {
         searchService.evictTheatersCache();
+        cacheWarmer.warmUpAsync();
         return ResponseEntity.ok(Map.of("message", "Theaters cache cleared successfully"));
     }
 
@@ -181,6 +370,49 @@ public class SearchController {
     @DeleteMapping("/cache/all")
     public ResponseEntity<Map<String, String>> clearAllCaches() {
         searchService.evictAllCaches();
+        cacheWarmer.warmUpAsync();
         return ResponseEntity.ok(Map.of("message", "All caches cleared successfully"));
     }
-}
\ No newline at end of file
+
+    /**
+     * 🔥 Re-fill the caches with the most popular requests, e.g. after a bulk re-index
+     * POST /api/search/cache/warmup
+     */
+    @PostMapping("/cache/warmup")
+    public ResponseEntity<Map<String, String>> warmUpCaches() {
+        boolean started = cacheWarmer.warmUpAsync();
+        return ResponseEntity.ok(Map.of("message", started
+                ? "Cache warm-up started" : "Cache warm-up is disabled or already running"));
+    }
+
+    /**
+     * 📊 Calls, keys and batch sizes of the pipelined Redis cache reads and writes
+     * GET /api/search/cache/batch-stats
+     */
+    @GetMapping("/cache/batch-stats")
+    public ResponseEntity<Map<String, Object>> cacheBatchStats() {
+        return ResponseEntity.ok(redisBatchOperations.stats());
+    }
+
+    /**
+     * ⏱️ Elasticsearch call latency, timeouts and hedges per endpoint
+     * GET /api/search/latency/stats
+     */
+    @GetMapping("/latency/stats")
+    public ResponseEntity<Map<String, Object>> latencyStats() {
+        return ResponseEntity.ok(searchCallExecutor.stats());
+    }
+
+    /**
+     * 🧯 Elasticsearch circuit breaker state and stale answers served
+     * GET /api/search/circuit-breaker
+     */
+    @GetMapping("/circuit-breaker")
+    public ResponseEntity<Map<String, Object>> circuitBreaker() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("circuitBreaker", searchCallExecutor.getCircuitBreaker() != null
+                ? searchCallExecutor.getCircuitBreaker().stats() : "disabled");
+        stats.put("staleShadow", staleCacheShadow.stats());
+        return ResponseEntity.ok(stats);
+    }
+}
@@ -0,0 +1,23 @@
+package com.mmtext.searchservice.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Several searches answered in one round trip, see {@code POST /api/search/batch}.
+ */
+public class BatchSearchRequest {
+
+    private List<SearchSpec> searches = new ArrayList<>();
+
+    public BatchSearchRequest() {
+    }
+
+    public List<SearchSpec> getSearches() {
+        return searches;
+    }
+
+    public void setSearches(List<SearchSpec> searches) {
+        this.searches = searches;
+    }
+}
@@ -0,0 +1,53 @@
+package com.mmtext.searchservice.dto;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Results of a batch by search id, in request order. A failed search only shows up in
+ * {@code errors}, the others are still answered. {@code cacheHits} counts the
+ * Elasticsearch-backed searches served from the cache, {@code searched} the queries sent in
+ * the multi-search, one per distinct page.
+ */
+public class BatchSearchResponse {
+
+    private Map<String, Object> results = new LinkedHashMap<>();
+    private Map<String, String> errors = new LinkedHashMap<>();
+    private int cacheHits;
+    private int searched;
+
+    public BatchSearchResponse() {
+    }
+
+    public Map<String, Object> getResults() {
+        return results;
+    }
+
+    public void setResults(Map<String, Object> results) {
+        this.results = results;
+    }
+
+    public Map<String, String> getErrors() {
+        return errors;
+    }
+
+    public void setErrors(Map<String, String> errors) {
+        this.errors = errors;
+    }
+
+    public int getCacheHits() {
+        return cacheHits;
+    }
+
+    public void setCacheHits(int cacheHits) {
+        this.cacheHits = cacheHits;
+    }
+
+    public int getSearched() {
+        return searched;
+    }
+
+    public void setSearched(int searched) {
+        this.searched = searched;
+    }
+}
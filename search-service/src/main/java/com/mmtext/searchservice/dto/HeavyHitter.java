@@ -0,0 +1,35 @@
+package com.mmtext.searchservice.dto;
+
+/**
+ * A frequent key in the current popularity window, e.g. {@code avengers} for a query or
+ * {@code movie:42} for a result, with its estimated count.
+ */
+public class HeavyHitter {
+
+    private String key;
+    private long count;
+
+    public HeavyHitter() {
+    }
+
+    public HeavyHitter(String key, long count) {
+        this.key = key;
+        this.count = count;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public void setKey(String key) {
+        this.key = key;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+}
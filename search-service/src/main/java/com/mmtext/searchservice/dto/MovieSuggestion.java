@@ -0,0 +1,45 @@
+package com.mmtext.searchservice.dto;
+
+/**
+ * One autocomplete suggestion: the movie and the title to show for it. {@code score} is the
+ * completion score Elasticsearch ranked it with.
+ */
+public class MovieSuggestion {
+
+    private Long id;
+    private String title;
+    private Double score;
+
+    public MovieSuggestion() {
+    }
+
+    public MovieSuggestion(Long id, String title, Double score) {
+        this.id = id;
+        this.title = title;
+        this.score = score;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public Double getScore() {
+        return score;
+    }
+
+    public void setScore(Double score) {
+        this.score = score;
+    }
+}
@@ -0,0 +1,70 @@
+package com.mmtext.searchservice.dto;
+
+import java.util.List;
+
+/**
+ * One page of search results.
+ *
+ * {@code nextCursor} is an opaque {@code search_after} token: pass it back as {@code cursor}
+ * to continue after the last hit of this page without re-running the query from the top.
+ * It is {@code null} when this page was not full, i.e. there is nothing more to fetch.
+ */
+public class SearchPage<T> {
+
+    private List<T> items;
+    private int page;
+    private int size;
+    private long totalHits;
+    private String nextCursor;
+
+    public SearchPage() {
+    }
+
+    public SearchPage(List<T> items, int page, int size, long totalHits, String nextCursor) {
+        this.items = items;
+        this.page = page;
+        this.size = size;
+        this.totalHits = totalHits;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public void setItems(List<T> items) {
+        this.items = items;
+    }
+
+    public int getPage() {
+        return page;
+    }
+
+    public void setPage(int page) {
+        this.page = page;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+
+    public long getTotalHits() {
+        return totalHits;
+    }
+
+    public void setTotalHits(long totalHits) {
+        this.totalHits = totalHits;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
@@ -0,0 +1,112 @@
+package com.mmtext.searchservice.dto;
+
+/**
+ * One search of a batch request. {@code type} picks the search, the other fields are its
+ * parameters with the same names and defaults as on the single-search endpoints:
+ *
+ * <ul>
+ *   <li>{@code movies}, {@code weighted}: keyword, page, size, cursor</li>
+ *   <li>{@code suggest}: prefix, size</li>
+ *   <li>{@code trending}: none</li>
+ *   <li>{@code theaters-nearby}: lat, lon, distance, page, size, cursor</li>
+ *   <li>{@code shows-near-now}: lat, lon, distance, page, size, cursor</li>
+ * </ul>
+ *
+ * {@code id} names the result in the response, it defaults to the position in the batch.
+ */
+public class SearchSpec {
+
+    private String id;
+    private String type;
+    private String keyword;
+    private String prefix;
+    private Double lat;
+    private Double lon;
+    private String distance;
+    private Integer page;
+    private Integer size;
+    private String cursor;
+
+    public SearchSpec() {
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public String getKeyword() {
+        return keyword;
+    }
+
+    public void setKeyword(String keyword) {
+        this.keyword = keyword;
+    }
+
+    public String getPrefix() {
+        return prefix;
+    }
+
+    public void setPrefix(String prefix) {
+        this.prefix = prefix;
+    }
+
+    public Double getLat() {
+        return lat;
+    }
+
+    public void setLat(Double lat) {
+        this.lat = lat;
+    }
+
+    public Double getLon() {
+        return lon;
+    }
+
+    public void setLon(Double lon) {
+        this.lon = lon;
+    }
+
+    public String getDistance() {
+        return distance;
+    }
+
+    public void setDistance(String distance) {
+        this.distance = distance;
+    }
+
+    public Integer getPage() {
+        return page;
+    }
+
+    public void setPage(Integer page) {
+        this.page = page;
+    }
+
+    public Integer getSize() {
+        return size;
+    }
+
+    public void setSize(Integer size) {
+        this.size = size;
+    }
+
+    public String getCursor() {
+        return cursor;
+    }
+
+    public void setCursor(String cursor) {
+        this.cursor = cursor;
+    }
+}
@@ -0,0 +1,67 @@
+package com.mmtext.searchservice.dto;
+
+/**
+ * List view of a theater: just enough to render a result row and place it on a map.
+ * The full {@code TheaterDocument} (street address, shows) is served by the detail endpoint.
+ *
+ * {@code distanceKm} is only set for geo searches, where it comes from the distance sort.
+ */
+public class TheaterSummary {
+
+    private Long id;
+    private String city;
+    private Double lat;
+    private Double lon;
+    private Double distanceKm;
+
+    public TheaterSummary() {
+    }
+
+    public TheaterSummary(Long id, String city, Double lat, Double lon, Double distanceKm) {
+        this.id = id;
+        this.city = city;
+        this.lat = lat;
+        this.lon = lon;
+        this.distanceKm = distanceKm;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getCity() {
+        return city;
+    }
+
+    public void setCity(String city) {
+        this.city = city;
+    }
+
+    public Double getLat() {
+        return lat;
+    }
+
+    public void setLat(Double lat) {
+        this.lat = lat;
+    }
+
+    public Double getLon() {
+        return lon;
+    }
+
+    public void setLon(Double lon) {
+        this.lon = lon;
+    }
+
+    public Double getDistanceKm() {
+        return distanceKm;
+    }
+
+    public void setDistanceKm(Double distanceKm) {
+        this.distanceKm = distanceKm;
+    }
+}
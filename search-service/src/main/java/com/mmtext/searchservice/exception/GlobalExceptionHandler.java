@@ -0,0 +1,41 @@
+package com.mmtext.searchservice.exception;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@ControllerAdvice
+public class GlobalExceptionHandler {
+    private static final Logger log = LoggerFactory.getLogger(GlobalExceptionHandler.class);
+
+    // e.g. a tampered or truncated paging cursor
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, String>> handleIllegalArgumentException(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(getErrors("message", e));
+    }
+
+    // Elasticsearch did not answer within the endpoint's latency budget
+    @ExceptionHandler(SearchTimeoutException.class)
+    public ResponseEntity<Map<String, String>> handleSearchTimeoutException(SearchTimeoutException e) {
+        return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT).body(getErrors("message", e));
+    }
+
+    // The Elasticsearch circuit is open and there was no stale copy to answer with
+    @ExceptionHandler(SearchUnavailableException.class)
+    public ResponseEntity<Map<String, String>> handleSearchUnavailableException(SearchUnavailableException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(getErrors("message", e));
+    }
+
+    private Map<String, String> getErrors(String key, Exception e) {
+        log.error(e.getMessage());
+        Map<String, String> errors = new HashMap<>();
+        errors.put(key, e.getMessage());
+        return errors;
+    }
+}
@@ -0,0 +1,9 @@
+package com.mmtext.searchservice.exception;
+
+/** An Elasticsearch call did not answer within the latency budget of its endpoint. */
+public class SearchTimeoutException extends RuntimeException {
+
+    public SearchTimeoutException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,9 @@
+package com.mmtext.searchservice.exception;
+
+/** The Elasticsearch circuit is open, the call was not sent. */
+public class SearchUnavailableException extends RuntimeException {
+
+    public SearchUnavailableException(String message) {
+        super(message);
+    }
+}
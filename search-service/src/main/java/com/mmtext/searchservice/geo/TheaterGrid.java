@@ -0,0 +1,206 @@
+package com.mmtext.searchservice.geo;
+
+import com.mmtext.searchservice.dto.TheaterSummary;
+import com.mmtext.searchservice.service.GeoCells;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Immutable grid index over theater coordinates, for radius and nearest-k queries in memory.
+ *
+ * The world is cut into {@code cellDegrees} square cells (in degrees, so cells narrow towards
+ * the poles). Theaters are stored in parallel primitive arrays ordered by cell key
+ * ({@code row * columns + column}), so the theaters of a run of cells in one row are one
+ * contiguous slice found with a single binary search. A query scans the rows and columns
+ * covering the bounding box of its circle and keeps what is within the exact great-circle
+ * distance.
+ */
+public final class TheaterGrid {
+
+    private static final double KM_PER_DEGREE = 111.32;
+    private static final double EARTH_HALF_CIRCUMFERENCE_KM = 20038;
+    private static final Comparator<TheaterSummary> NEAREST_FIRST =
+            Comparator.comparingDouble(TheaterSummary::getDistanceKm).thenComparing(TheaterSummary::getId);
+
+    private final double cellDegrees;
+    private final int rows;
+    private final int columns;
+    private final long[] cellKeys;
+    // Theaters of cellKeys[i] are at [cellStart[i], cellStart[i + 1])
+    private final int[] cellStart;
+    private final long[] ids;
+    private final double[] lats;
+    private final double[] lons;
+    private final String[] cities;
+
+    private TheaterGrid(double cellDegrees, long[] cellKeys, int[] cellStart,
+                        long[] ids, double[] lats, double[] lons, String[] cities) {
+        this.cellDegrees = cellDegrees;
+        this.rows = (int) Math.ceil(180 / cellDegrees);
+        this.columns = (int) Math.ceil(360 / cellDegrees);
+        this.cellKeys = cellKeys;
+        this.cellStart = cellStart;
+        this.ids = ids;
+        this.lats = lats;
+        this.lons = lons;
+        this.cities = cities;
+    }
+
+    public static Builder builder(double cellDegrees) {
+        if (!(cellDegrees > 0 && cellDegrees <= 90)) {
+            throw new IllegalArgumentException("cellDegrees must be within (0, 90]: " + cellDegrees);
+        }
+        return new Builder(cellDegrees);
+    }
+
+    /** Theaters within {@code radiusKm}, nearest first. */
+    public List<TheaterSummary> within(double lat, double lon, double radiusKm) {
+        List<TheaterSummary> theaters = new ArrayList<>();
+        double latDelta = radiusKm / KM_PER_DEGREE;
+        int firstRow = row(Math.max(lat - latDelta, -90));
+        int lastRow = row(Math.min(lat + latDelta, 90));
+        // Widest at the row farthest from the equator
+        double cos = Math.cos(Math.toRadians(Math.min(Math.abs(lat) + latDelta, 90)));
+        double lonDelta = cos > 1e-9 ? latDelta / cos : 360;
+
+        for (int row = firstRow; row <= lastRow; row++) {
+            long rowBase = (long) row * columns;
+            if (lonDelta >= 180) {
+                scan(rowBase, rowBase + columns - 1, lat, lon, radiusKm, theaters);
+                continue;
+            }
+            int from = (int) Math.floor((lon - lonDelta + 180) / cellDegrees);
+            int to = (int) Math.floor((lon + lonDelta + 180) / cellDegrees);
+            if (from < 0) {
+                scan(rowBase + from + columns, rowBase + columns - 1, lat, lon, radiusKm, theaters);
+                from = 0;
+            }
+            if (to >= columns) {
+                scan(rowBase, rowBase + to - columns, lat, lon, radiusKm, theaters);
+                to = columns - 1;
+            }
+            scan(rowBase + from, rowBase + to, lat, lon, radiusKm, theaters);
+        }
+        theaters.sort(NEAREST_FIRST);
+        return theaters;
+    }
+
+    /** The {@code k} nearest theaters at any distance, nearest first. */
+    public List<TheaterSummary> nearest(double lat, double lon, int k) {
+        double radiusKm = cellDegrees * KM_PER_DEGREE;
+        while (true) {
+            List<TheaterSummary> theaters = within(lat, lon, radiusKm);
+            // Exact within the radius, so once it holds k theaters these are the k nearest
+            if (theaters.size() >= k || radiusKm >= EARTH_HALF_CIRCUMFERENCE_KM) {
+                return theaters.size() > k ? new ArrayList<>(theaters.subList(0, k)) : theaters;
+            }
+            radiusKm = Math.min(radiusKm * 2, EARTH_HALF_CIRCUMFERENCE_KM);
+        }
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    public int cellCount() {
+        return cellKeys.length;
+    }
+
+    /** Arrays only, the city strings are shared with the loaded documents. */
+    public long estimatedBytes() {
+        return 32L * ids.length + 12L * cellKeys.length;
+    }
+
+    private void scan(long fromKey, long toKey, double lat, double lon, double radiusKm, List<TheaterSummary> out) {
+        int cell = Arrays.binarySearch(cellKeys, fromKey);
+        if (cell < 0) {
+            cell = -cell - 1;
+        }
+        for (; cell < cellKeys.length && cellKeys[cell] <= toKey; cell++) {
+            for (int i = cellStart[cell]; i < cellStart[cell + 1]; i++) {
+                double distanceKm = GeoCells.distanceKm(lat, lon, lats[i], lons[i]);
+                if (distanceKm <= radiusKm) {
+                    out.add(new TheaterSummary(ids[i], cities[i], lats[i], lons[i], distanceKm));
+                }
+            }
+        }
+    }
+
+    private int row(double lat) {
+        return Math.min((int) Math.floor((lat + 90) / cellDegrees), rows - 1);
+    }
+
+    private long key(double lat, double lon) {
+        int column = Math.floorMod((int) Math.floor((lon + 180) / cellDegrees), columns);
+        return (long) row(lat) * columns + column;
+    }
+
+    public static final class Builder {
+        private final double cellDegrees;
+        private long[] ids = new long[64];
+        private double[] lats = new double[64];
+        private double[] lons = new double[64];
+        private String[] cities = new String[64];
+        private int size;
+
+        private Builder(double cellDegrees) {
+            this.cellDegrees = cellDegrees;
+        }
+
+        public Builder add(long id, String city, double lat, double lon) {
+            if (!(lat >= -90 && lat <= 90 && lon >= -180 && lon <= 180)) {
+                return this;
+            }
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                lats = Arrays.copyOf(lats, size * 2);
+                lons = Arrays.copyOf(lons, size * 2);
+                cities = Arrays.copyOf(cities, size * 2);
+            }
+            ids[size] = id;
+            cities[size] = city;
+            lats[size] = lat;
+            lons[size] = lon;
+            size++;
+            return this;
+        }
+
+        public TheaterGrid build() {
+            TheaterGrid empty = new TheaterGrid(cellDegrees, new long[0], new int[1],
+                    new long[0], new double[0], new double[0], new String[0]);
+            long[] keys = new long[size];
+            Integer[] order = new Integer[size];
+            for (int i = 0; i < size; i++) {
+                keys[i] = empty.key(lats[i], lons[i]);
+                order[i] = i;
+            }
+            Arrays.sort(order, Comparator.<Integer>comparingLong(i -> keys[i]).thenComparingLong(i -> ids[i]));
+
+            long[] sortedIds = new long[size];
+            double[] sortedLats = new double[size];
+            double[] sortedLons = new double[size];
+            String[] sortedCities = new String[size];
+            long[] cellKeys = new long[size];
+            int[] cellStart = new int[size + 1];
+            int cells = 0;
+            for (int i = 0; i < size; i++) {
+                int from = order[i];
+                sortedIds[i] = ids[from];
+                sortedLats[i] = lats[from];
+                sortedLons[i] = lons[from];
+                sortedCities[i] = cities[from];
+                if (cells == 0 || cellKeys[cells - 1] != keys[from]) {
+                    cellKeys[cells] = keys[from];
+                    cellStart[cells] = i;
+                    cells++;
+                }
+            }
+            cellStart[cells] = size;
+            return new TheaterGrid(cellDegrees, Arrays.copyOf(cellKeys, cells), Arrays.copyOf(cellStart, cells + 1),
+                    sortedIds, sortedLats, sortedLons, sortedCities);
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package com.mmtext.searchservice.geo;
+
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mmtext.searchservice.configuration.TheaterIndexProperties;
+import com.mmtext.searchservice.dto.TheaterSummary;
+import com.mmtext.searchservice.esdocument.AddressDocument;
+import com.mmtext.searchservice.esdocument.TheaterDocument;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.elasticsearch.client.elc.NativeQuery;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.SearchHitsIterator;
+import org.springframework.data.elasticsearch.core.query.FetchSourceFilter;
+import org.springframework.data.elasticsearch.core.query.SourceFilter;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps a {@link TheaterGrid} of all theater locations so nearby searches are answered from
+ * memory instead of an Elasticsearch {@code geo_distance} query.
+ *
+ * Loaded in full once the application is up and again every {@code reloadInterval}. In between,
+ * invalidation events naming a theater re-read that one theater; changes are folded into one
+ * rebuild per {@code rebuildDelay}. Readers always see a complete grid: a rebuild swaps in a new
+ * one. When no full reload has succeeded for {@code maxStaleness} the grid is not used, and
+ * callers go to Elasticsearch until a reload gets through again.
+ */
+public class TheaterSpatialIndex implements MessageListener, ApplicationListener<ApplicationReadyEvent>, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(TheaterSpatialIndex.class);
+    private static final long RETRY_DELAY_SECONDS = 30;
+    private static final int LOAD_BATCH_SIZE = 1000;
+    private static final SourceFilter LOAD_SOURCE =
+            FetchSourceFilter.of(b -> b.withIncludes("id", "address.city", "address.location"));
+
+    private final ElasticsearchOperations elasticsearchOperations;
+    private final TheaterIndexProperties properties;
+    // Plain mapper, the event is not written by the cache serializer
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<Long, Location> theaters = new ConcurrentHashMap<>();
+    // Orders reloads and events, a reload never overwrites a change that arrived after it started
+    private final AtomicLong versions = new AtomicLong();
+    private final AtomicBoolean rebuildScheduled = new AtomicBoolean();
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "theater-grid");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile TheaterGrid grid;
+    private volatile Instant builtAt;
+    private volatile long loadedAtMillis;
+
+    public TheaterSpatialIndex(ElasticsearchOperations elasticsearchOperations, TheaterIndexProperties properties) {
+        this.elasticsearchOperations = elasticsearchOperations;
+        this.properties = properties;
+    }
+
+    /** @return theaters within the radius, nearest first, or {@code null} while the grid is not usable */
+    public List<TheaterSummary> within(double lat, double lon, double radiusKm) {
+        TheaterGrid current = freshGrid();
+        return current != null ? current.within(lat, lon, radiusKm) : null;
+    }
+
+    /** @return the {@code k} nearest theaters, or {@code null} while the grid is not usable */
+    public List<TheaterSummary> nearest(double lat, double lon, int k) {
+        TheaterGrid current = freshGrid();
+        return current != null ? current.nearest(lat, lon, k) : null;
+    }
+
+    /** @return {@code {lat, lon}} of the theater as last loaded, or {@code null} if unknown */
+    public double[] location(long theaterId) {
+        Location location = theaters.get(theaterId);
+        if (location == null || location.lat == null || location.lon == null) {
+            return null;
+        }
+        return new double[]{location.lat, location.lon};
+    }
+
+    /** Whether {@link #within} and {@link #nearest} currently answer from the grid. */
+    public boolean isFresh() {
+        return freshGrid() != null;
+    }
+
+    public Map<String, Object> stats() {
+        TheaterGrid current = grid;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", properties.isEnabled());
+        stats.put("loaded", current != null);
+        stats.put("fresh", isFresh());
+        if (current != null) {
+            stats.put("theaters", current.size());
+            stats.put("cells", current.cellCount());
+            stats.put("estimatedBytes", current.estimatedBytes());
+            stats.put("builtAt", builtAt.toString());
+            stats.put("loadedAt", Instant.ofEpochMilli(loadedAtMillis).toString());
+        }
+        return stats;
+    }
+
+    private TheaterGrid freshGrid() {
+        TheaterGrid current = grid;
+        if (current == null || System.currentTimeMillis() - loadedAtMillis > properties.getMaxStaleness().toMillis()) {
+            return null;
+        }
+        return current;
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        if (properties.isEnabled()) {
+            executor.execute(this::reload);
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        try {
+            JsonNode event = objectMapper.readTree(message.getBody());
+            if (event.hasNonNull("theaterId")) {
+                long theaterId = event.get("theaterId").asLong();
+                executor.execute(() -> refresh(theaterId));
+            }
+        } catch (Exception e) {
+            log.warn("Could not read theater change {}: {}", new String(message.getBody()), e.getMessage());
+        }
+    }
+
+    private void refresh(long theaterId) {
+        long version = versions.incrementAndGet();
+        try {
+            TheaterDocument theater = elasticsearchOperations.get(String.valueOf(theaterId), TheaterDocument.class);
+            // A missing theater stays as a tombstone, so a running reload does not bring it back
+            theaters.put(theaterId, theater != null ? Location.of(theater, version) : new Location(null, null, null, version));
+            scheduleRebuild();
+        } catch (Exception e) {
+            log.warn("Could not refresh theater {}: {}", theaterId, e.getMessage());
+        }
+    }
+
+    private void reload() {
+        long started = versions.incrementAndGet();
+        try {
+            NativeQuery query = NativeQuery.builder()
+                    .withQuery(Query.of(q -> q.matchAll(m -> m)))
+                    .withSourceFilter(LOAD_SOURCE)
+                    .withPageable(PageRequest.of(0, LOAD_BATCH_SIZE))
+                    .build();
+            try (SearchHitsIterator<TheaterDocument> hits = elasticsearchOperations.searchForStream(query, TheaterDocument.class)) {
+                while (hits.hasNext()) {
+                    TheaterDocument theater = hits.next().getContent();
+                    if (theater.getId() == null) {
+                        continue;
+                    }
+                    Location loaded = Location.of(theater, started);
+                    theaters.compute(theater.getId(), (id, old) -> old != null && old.version > started ? old : loaded);
+                }
+            }
+            // Gone from the index, and old tombstones
+            theaters.values().removeIf(location -> location.version < started);
+            rebuild();
+            loadedAtMillis = System.currentTimeMillis();
+            executor.schedule(this::reload, properties.getReloadInterval().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            log.warn("Could not load theater locations ({}), retrying in {}s", e.getMessage(), RETRY_DELAY_SECONDS);
+            executor.schedule(this::reload, RETRY_DELAY_SECONDS, TimeUnit.SECONDS);
+        }
+    }
+
+    private void scheduleRebuild() {
+        // Before the first load there is nothing to rebuild, the load picks the change up
+        if (grid != null && rebuildScheduled.compareAndSet(false, true)) {
+            executor.schedule(() -> {
+                rebuildScheduled.set(false);
+                rebuild();
+            }, properties.getRebuildDelay().toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void rebuild() {
+        long start = System.nanoTime();
+        TheaterGrid.Builder builder = TheaterGrid.builder(properties.getCellDegrees());
+        theaters.forEach((id, location) -> {
+            if (location.lat != null && location.lon != null) {
+                builder.add(id, location.city, location.lat, location.lon);
+            }
+        });
+        TheaterGrid built = builder.build();
+        builtAt = Instant.now();
+        grid = built;
+        log.debug("Built theater grid: {} theaters in {} cells, ~{} KiB in {} ms", built.size(), built.cellCount(),
+                built.estimatedBytes() / 1024, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    private static final class Location {
+        final String city;
+        final Double lat;
+        final Double lon;
+        final long version;
+
+        Location(String city, Double lat, Double lon, long version) {
+            this.city = city;
+            this.lat = lat;
+            this.lon = lon;
+            this.version = version;
+        }
+
+        static Location of(TheaterDocument theater, long version) {
+            AddressDocument address = theater.getAddress();
+            if (address == null || address.getLocation() == null) {
+                return new Location(null, null, null, version);
+            }
+            return new Location(address.getCity(), address.getLocation().getLat(), address.getLocation().getLon(), version);
+        }
+    }
+}
@@ -0,0 +1,337 @@
+package com.mmtext.searchservice.geo;
+
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mmtext.searchservice.configuration.UpcomingShowProperties;
+import com.mmtext.searchservice.esdocument.ShowDocument;
+import com.mmtext.searchservice.service.GeoCells;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.elasticsearch.client.elc.NativeQuery;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.SearchHitsIterator;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Upcoming shows bucketed by 15-minute slot and geohash cell of their theater, so "starting
+ * soon near me" is a few map lookups instead of an Elasticsearch query.
+ *
+ * Shows starting within {@code horizon} are loaded in full once the theater grid is available
+ * and again every {@code reloadInterval}; a show is placed in the cell of the theater location it
+ * carries, or of its theater's location from {@link TheaterSpatialIndex} for shows indexed without
+ * one. Invalidation events naming a movie, a theater or a show re-read that movie's, theater's or
+ * show's upcoming shows. Slots that have passed are dropped by a rebuild at every
+ * slot boundary. All loading runs on one thread; readers see an immutable snapshot swapped in
+ * by each rebuild. When no full reload has succeeded for {@code maxStaleness} the snapshot is
+ * not used and callers go to Elasticsearch.
+ */
+public class UpcomingShowIndex implements MessageListener, ApplicationListener<ApplicationReadyEvent>, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(UpcomingShowIndex.class);
+    public static final long SLOT_MILLIS = TimeUnit.MINUTES.toMillis(15);
+    private static final long RETRY_DELAY_SECONDS = 30;
+    private static final int LOAD_BATCH_SIZE = 1000;
+    // Beyond this many cells a query reads every cell of its slots instead
+    private static final int MAX_QUERY_CELLS = 1024;
+    private static final Comparator<ShowDocument> BY_SHOW_TIME =
+            Comparator.comparing(ShowDocument::getShowTime).thenComparing(ShowDocument::getId);
+
+    private final ElasticsearchOperations elasticsearchOperations;
+    private final TheaterSpatialIndex theaterSpatialIndex;
+    private final UpcomingShowProperties properties;
+    // Plain mapper, the event is not written by the cache serializer
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    // Only touched on the executor thread
+    private final Map<Long, Upcoming> shows = new HashMap<>();
+    private final AtomicBoolean rebuildScheduled = new AtomicBoolean();
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "upcoming-shows");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile Snapshot snapshot;
+    private volatile long loadedAtMillis;
+
+    public UpcomingShowIndex(ElasticsearchOperations elasticsearchOperations,
+                             TheaterSpatialIndex theaterSpatialIndex, UpcomingShowProperties properties) {
+        this.elasticsearchOperations = elasticsearchOperations;
+        this.theaterSpatialIndex = theaterSpatialIndex;
+        this.properties = properties;
+    }
+
+    /**
+     * @return shows starting within {@code [from, to]} at theaters within the radius, by show
+     *         time, or {@code null} while the snapshot is not usable or does not reach {@code to}
+     */
+    public List<ShowDocument> upcoming(double lat, double lon, double radiusKm, long from, long to) {
+        Snapshot current = snapshot;
+        if (current == null || !isFresh() || to > current.horizonEnd) {
+            return null;
+        }
+        Set<String> cells = coveringCells(lat, lon, radiusKm, properties.getCellPrecision());
+        List<ShowDocument> found = new ArrayList<>();
+        for (Map<String, List<Upcoming>> slot : current.slots.subMap(from / SLOT_MILLIS, true, to / SLOT_MILLIS, true).values()) {
+            Iterable<List<Upcoming>> buckets = cells != null
+                    ? cells.stream().map(slot::get).filter(bucket -> bucket != null).toList()
+                    : slot.values();
+            for (List<Upcoming> bucket : buckets) {
+                for (Upcoming show : bucket) {
+                    if (show.startsAt >= from && show.startsAt <= to
+                            && GeoCells.distanceKm(lat, lon, show.lat, show.lon) <= radiusKm) {
+                        found.add(show.show);
+                    }
+                }
+            }
+        }
+        found.sort(BY_SHOW_TIME);
+        return found;
+    }
+
+    private boolean isFresh() {
+        return System.currentTimeMillis() - loadedAtMillis <= properties.getMaxStaleness().toMillis();
+    }
+
+    public Map<String, Object> stats() {
+        Snapshot current = snapshot;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", properties.isEnabled());
+        stats.put("loaded", current != null);
+        stats.put("fresh", current != null && isFresh());
+        if (current != null) {
+            stats.put("shows", current.size);
+            stats.put("slots", current.slots.size());
+            stats.put("horizonEnd", Instant.ofEpochMilli(current.horizonEnd).toString());
+            stats.put("loadedAt", Instant.ofEpochMilli(loadedAtMillis).toString());
+        }
+        return stats;
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        if (properties.isEnabled()) {
+            executor.execute(this::reload);
+            // Ages out the slot that just ended
+            long untilNextSlot = SLOT_MILLIS - System.currentTimeMillis() % SLOT_MILLIS;
+            executor.scheduleAtFixedRate(this::rebuild, untilNextSlot, SLOT_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        try {
+            JsonNode event = objectMapper.readTree(message.getBody());
+            if (event.hasNonNull("movieId")) {
+                long movieId = event.get("movieId").asLong();
+                executor.execute(() -> refresh("movieId", movieId));
+            }
+            if (event.hasNonNull("theaterId")) {
+                long theaterId = event.get("theaterId").asLong();
+                executor.execute(() -> refresh("theaterId", theaterId));
+            } else if (event.hasNonNull("showId")) {
+                // A deleted show names nothing else
+                long showId = event.get("showId").asLong();
+                executor.execute(() -> refresh("id", showId));
+            }
+        } catch (Exception e) {
+            log.warn("Could not read show change {}: {}", new String(message.getBody()), e.getMessage());
+        }
+    }
+
+    private void refresh(String field, long id) {
+        // Before the first load there is nothing to update, the load picks the change up
+        if (snapshot == null) {
+            return;
+        }
+        try {
+            Query owner = Query.of(q -> q.term(t -> t.field(field).value(id)));
+            Map<Long, Upcoming> loaded = load(owner, System.currentTimeMillis());
+            Long owned = id;
+            shows.values().removeIf(show -> owned.equals(switch (field) {
+                case "movieId" -> show.show.getMovieId();
+                case "theaterId" -> show.show.getTheaterId();
+                default -> show.show.getId();
+            }));
+            shows.putAll(loaded);
+            scheduleRebuild();
+        } catch (Exception e) {
+            log.warn("Could not refresh upcoming shows of {} {}: {}", field, id, e.getMessage());
+        }
+    }
+
+    private void reload() {
+        if (!theaterSpatialIndex.isFresh()) {
+            // Shows are placed by their theater's location, wait for the theater grid
+            executor.schedule(this::reload, RETRY_DELAY_SECONDS, TimeUnit.SECONDS);
+            return;
+        }
+        try {
+            long now = System.currentTimeMillis();
+            Map<Long, Upcoming> loaded = load(null, now);
+            shows.clear();
+            shows.putAll(loaded);
+            loadedAtMillis = now;
+            rebuild();
+            executor.schedule(this::reload, properties.getReloadInterval().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            log.warn("Could not load upcoming shows ({}), retrying in {}s", e.getMessage(), RETRY_DELAY_SECONDS);
+            executor.schedule(this::reload, RETRY_DELAY_SECONDS, TimeUnit.SECONDS);
+        }
+    }
+
+    private Map<Long, Upcoming> load(Query owner, long now) {
+        long slotStart = now - now % SLOT_MILLIS;
+        Query upcoming = Query.of(q -> q.range(r -> r.date(d -> d
+                .field("showTime")
+                .gte(String.valueOf(slotStart))
+                .lt(String.valueOf(now + properties.getHorizon().toMillis()))
+                .format("epoch_millis"))));
+        Query query = owner != null
+                ? Query.of(q -> q.bool(b -> b.filter(upcoming, owner)))
+                : Query.of(q -> q.bool(b -> b.filter(upcoming)));
+        NativeQuery nativeQuery = NativeQuery.builder()
+                .withQuery(query)
+                .withPageable(PageRequest.of(0, LOAD_BATCH_SIZE))
+                .build();
+
+        Map<Long, Upcoming> loaded = new HashMap<>();
+        int unplaced = 0;
+        try (SearchHitsIterator<ShowDocument> hits = elasticsearchOperations.searchForStream(nativeQuery, ShowDocument.class)) {
+            while (hits.hasNext()) {
+                ShowDocument show = hits.next().getContent();
+                double[] location = locationOf(show);
+                if (show.getId() == null || show.getShowTime() == null || location == null) {
+                    unplaced++;
+                    continue;
+                }
+                loaded.put(show.getId(), new Upcoming(show, location[0], location[1], properties.getCellPrecision()));
+            }
+        }
+        if (unplaced > 0) {
+            log.debug("{} upcoming shows without a known theater location were skipped", unplaced);
+        }
+        return loaded;
+    }
+
+    // Shows indexed before they carried their theater's location are placed by the theater grid
+    private double[] locationOf(ShowDocument show) {
+        if (show.getLocation() != null) {
+            return new double[] {show.getLocation().getLat(), show.getLocation().getLon()};
+        }
+        return show.getTheaterId() != null ? theaterSpatialIndex.location(show.getTheaterId()) : null;
+    }
+
+    private void scheduleRebuild() {
+        if (rebuildScheduled.compareAndSet(false, true)) {
+            executor.schedule(() -> {
+                rebuildScheduled.set(false);
+                rebuild();
+            }, properties.getRebuildDelay().toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void rebuild() {
+        if (loadedAtMillis == 0) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        shows.values().removeIf(show -> show.startsAt < now - now % SLOT_MILLIS);
+        NavigableMap<Long, Map<String, List<Upcoming>>> slots = new TreeMap<>();
+        for (Upcoming show : shows.values()) {
+            slots.computeIfAbsent(show.startsAt / SLOT_MILLIS, slot -> new HashMap<>())
+                    .computeIfAbsent(show.cell, cell -> new ArrayList<>())
+                    .add(show);
+        }
+        // Reloads cover now + horizon, so the snapshot only answers up to the last reload's reach
+        snapshot = new Snapshot(Collections.unmodifiableNavigableMap(slots), shows.size(),
+                loadedAtMillis + properties.getHorizon().toMillis());
+    }
+
+    /**
+     * Geohash cells of the given precision covering the circle's bounding box, or {@code null}
+     * when that would be more than {@link #MAX_QUERY_CELLS}.
+     */
+    static Set<String> coveringCells(double lat, double lon, double radiusKm, int precision) {
+        double[] bounds = GeoCells.bounds(GeoCells.encode(lat, lon, precision));
+        double cellHeight = bounds[1] - bounds[0];
+        double cellWidth = bounds[3] - bounds[2];
+        double latDelta = radiusKm / 111.32;
+        double cos = Math.cos(Math.toRadians(Math.min(Math.abs(lat) + latDelta, 90)));
+        double lonDelta = cos > 1e-9 ? latDelta / cos : 360;
+        long rows = (long) Math.ceil(2 * latDelta / cellHeight) + 2;
+        long columns = (long) Math.ceil(2 * lonDelta / cellWidth) + 2;
+        if (lonDelta >= 180 || rows * columns > MAX_QUERY_CELLS) {
+            return null;
+        }
+        Set<String> cells = new HashSet<>();
+        for (long row = 0; row < rows; row++) {
+            double cellLat = Math.max(-90, Math.min(90, lat - latDelta + row * cellHeight));
+            for (long column = 0; column < columns; column++) {
+                double cellLon = lon - lonDelta + column * cellWidth;
+                // Across the antimeridian
+                cellLon = ((cellLon + 180) % 360 + 360) % 360 - 180;
+                cells.add(GeoCells.encode(cellLat, cellLon, precision));
+            }
+        }
+        return cells;
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    private static final class Upcoming {
+        final ShowDocument show;
+        final long startsAt;
+        final double lat;
+        final double lon;
+        final String cell;
+
+        Upcoming(ShowDocument show, double lat, double lon, int precision) {
+            this.show = show;
+            this.startsAt = show.getShowTime().toInstant().toEpochMilli();
+            this.lat = lat;
+            this.lon = lon;
+            this.cell = GeoCells.encode(lat, lon, precision);
+        }
+    }
+
+    private static final class Snapshot {
+        final NavigableMap<Long, Map<String, List<Upcoming>>> slots;
+        final int size;
+        final long horizonEnd;
+
+        Snapshot(NavigableMap<Long, Map<String, List<Upcoming>>> slots, int size, long horizonEnd) {
+            this.slots = slots;
+            this.size = size;
+            this.horizonEnd = horizonEnd;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.mmtext.searchservice.popularity;
+
+import java.util.Arrays;
+
+/**
+ * Count-Min sketch over pre-hashed keys: {@code depth} rows of {@code width} counters, a key
+ * adds to one counter per row and its estimate is the smallest of them. Estimates never
+ * undercount; they overcount by at most {@code 2 * total / width} with probability
+ * {@code 1 - 0.5^depth}. Not thread-safe.
+ */
+final class CountMinSketch {
+
+    private final int depth;
+    private final int mask;
+    private final int[] counters;
+
+    CountMinSketch(int depth, int width) {
+        if (depth < 1 || width < 1 || Integer.bitCount(width) != 1) {
+            throw new IllegalArgumentException("depth must be positive and width a power of two: " + depth + "x" + width);
+        }
+        this.depth = depth;
+        this.mask = width - 1;
+        this.counters = new int[depth * width];
+    }
+
+    void add(long hash, int count) {
+        for (int row = 0; row < depth; row++) {
+            int index = row * (mask + 1) + column(hash, row);
+            // Saturate instead of wrapping to negative
+            counters[index] = (int) Math.min((long) counters[index] + count, Integer.MAX_VALUE);
+        }
+    }
+
+    int estimate(long hash) {
+        int estimate = Integer.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters[row * (mask + 1) + column(hash, row)]);
+        }
+        return estimate;
+    }
+
+    void clear() {
+        Arrays.fill(counters, 0);
+    }
+
+    long sizeInBytes() {
+        return 16 + 4L * counters.length;
+    }
+
+    // Row hashes derived from two halves of one 64-bit hash (Kirsch-Mitzenmacher)
+    private int column(long hash, int row) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        return (h1 + row * h2) & mask;
+    }
+
+    /** 64-bit FNV-1a of the key's chars, finished with a murmur mix. */
+    static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,128 @@
+package com.mmtext.searchservice.popularity;
+
+import com.mmtext.searchservice.cache.CacheDependencies;
+import com.mmtext.searchservice.configuration.PopularityProperties;
+import com.mmtext.searchservice.dto.HeavyHitter;
+import com.mmtext.searchservice.dto.MovieSuggestion;
+import com.mmtext.searchservice.dto.TheaterSummary;
+import com.mmtext.searchservice.esdocument.MovieDocument;
+import com.mmtext.searchservice.esdocument.ShowDocument;
+import com.mmtext.searchservice.esdocument.TheaterDocument;
+import com.mmtext.searchservice.service.GeoCells;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * What users search for and look at, counted in memory over a sliding window.
+ *
+ * <ul>
+ *   <li>queries: search texts as typed, only trimmed, so they can be replayed against the cache</li>
+ *   <li>prefixes: normalized type-ahead prefixes ({@code "spider m"})</li>
+ *   <li>nearby: geo searches as {@code cell,radiusBucketKm}, the key the geo cell cache uses</li>
+ *   <li>views: documents returned in result lists ({@code movie:42}, {@code theater:7})</li>
+ *   <li>clicks: documents opened through a detail endpoint</li>
+ * </ul>
+ *
+ * Recording is a few counter increments under a striped lock, nothing is written anywhere.
+ */
+public class SearchPopularity {
+
+    public enum Kind { QUERIES, PREFIXES, NEARBY, VIEWS, CLICKS }
+
+    private final boolean enabled;
+    private final Map<Kind, SlidingHeavyHitters> counters = new EnumMap<>(Kind.class);
+
+    public SearchPopularity(PopularityProperties properties) {
+        this.enabled = properties.isEnabled();
+        for (Kind kind : Kind.values()) {
+            counters.put(kind, counter(properties));
+        }
+    }
+
+    public static Kind kind(String name) {
+        return Kind.valueOf(name.toUpperCase(Locale.ROOT));
+    }
+
+    public void queried(String text) {
+        if (enabled && text != null && !text.isBlank()) {
+            counters.get(Kind.QUERIES).add(text.trim());
+        }
+    }
+
+    public void typed(String prefix) {
+        String normalized = CacheDependencies.normalizePrefix(prefix);
+        if (enabled && !normalized.isEmpty()) {
+            counters.get(Kind.PREFIXES).add(normalized);
+        }
+    }
+
+    public void searchedNearby(double lat, double lon, String distance) {
+        if (enabled) {
+            counters.get(Kind.NEARBY).add(nearbyKey(lat, lon, distance));
+        }
+    }
+
+    /** Nearby searches that share a geohash cell and radius bucket count as one, see {@code GeoCellSearch}. */
+    static String nearbyKey(double lat, double lon, String distance) {
+        double bucketKm = GeoCells.radiusBucketKm(GeoCells.parseKm(distance));
+        return GeoCells.encode(lat, lon, GeoCells.precisionFor(bucketKm)) + "," + bucketKm;
+    }
+
+    public void viewed(Collection<?> results) {
+        if (!enabled || results == null) {
+            return;
+        }
+        for (Object result : results) {
+            String key = keyOf(result);
+            if (key != null) {
+                counters.get(Kind.VIEWS).add(key);
+            }
+        }
+    }
+
+    public void clicked(Object result) {
+        String key = keyOf(result);
+        if (enabled && key != null) {
+            counters.get(Kind.CLICKS).add(key);
+        }
+    }
+
+    public List<HeavyHitter> top(Kind kind, int limit) {
+        return counters.get(kind).top(limit);
+    }
+
+    public long estimate(Kind kind, String key) {
+        return counters.get(kind).estimate(key);
+    }
+
+    private static SlidingHeavyHitters counter(PopularityProperties properties) {
+        return new SlidingHeavyHitters(properties.getStripes(), properties.getBuckets(),
+                Duration.ofMillis(Math.max(properties.getWindow().toMillis() / properties.getBuckets(), 1)),
+                properties.getDepth(), properties.getWidth(), properties.getCandidatesPerStripe(),
+                System::currentTimeMillis);
+    }
+
+    private static String keyOf(Object result) {
+        if (result instanceof MovieDocument movie && movie.getId() != null) {
+            return "movie:" + movie.getId();
+        }
+        if (result instanceof MovieSuggestion suggestion && suggestion.getId() != null) {
+            return "movie:" + suggestion.getId();
+        }
+        if (result instanceof TheaterSummary theater && theater.getId() != null) {
+            return "theater:" + theater.getId();
+        }
+        if (result instanceof TheaterDocument theater && theater.getId() != null) {
+            return "theater:" + theater.getId();
+        }
+        if (result instanceof ShowDocument show && show.getId() != null) {
+            return "show:" + show.getId();
+        }
+        return null;
+    }
+}
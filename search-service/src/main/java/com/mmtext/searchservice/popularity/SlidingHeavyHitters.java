@@ -0,0 +1,174 @@
+package com.mmtext.searchservice.popularity;
+
+import com.mmtext.searchservice.dto.HeavyHitter;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Approximate counts and most frequent keys over a sliding window, in fixed memory.
+ *
+ * The window is a ring of {@code buckets} Count-Min sketches, one per {@code bucketLength};
+ * a slot is cleared lazily when time moves past it, so counts older than the window drop out
+ * one bucket at a time. Next to the sketches, each stripe keeps a bounded set of candidate
+ * keys: a new key enters when the set has room or its estimate beats the smallest candidate,
+ * which it then replaces.
+ *
+ * Keys are spread over {@code stripes} independent stripes by hash, each with its own lock, so
+ * concurrent requests rarely contend and a key's counts all live in one stripe.
+ */
+public class SlidingHeavyHitters {
+
+    private final Stripe[] stripes;
+    private final int stripeMask;
+    private final int buckets;
+    private final long bucketMillis;
+    private final LongSupplier clock;
+
+    public SlidingHeavyHitters(int stripes, int buckets, Duration bucketLength,
+                               int depth, int width, int candidatesPerStripe, LongSupplier clock) {
+        if (stripes < 1 || Integer.bitCount(stripes) != 1 || buckets < 1 || candidatesPerStripe < 1) {
+            throw new IllegalArgumentException("stripes must be a power of two, buckets and candidates positive");
+        }
+        this.stripes = new Stripe[stripes];
+        for (int i = 0; i < stripes; i++) {
+            this.stripes[i] = new Stripe(buckets, depth, width, candidatesPerStripe);
+        }
+        this.stripeMask = stripes - 1;
+        this.buckets = buckets;
+        this.bucketMillis = bucketLength.toMillis();
+        this.clock = clock;
+    }
+
+    public void add(String key) {
+        add(key, 1);
+    }
+
+    public void add(String key, int count) {
+        long hash = CountMinSketch.hash(key);
+        Stripe stripe = stripeOf(hash);
+        long epoch = clock.getAsLong() / bucketMillis;
+        synchronized (stripe) {
+            stripe.advance(epoch, buckets);
+            stripe.slots[(int) (epoch % buckets)].add(hash, count);
+            stripe.offer(key, stripe.estimate(hash));
+        }
+    }
+
+    /** Estimated count of {@code key} within the window, never lower than the true count. */
+    public long estimate(String key) {
+        long hash = CountMinSketch.hash(key);
+        Stripe stripe = stripeOf(hash);
+        synchronized (stripe) {
+            stripe.advance(clock.getAsLong() / bucketMillis, buckets);
+            return stripe.estimate(hash);
+        }
+    }
+
+    /** The {@code limit} most frequent keys of the window, most frequent first. */
+    public List<HeavyHitter> top(int limit) {
+        long epoch = clock.getAsLong() / bucketMillis;
+        List<HeavyHitter> hitters = new ArrayList<>();
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                stripe.advance(epoch, buckets);
+                stripe.candidates.forEach((key, count) -> hitters.add(new HeavyHitter(key, count)));
+            }
+        }
+        hitters.sort(Comparator.comparingLong(HeavyHitter::getCount).reversed()
+                .thenComparing(HeavyHitter::getKey));
+        return hitters.size() > limit ? new ArrayList<>(hitters.subList(0, limit)) : hitters;
+    }
+
+    /** Size of the sketches, the candidate keys not included. */
+    public long sketchBytes() {
+        long bytes = 0;
+        for (Stripe stripe : stripes) {
+            for (CountMinSketch slot : stripe.slots) {
+                bytes += slot.sizeInBytes();
+            }
+        }
+        return bytes;
+    }
+
+    private Stripe stripeOf(long hash) {
+        return stripes[(int) (hash >>> 48) & stripeMask];
+    }
+
+    private static final class Stripe {
+        final CountMinSketch[] slots;
+        final long[] slotEpochs;
+        final Map<String, Long> candidates = new HashMap<>();
+        final int maxCandidates;
+        long epoch = Long.MIN_VALUE;
+
+        Stripe(int buckets, int depth, int width, int maxCandidates) {
+            this.slots = new CountMinSketch[buckets];
+            this.slotEpochs = new long[buckets];
+            for (int i = 0; i < buckets; i++) {
+                slots[i] = new CountMinSketch(depth, width);
+                slotEpochs[i] = Long.MIN_VALUE;
+            }
+            this.maxCandidates = maxCandidates;
+        }
+
+        // Clears the slot of a new bucket and re-counts the candidates without the expired one
+        void advance(long now, int buckets) {
+            if (now <= epoch) {
+                return;
+            }
+            epoch = now;
+            int slot = (int) (now % buckets);
+            if (slotEpochs[slot] != now) {
+                slots[slot].clear();
+                slotEpochs[slot] = now;
+            }
+            Iterator<Map.Entry<String, Long>> iterator = candidates.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<String, Long> candidate = iterator.next();
+                long count = estimate(CountMinSketch.hash(candidate.getKey()));
+                if (count == 0) {
+                    iterator.remove();
+                } else {
+                    candidate.setValue(count);
+                }
+            }
+        }
+
+        long estimate(long hash) {
+            long total = 0;
+            for (int i = 0; i < slots.length; i++) {
+                // A slot last written more than a window ago is stale until it is reused
+                if (slotEpochs[i] > epoch - slots.length) {
+                    total += slots[i].estimate(hash);
+                }
+            }
+            return total;
+        }
+
+        void offer(String key, long count) {
+            if (candidates.containsKey(key) || candidates.size() < maxCandidates) {
+                candidates.put(key, count);
+                return;
+            }
+            String smallest = null;
+            long smallestCount = Long.MAX_VALUE;
+            for (Map.Entry<String, Long> candidate : candidates.entrySet()) {
+                if (candidate.getValue() < smallestCount) {
+                    smallest = candidate.getKey();
+                    smallestCount = candidate.getValue();
+                }
+            }
+            if (count > smallestCount) {
+                candidates.remove(smallest);
+                candidates.put(key, count);
+            }
+        }
+    }
+}
@@ -0,0 +1,291 @@
+package com.mmtext.searchservice.service;
+
+import com.mmtext.searchservice.cache.CacheDependencies;
+import com.mmtext.searchservice.cache.RedisBatchOperations;
+import com.mmtext.searchservice.cache.TwoTierCache;
+import com.mmtext.searchservice.configuration.ThreadFactories;
+import com.mmtext.searchservice.dto.BatchSearchResponse;
+import com.mmtext.searchservice.dto.MovieSuggestion;
+import com.mmtext.searchservice.dto.SearchPage;
+import com.mmtext.searchservice.dto.SearchSpec;
+import com.mmtext.searchservice.esdocument.MovieDocument;
+import com.mmtext.searchservice.suggest.TitleSuggestIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.core.env.Environment;
+import org.springframework.data.elasticsearch.client.elc.NativeQueryBuilder;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.SearchHit;
+import org.springframework.data.elasticsearch.core.SearchHits;
+import org.springframework.data.elasticsearch.core.query.Query;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Answers several searches of one page in a single request.
+ *
+ * The Elasticsearch-backed movie searches ({@code movies}, {@code weighted}) are looked up in
+ * the {@code movies} cache together, L1 first and the rest in one Redis round trip; whatever
+ * is still missing goes to Elasticsearch as one multi-search and is written back to the cache in
+ * one more round trip, under the same keys and dependencies {@link SearchService} would use.
+ * The other searches (suggestions, trending, nearby theaters and shows) are mostly answered from
+ * memory and run concurrently with that on a small pool, or on a virtual thread each in
+ * virtual-thread mode.
+ */
+@Service
+public class BatchSearchService implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(BatchSearchService.class);
+    public static final int MAX_SEARCHES = 20;
+    private static final int THREADS = 4;
+    private static final String MOVIES_CACHE = "movies";
+
+    private final SearchService searchService;
+    private final TrendingService trendingService;
+    private final TitleSuggestIndex titleSuggestIndex;
+    private final CacheManager cacheManager;
+    private final RedisBatchOperations redisBatchOperations;
+    private final ElasticsearchOperations elasticsearchOperations;
+    private final SearchCallExecutor searchCalls;
+    private final ExecutorService executor;
+
+    public BatchSearchService(SearchService searchService, TrendingService trendingService,
+                              TitleSuggestIndex titleSuggestIndex, CacheManager cacheManager,
+                              RedisBatchOperations redisBatchOperations, ElasticsearchOperations elasticsearchOperations,
+                              SearchCallExecutor searchCalls, Environment environment) {
+        this.searchService = searchService;
+        this.trendingService = trendingService;
+        this.titleSuggestIndex = titleSuggestIndex;
+        this.cacheManager = cacheManager;
+        this.redisBatchOperations = redisBatchOperations;
+        this.elasticsearchOperations = elasticsearchOperations;
+        this.searchCalls = searchCalls;
+        // Virtual threads are cheap enough for one per search, Elasticsearch connections bound them
+        this.executor = ThreadFactories.virtual(environment)
+                ? Executors.newThreadPerTaskExecutor(ThreadFactories.named("batch-search-", true))
+                : Executors.newFixedThreadPool(THREADS, ThreadFactories.named("batch-search-", false));
+    }
+
+    public BatchSearchResponse search(List<SearchSpec> specs) {
+        if (specs == null || specs.isEmpty() || specs.size() > MAX_SEARCHES) {
+            throw new IllegalArgumentException("A batch takes 1 to " + MAX_SEARCHES + " searches");
+        }
+        Map<String, SearchSpec> byId = new LinkedHashMap<>();
+        for (int i = 0; i < specs.size(); i++) {
+            SearchSpec spec = specs.get(i);
+            String id = spec.getId() != null ? spec.getId() : String.valueOf(i);
+            if (byId.put(id, spec) != null) {
+                throw new IllegalArgumentException("Duplicate search id: " + id);
+            }
+            validate(id, spec);
+        }
+
+        BatchSearchResponse response = new BatchSearchResponse();
+        Map<String, Object> results = new HashMap<>();
+        Map<String, Future<Object>> running = new HashMap<>();
+        Map<String, SearchSpec> movieSearches = new LinkedHashMap<>();
+        byId.forEach((id, spec) -> {
+            if (isMovieSearch(spec)) {
+                movieSearches.put(id, spec);
+            } else {
+                running.put(id, executor.submit(() -> run(spec)));
+            }
+        });
+
+        try {
+            searchMovies(movieSearches, results, response);
+        } catch (Exception e) {
+            log.warn("Batch movie searches failed: {}", e.getMessage());
+            movieSearches.keySet().forEach(id -> response.getErrors().put(id, e.getMessage()));
+        }
+        running.forEach((id, future) -> {
+            try {
+                results.put(id, future.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                response.getErrors().put(id, "interrupted");
+            } catch (ExecutionException e) {
+                response.getErrors().put(id, e.getCause().getMessage());
+            }
+        });
+
+        byId.keySet().forEach(id -> {
+            if (results.containsKey(id)) {
+                response.getResults().put(id, results.get(id));
+            }
+        });
+        return response;
+    }
+
+    private void searchMovies(Map<String, SearchSpec> searches, Map<String, Object> results,
+                              BatchSearchResponse response) throws Exception {
+        if (searches.isEmpty()) {
+            return;
+        }
+        Map<String, String> keys = new LinkedHashMap<>();
+        searches.forEach((id, spec) -> keys.put(id, cacheKey(spec)));
+        Cache cache = cacheManager.getCache(MOVIES_CACHE);
+        Map<String, Object> cached = cachedValues(cache, new ArrayList<>(new HashSet<>(keys.values())));
+
+        // Searches asking for the same page share one cache key and are searched once
+        Map<String, List<String>> missingIdsByKey = new LinkedHashMap<>();
+        keys.forEach((id, key) -> {
+            Object value = cached.get(key);
+            if (value != null) {
+                results.put(id, value);
+                response.setCacheHits(response.getCacheHits() + 1);
+            } else {
+                missingIdsByKey.computeIfAbsent(key, k -> new ArrayList<>()).add(id);
+            }
+        });
+        if (missingIdsByKey.isEmpty()) {
+            return;
+        }
+
+        List<String> missingKeys = new ArrayList<>(missingIdsByKey.keySet());
+        List<Query> queries = new ArrayList<>(missingKeys.size());
+        for (String key : missingKeys) {
+            SearchSpec spec = searches.get(missingIdsByKey.get(key).get(0));
+            queries.add(SearchService.pageQuery(query(spec).withTimeout(searchCalls.budget("batch")),
+                    page(spec), size(spec), spec.getCursor()));
+        }
+        List<SearchHits<MovieDocument>> responses = searchCalls.call("batch",
+                () -> elasticsearchOperations.multiSearch(queries, MovieDocument.class));
+        response.setSearched(missingKeys.size());
+        Map<String, Object> computed = new HashMap<>();
+        Map<String, Set<String>> computedDependencies = new HashMap<>();
+        for (int i = 0; i < missingKeys.size(); i++) {
+            String key = missingKeys.get(i);
+            List<String> ids = missingIdsByKey.get(key);
+            SearchSpec spec = searches.get(ids.get(0));
+            SearchHits<MovieDocument> hits = responses.get(i);
+            Set<String> dependencies = new HashSet<>();
+            SearchPage<MovieDocument> result = CacheDependencies.capture(() -> {
+                CacheDependencies.recordTokens(spec.getKeyword());
+                return SearchService.toPage(hits, page(spec), size(spec), SearchHit::getContent);
+            }, dependencies);
+            ids.forEach(id -> results.put(id, result));
+            computed.put(key, result);
+            computedDependencies.put(key, dependencies);
+        }
+        writeBack(cache, computed, computedDependencies);
+    }
+
+    // Like LenientCacheErrorHandler: the results are already computed, a failed write is only logged
+    private void writeBack(Cache cache, Map<String, Object> computed, Map<String, Set<String>> dependencies) {
+        try {
+            if (cache instanceof TwoTierCache twoTier) {
+                twoTier.putAll(computed, dependencies);
+            } else if (cache instanceof RedisCache redisCache) {
+                redisBatchOperations.putAll(redisCache, computed);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Cache write of {} batch results failed: {}", computed.size(), e.getMessage());
+        }
+    }
+
+    // Like LenientCacheErrorHandler: a failed read is a miss for every key, Elasticsearch answers
+    private Map<String, Object> cachedValues(Cache cache, List<String> keys) {
+        try {
+            if (cache instanceof TwoTierCache twoTier) {
+                return twoTier.getAll(keys);
+            }
+            if (cache instanceof RedisCache redisCache) {
+                return redisBatchOperations.getAll(redisCache, keys);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Cache read of {} batch keys failed, treating them as misses: {}", keys.size(), e.getMessage());
+        }
+        return Map.of();
+    }
+
+    private Object run(SearchSpec spec) {
+        switch (spec.getType()) {
+            case "suggest": {
+                int size = spec.getSize() != null ? spec.getSize() : SearchService.DEFAULT_SUGGESTIONS;
+                List<MovieSuggestion> suggestions = titleSuggestIndex.suggest(spec.getPrefix(), size);
+                return suggestions != null ? suggestions : searchService.suggestMovies(spec.getPrefix(), size);
+            }
+            case "trending":
+                return trendingService.trendingMovies();
+            case "theaters-nearby":
+                return searchService.searchTheatersNear(spec.getLat(), spec.getLon(), distance(spec),
+                        page(spec), size(spec), spec.getCursor());
+            case "shows-near-now":
+                return searchService.searchShowsNearNow(spec.getLat(), spec.getLon(), distance(spec),
+                        page(spec), size(spec), spec.getCursor());
+            default:
+                throw new IllegalArgumentException("Unknown search type: " + spec.getType());
+        }
+    }
+
+    private static void validate(String id, SearchSpec spec) {
+        String type = spec.getType();
+        if (type == null) {
+            throw new IllegalArgumentException("Search " + id + " has no type");
+        }
+        switch (type) {
+            case "movies", "weighted" -> require(id, "keyword", spec.getKeyword() != null);
+            case "suggest" -> require(id, "prefix", spec.getPrefix() != null);
+            case "theaters-nearby", "shows-near-now" ->
+                    require(id, "lat and lon", spec.getLat() != null && spec.getLon() != null);
+            case "trending" -> {
+            }
+            default -> throw new IllegalArgumentException("Unknown search type of " + id + ": " + type);
+        }
+    }
+
+    private static void require(String id, String what, boolean present) {
+        if (!present) {
+            throw new IllegalArgumentException("Search " + id + " needs " + what);
+        }
+    }
+
+    private static boolean isMovieSearch(SearchSpec spec) {
+        return "movies".equals(spec.getType()) || "weighted".equals(spec.getType());
+    }
+
+    private static String cacheKey(SearchSpec spec) {
+        return "weighted".equals(spec.getType())
+                ? SearchService.weightedSearchKey(spec.getKeyword(), page(spec), size(spec), spec.getCursor())
+                : SearchService.movieSearchKey(spec.getKeyword(), page(spec), size(spec), spec.getCursor());
+    }
+
+    private static NativeQueryBuilder query(SearchSpec spec) {
+        return "weighted".equals(spec.getType())
+                ? SearchService.weightedSearchQuery(spec.getKeyword())
+                : SearchService.movieSearchQuery(spec.getKeyword());
+    }
+
+    private static int page(SearchSpec spec) {
+        return spec.getPage() != null ? spec.getPage() : 0;
+    }
+
+    private static int size(SearchSpec spec) {
+        return spec.getSize() != null ? spec.getSize() : SearchService.DEFAULT_PAGE_SIZE;
+    }
+
+    private static String distance(SearchSpec spec) {
+        return spec.getDistance() != null ? spec.getDistance() : "10km";
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,200 @@
+package com.mmtext.searchservice.service;
+
+import com.mmtext.searchservice.cache.RedisBatchOperations;
+import com.mmtext.searchservice.configuration.ThreadFactories;
+import com.mmtext.searchservice.configuration.WarmupProperties;
+import com.mmtext.searchservice.dto.HeavyHitter;
+import com.mmtext.searchservice.popularity.SearchPopularity;
+import com.mmtext.searchservice.popularity.SearchPopularity.Kind;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.core.env.Environment;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.zset.DefaultTuple;
+import org.springframework.data.redis.connection.zset.Tuple;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Fills the caches with the most popular requests, so the first users after a deploy or a
+ * cache clear do not all pay the Elasticsearch round trip.
+ *
+ * Every {@code recordInterval} the top keys of {@link SearchPopularity} (search texts,
+ * type-ahead prefixes, nearby searches, theater clicks) are written to one Redis sorted set per
+ * kind, scored by count, all kinds in one pipeline. A warm-up reads them back in one pipeline
+ * and replays each as the first page of the matching {@link SearchService} call (nearby
+ * searches as their {@link GeoCellSearch} cell), through the cache proxy, with at most
+ * {@code concurrency} requests in flight. Trending needs no warm-up, it is computed at startup.
+ */
+@Service
+public class CacheWarmer implements ApplicationListener<ApplicationReadyEvent>, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(CacheWarmer.class);
+    private static final Kind[] WARMED = {Kind.QUERIES, Kind.PREFIXES, Kind.NEARBY, Kind.CLICKS};
+
+    private final SearchService searchService;
+    private final GeoCellSearch geoCellSearch;
+    private final SearchPopularity searchPopularity;
+    private final RedisBatchOperations redisBatchOperations;
+    private final WarmupProperties properties;
+    private final AtomicBoolean warming = new AtomicBoolean();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "cache-warmup");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final ExecutorService loaders;
+
+    public CacheWarmer(SearchService searchService, GeoCellSearch geoCellSearch, SearchPopularity searchPopularity,
+                       RedisBatchOperations redisBatchOperations, WarmupProperties properties,
+                       Environment environment) {
+        this.searchService = searchService;
+        this.geoCellSearch = geoCellSearch;
+        this.searchPopularity = searchPopularity;
+        this.redisBatchOperations = redisBatchOperations;
+        this.properties = properties;
+        // Virtual or not, concurrency bounds the searches warming sends at once
+        this.loaders = Executors.newFixedThreadPool(Math.max(properties.getConcurrency(), 1),
+                ThreadFactories.named("cache-warmup-", ThreadFactories.virtual(environment)));
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        scheduler.execute(this::warmUp);
+        long interval = properties.getRecordInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::record, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /** Starts a warm-up in the background, unless one is already running. */
+    public boolean warmUpAsync() {
+        if (!properties.isEnabled() || warming.get()) {
+            return false;
+        }
+        scheduler.execute(this::warmUp);
+        return true;
+    }
+
+    void warmUp() {
+        if (!warming.compareAndSet(false, true)) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            List<Object> recorded = redisBatchOperations.pipelined("warmup-read", WARMED.length,
+                    (RedisCallback<Object>) connection -> {
+                        for (Kind kind : WARMED) {
+                            connection.zSetCommands().zRevRange(rawKey(kind), 0, properties.getMaxKeys() - 1);
+                        }
+                        return null;
+                    });
+            List<Callable<Object>> loads = new ArrayList<>();
+            for (int i = 0; i < WARMED.length && i < recorded.size(); i++) {
+                Kind kind = WARMED[i];
+                if (recorded.get(i) instanceof Collection<?> keys) {
+                    keys.forEach(key -> loads.add(() -> load(kind, String.valueOf(key))));
+                }
+            }
+            int failed = 0;
+            for (Future<Object> load : loaders.invokeAll(loads)) {
+                try {
+                    load.get();
+                } catch (Exception e) {
+                    failed++;
+                }
+            }
+            log.info("Cache warm-up replayed {} keys ({} failed) in {} ms", loads.size(), failed,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.warn("Cache warm-up failed: {}", e.getMessage());
+        } finally {
+            warming.set(false);
+        }
+    }
+
+    private Object load(Kind kind, String key) {
+        switch (kind) {
+            case QUERIES:
+                return searchService.searchMovies(key, 0, SearchService.DEFAULT_PAGE_SIZE, null);
+            case PREFIXES:
+                return searchService.suggestMovies(key, SearchService.DEFAULT_SUGGESTIONS);
+            case NEARBY:
+                String[] parts = key.split(",", 2);
+                return geoCellSearch.theatersAround(parts[0], Double.parseDouble(parts[1]));
+            case CLICKS:
+                return key.startsWith("theater:")
+                        ? searchService.getTheater(Long.parseLong(key.substring("theater:".length())))
+                        : null;
+            default:
+                return null;
+        }
+    }
+
+    // Replicas overwrite each other's counts, close enough for picking what to warm
+    void record() {
+        try {
+            List<Kind> kinds = new ArrayList<>();
+            List<Set<Tuple>> tuples = new ArrayList<>();
+            for (Kind kind : WARMED) {
+                List<HeavyHitter> top = searchPopularity.top(kind, properties.getMaxKeys());
+                if (top.isEmpty()) {
+                    continue;
+                }
+                Set<Tuple> scored = new HashSet<>();
+                top.forEach(hitter -> scored.add(new DefaultTuple(
+                        hitter.getKey().getBytes(StandardCharsets.UTF_8), (double) hitter.getCount())));
+                kinds.add(kind);
+                tuples.add(scored);
+            }
+            if (kinds.isEmpty()) {
+                return;
+            }
+            redisBatchOperations.pipelined("warmup-record", kinds.size() * 3, (RedisCallback<Object>) connection -> {
+                for (int i = 0; i < kinds.size(); i++) {
+                    write(connection, rawKey(kinds.get(i)), tuples.get(i));
+                }
+                return null;
+            });
+        } catch (Exception e) {
+            log.warn("Could not record warm-up keys: {}", e.getMessage());
+        }
+    }
+
+    private void write(RedisConnection connection, byte[] key, Set<Tuple> scored) {
+        connection.zSetCommands().zAdd(key, scored);
+        connection.zSetCommands().zRemRange(key, 0, -properties.getMaxKeys() - 1L);
+        connection.keyCommands().pExpire(key, properties.getKeyTtl().toMillis());
+    }
+
+    private byte[] rawKey(Kind kind) {
+        return (properties.getKeyPrefix() + kind.name().toLowerCase(Locale.ROOT)).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.shutdownNow();
+        loaders.shutdownNow();
+    }
+}
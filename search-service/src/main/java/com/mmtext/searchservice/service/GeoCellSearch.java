@@ -0,0 +1,144 @@
+package com.mmtext.searchservice.service;
+
+import co.elastic.clients.elasticsearch._types.DistanceUnit;
+import co.elastic.clients.elasticsearch._types.SortOptions;
+import co.elastic.clients.elasticsearch._types.SortOrder;
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import com.mmtext.searchservice.dto.TheaterSummary;
+import com.mmtext.searchservice.esdocument.ShowDocument;
+import com.mmtext.searchservice.esdocument.TheaterDocument;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.elasticsearch.client.elc.NativeQuery;
+import org.springframework.data.elasticsearch.client.elc.NativeQueryBuilder;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.SearchHit;
+import org.springframework.data.elasticsearch.core.SearchHits;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Cached candidates of the geo searches, one entry per geohash cell and radius bucket (see
+ * {@link GeoCells}). {@link SearchService} narrows them down to the exact request in memory.
+ *
+ * A separate bean so that the calls from {@link SearchService} go through the cache proxy.
+ * A cell that comes back with {@link #MAX_CELL_CANDIDATES} may have been cut off, so
+ * {@link SearchService} pages the exact queries ({@link #theatersWithinQuery},
+ * {@link #showsWithinQuery}) through Elasticsearch instead.
+ */
+@Service
+public class GeoCellSearch {
+
+    // Candidates come nearest to the cell center first, so a cap drops the far edge of the circle
+    static final int MAX_CELL_CANDIDATES = 1000;
+
+    @Autowired
+    private ElasticsearchOperations elasticsearchOperations;
+
+    @Autowired
+    private SearchCallExecutor searchCalls;
+
+    /** 🗺️ Theaters that may be within {@code radiusKm} of some point of the cell */
+    @Cacheable(value = "theaters", key = "'cell-' + #cell + '-' + #radiusKm", sync = true)
+    public List<TheaterSummary> theatersAround(String cell, double radiusKm) {
+        double[] center = GeoCells.center(cell);
+        double reachKm = radiusKm + GeoCells.halfDiagonalKm(cell);
+        NativeQuery nativeQuery = NativeQuery.builder()
+                .withQuery(withinKm("address.location", center[0], center[1], reachKm))
+                .withSort(byDistance(center[0], center[1]), SearchService.ID_TIEBREAKER)
+                .withSourceFilter(SearchService.THEATER_SUMMARY_SOURCE)
+                .withMaxResults(MAX_CELL_CANDIDATES)
+                .withTimeout(searchCalls.budget("theaters-nearby"))
+                .build();
+
+        List<TheaterSummary> theaters = new ArrayList<>();
+        SearchHits<TheaterDocument> hits = searchCalls.call("theaters-nearby",
+                () -> elasticsearchOperations.search(nativeQuery, TheaterDocument.class));
+        for (SearchHit<TheaterDocument> hit : hits) {
+            theaters.add(SearchService.toSummary(SearchService.recordDependency(hit.getContent()), null));
+        }
+        return theaters;
+    }
+
+    /**
+     * 🎬 Shows that may be within {@code radiusKm} of some point of the cell, starting within
+     * {@code windowMillis} of the slot start
+     */
+    @Cacheable(value = "shows", key = "'cell-' + #cell + '-' + #radiusKm + '-' + #slotStart", sync = true)
+    public List<ShowDocument> showsAround(String cell, double radiusKm, long slotStart, long windowMillis) {
+        double[] center = GeoCells.center(cell);
+        double reachKm = radiusKm + GeoCells.halfDiagonalKm(cell);
+        // Shows carry their theater's location, so no theater lookup is needed first
+        NativeQuery nativeQuery = showsWithinQuery(center[0], center[1], reachKm, slotStart, slotStart + windowMillis)
+                .withMaxResults(MAX_CELL_CANDIDATES)
+                .withTimeout(searchCalls.budget("shows-near-now"))
+                .build();
+
+        List<ShowDocument> shows = new ArrayList<>();
+        SearchHits<ShowDocument> hits = searchCalls.call("shows-near-now",
+                () -> elasticsearchOperations.search(nativeQuery, ShowDocument.class));
+        for (SearchHit<ShowDocument> hit : hits) {
+            shows.add(SearchService.recordDependency(hit.getContent()));
+        }
+        return shows;
+    }
+
+    /** 📍 Nearest theaters without a radius, used while the in-memory grid is not available */
+    public List<TheaterSummary> nearest(double lat, double lon, int k) {
+        NativeQuery nativeQuery = NativeQuery.builder()
+                .withQuery(Query.of(q -> q.matchAll(m -> m)))
+                .withSort(byDistance(lat, lon), SearchService.ID_TIEBREAKER)
+                .withSourceFilter(SearchService.THEATER_SUMMARY_SOURCE)
+                .withMaxResults(k)
+                .withTimeout(searchCalls.budget("theaters-nearest"))
+                .build();
+
+        List<TheaterSummary> theaters = new ArrayList<>();
+        SearchHits<TheaterDocument> hits = searchCalls.call("theaters-nearest",
+                () -> elasticsearchOperations.search(nativeQuery, TheaterDocument.class));
+        // The first sort value is the distance in km
+        for (SearchHit<TheaterDocument> hit : hits) {
+            theaters.add(SearchService.toSummary(hit.getContent(), ((Number) hit.getSortValues().get(0)).doubleValue()));
+        }
+        return theaters;
+    }
+
+    /** Theaters within {@code radiusKm} of the point, nearest first; the first sort value is the distance in km. */
+    static NativeQueryBuilder theatersWithinQuery(double lat, double lon, double radiusKm) {
+        return NativeQuery.builder()
+                .withQuery(withinKm("address.location", lat, lon, radiusKm))
+                .withSort(byDistance(lat, lon), SearchService.ID_TIEBREAKER)
+                .withSourceFilter(SearchService.THEATER_SUMMARY_SOURCE);
+    }
+
+    /** Shows within {@code radiusKm} of the point starting between {@code from} and {@code to}, by show time. */
+    static NativeQueryBuilder showsWithinQuery(double lat, double lon, double radiusKm, long from, long to) {
+        // Epoch millis, so the bounds do not depend on the field's date format
+        Query inWindow = Query.of(q -> q.range(r -> r.date(d -> d
+                .field("showTime")
+                .gte(String.valueOf(from))
+                .lte(String.valueOf(to))
+                .format("epoch_millis"))));
+        Query nearby = withinKm("location", lat, lon, radiusKm);
+        return NativeQuery.builder()
+                .withQuery(Query.of(q -> q.bool(b -> b.filter(nearby, inWindow))))
+                .withSort(SearchService.byShowTime(), SearchService.ID_TIEBREAKER);
+    }
+
+    private static Query withinKm(String field, double lat, double lon, double radiusKm) {
+        return Query.of(q -> q.geoDistance(g -> g
+                .field(field)
+                .location(l -> l.latlon(ll -> ll.lat(lat).lon(lon)))
+                .distance(radiusKm + "km")));
+    }
+
+    private static SortOptions byDistance(double lat, double lon) {
+        return SortOptions.of(s -> s.geoDistance(g -> g
+                .field("address.location")
+                .location(l -> l.latlon(ll -> ll.lat(lat).lon(lon)))
+                .order(SortOrder.Asc)
+                .unit(DistanceUnit.Kilometers)));
+    }
+}
@@ -0,0 +1,166 @@
+package com.mmtext.searchservice.service;
+
+import java.util.Locale;
+
+/**
+ * Geohash cells and distances for the cacheable geo searches.
+ *
+ * A search point is snapped to the geohash cell containing it, the radius is rounded up to a
+ * bucket, and candidates are fetched once per cell and bucket around the cell center with the
+ * cell's half diagonal added to the radius. Every point of the cell is within that distance of
+ * the center, so the candidates cover any search from inside the cell; the exact distance
+ * filter and sort then run in memory.
+ */
+public final class GeoCells {
+
+    private static final String BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz";
+    private static final double EARTH_RADIUS_KM = 6371.0088;
+    // Rounded-up radii, a request for 7km shares the 10km bucket
+    private static final double[] RADIUS_BUCKETS_KM = {0.5, 1, 2, 3, 5, 10, 15, 20, 30, 50, 75, 100, 150, 200, 300, 500};
+    // Approximate east-west extent of a cell at the equator, by precision (index 0 unused)
+    private static final double[] CELL_WIDTH_KM = {40075, 5009, 1252, 156.5, 39.1, 4.89, 1.22, 0.153, 0.038};
+
+    private GeoCells() {
+    }
+
+    public static String encode(double lat, double lon, int precision) {
+        double minLat = -90, maxLat = 90, minLon = -180, maxLon = 180;
+        StringBuilder hash = new StringBuilder(precision);
+        boolean even = true;
+        int bit = 0;
+        int ch = 0;
+        while (hash.length() < precision) {
+            if (even) {
+                double mid = (minLon + maxLon) / 2;
+                if (lon >= mid) {
+                    ch = (ch << 1) | 1;
+                    minLon = mid;
+                } else {
+                    ch <<= 1;
+                    maxLon = mid;
+                }
+            } else {
+                double mid = (minLat + maxLat) / 2;
+                if (lat >= mid) {
+                    ch = (ch << 1) | 1;
+                    minLat = mid;
+                } else {
+                    ch <<= 1;
+                    maxLat = mid;
+                }
+            }
+            even = !even;
+            if (++bit == 5) {
+                hash.append(BASE32.charAt(ch));
+                bit = 0;
+                ch = 0;
+            }
+        }
+        return hash.toString();
+    }
+
+    /** @return {@code {minLat, maxLat, minLon, maxLon}} of the cell */
+    public static double[] bounds(String hash) {
+        double minLat = -90, maxLat = 90, minLon = -180, maxLon = 180;
+        boolean even = true;
+        for (int i = 0; i < hash.length(); i++) {
+            int value = BASE32.indexOf(hash.charAt(i));
+            if (value < 0) {
+                throw new IllegalArgumentException("Invalid geohash: " + hash);
+            }
+            for (int mask = 16; mask > 0; mask >>= 1) {
+                if (even) {
+                    double mid = (minLon + maxLon) / 2;
+                    if ((value & mask) != 0) {
+                        minLon = mid;
+                    } else {
+                        maxLon = mid;
+                    }
+                } else {
+                    double mid = (minLat + maxLat) / 2;
+                    if ((value & mask) != 0) {
+                        minLat = mid;
+                    } else {
+                        maxLat = mid;
+                    }
+                }
+                even = !even;
+            }
+        }
+        return new double[]{minLat, maxLat, minLon, maxLon};
+    }
+
+    /** @return {@code {lat, lon}} of the cell center */
+    public static double[] center(String hash) {
+        double[] bounds = bounds(hash);
+        return new double[]{(bounds[0] + bounds[1]) / 2, (bounds[2] + bounds[3]) / 2};
+    }
+
+    /** Distance from the cell center to its farthest corner. */
+    public static double halfDiagonalKm(String hash) {
+        double[] bounds = bounds(hash);
+        double[] center = center(hash);
+        // Away from the equator the edge nearer the pole is shorter, so check both
+        return Math.max(distanceKm(center[0], center[1], bounds[0], bounds[2]),
+                distanceKm(center[0], center[1], bounds[1], bounds[3]));
+    }
+
+    /** Great-circle (haversine) distance. */
+    public static double distanceKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    public static double radiusBucketKm(double radiusKm) {
+        for (double bucket : RADIUS_BUCKETS_KM) {
+            if (radiusKm <= bucket) {
+                return bucket;
+            }
+        }
+        return Math.ceil(radiusKm / 100) * 100;
+    }
+
+    /** The coarsest precision whose cells are no wider than the radius. */
+    public static int precisionFor(double radiusKm) {
+        for (int precision = 1; precision < CELL_WIDTH_KM.length; precision++) {
+            if (CELL_WIDTH_KM[precision] <= radiusKm) {
+                return precision;
+            }
+        }
+        return CELL_WIDTH_KM.length - 1;
+    }
+
+    /**
+     * Parses an Elasticsearch style distance such as {@code 10km}, {@code 500m} or {@code 3mi}.
+     * A bare number is in meters, as in Elasticsearch.
+     */
+    public static double parseKm(String distance) {
+        String value = distance == null ? "" : distance.trim().toLowerCase(Locale.ROOT);
+        int unitStart = 0;
+        while (unitStart < value.length() && (Character.isDigit(value.charAt(unitStart)) || value.charAt(unitStart) == '.')) {
+            unitStart++;
+        }
+        double amount;
+        try {
+            amount = Double.parseDouble(value.substring(0, unitStart));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid distance: " + distance);
+        }
+        double km = switch (value.substring(unitStart).trim()) {
+            case "km", "kilometers" -> amount;
+            case "", "m", "meters" -> amount / 1000;
+            case "mi", "miles" -> amount * 1.609344;
+            case "yd", "yards" -> amount * 0.0009144;
+            case "ft", "feet" -> amount * 0.0003048;
+            case "nmi", "nauticalmiles" -> amount * 1.852;
+            default -> throw new IllegalArgumentException("Unsupported distance unit: " + distance);
+        };
+        if (km <= 0) {
+            throw new IllegalArgumentException("Distance must be positive: " + distance);
+        }
+        return km;
+    }
+}
@@ -0,0 +1,126 @@
+package com.mmtext.searchservice.service;
+
+import com.mmtext.searchservice.cache.CacheDependencies;
+import com.mmtext.searchservice.cache.TwoTierCache;
+import com.mmtext.searchservice.dto.SearchPage;
+import com.mmtext.searchservice.esdocument.MovieDocument;
+import com.mmtext.searchservice.esdocument.TheaterDocument;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.elasticsearch.client.elc.NativeQueryBuilder;
+import org.springframework.data.elasticsearch.core.ReactiveElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.SearchHit;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.function.Supplier;
+
+/**
+ * Non-blocking variants of the cached {@link SearchService} lookups, for the {@code reactive}
+ * profile. They read and write the same cache entries under the same keys and dependencies, so
+ * both stacks share one cache.
+ *
+ * The cache is read through {@link Cache#retrieve(Object)} (L1, else an async Redis GET) and a
+ * miss goes to Elasticsearch through {@link ReactiveElasticsearchOperations}; no thread waits
+ * on either. Writing the result back goes through the blocking cache API, so it runs after the
+ * response on the bounded elastic scheduler. Unlike {@code @Cacheable(sync = true)} concurrent
+ * misses on one key are not collapsed into one search.
+ */
+@Service
+@Profile("reactive")
+public class ReactiveSearchService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReactiveSearchService.class);
+
+    private final ReactiveElasticsearchOperations reactiveElasticsearchOperations;
+    private final CacheManager cacheManager;
+
+    public ReactiveSearchService(ReactiveElasticsearchOperations reactiveElasticsearchOperations,
+                                 CacheManager cacheManager) {
+        this.reactiveElasticsearchOperations = reactiveElasticsearchOperations;
+        this.cacheManager = cacheManager;
+    }
+
+    /** 🔎 Fuzzy search by movie title, see {@link SearchService#searchMovies} */
+    public Mono<SearchPage<MovieDocument>> searchMovies(String keyword, int page, int size, String cursor) {
+        return cached("movies", SearchService.movieSearchKey(keyword, page, size, cursor),
+                () -> searchPage(SearchService.movieSearchQuery(keyword), keyword, page, size, cursor));
+    }
+
+    /** ⚖️ Weighted multi-field search, see {@link SearchService#weightedSearch} */
+    public Mono<SearchPage<MovieDocument>> weightedSearch(String text, int page, int size, String cursor) {
+        return cached("movies", SearchService.weightedSearchKey(text, page, size, cursor),
+                () -> searchPage(SearchService.weightedSearchQuery(text), text, page, size, cursor));
+    }
+
+    /** 🏛️ Full theater document, see {@link SearchService#getTheater}; empty if there is none */
+    public Mono<TheaterDocument> getTheater(Long id) {
+        return cached("theaters", "detail-" + id, () -> reactiveElasticsearchOperations
+                .get(String.valueOf(id), TheaterDocument.class)
+                .map(theater -> new Computed<>(theater, Set.of("theater:" + id))));
+    }
+
+    private Mono<Computed<SearchPage<MovieDocument>>> searchPage(NativeQueryBuilder query, String text,
+                                                                 int page, int size, String cursor) {
+        return reactiveElasticsearchOperations
+                .searchForHits(SearchService.pageQuery(query, page, size, cursor), MovieDocument.class)
+                .flatMap(hits -> hits.getSearchHits().collectList()
+                        .flatMap(list -> capture(() -> {
+                            CacheDependencies.recordTokens(text);
+                            return SearchService.toPage(list, hits.getTotalHits(), page, size, SearchHit::getContent);
+                        })));
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> Mono<T> cached(String cacheName, String key, Supplier<Mono<Computed<T>>> search) {
+        Cache cache = cacheManager.getCache(cacheName);
+        Mono<T> lookup = Mono.fromFuture(() -> cache.retrieve(key))
+                .map(found -> (T) (found instanceof Cache.ValueWrapper wrapper ? wrapper.get() : found))
+                .onErrorResume(e -> {
+                    // A cache that is down or cannot read asynchronously counts as a miss
+                    log.debug("Reactive cache lookup of {}::{} failed: {}", cacheName, key, e.getMessage());
+                    return Mono.empty();
+                });
+        return lookup.switchIfEmpty(Mono.defer(search).map(computed -> {
+            writeBack(cache, key, computed);
+            return computed.value;
+        }));
+    }
+
+    private static void writeBack(Cache cache, String key, Computed<?> computed) {
+        Mono.fromRunnable(() -> {
+                    if (cache instanceof TwoTierCache twoTier) {
+                        twoTier.put(key, computed.value, computed.dependencies);
+                    } else {
+                        cache.put(key, computed.value);
+                    }
+                })
+                .subscribeOn(Schedulers.boundedElastic())
+                .subscribe(null, e -> log.warn("Could not cache {}::{}: {}", cache.getName(), key, e.getMessage()));
+    }
+
+    private static <T> Mono<Computed<T>> capture(Callable<T> mapping) {
+        return Mono.fromCallable(() -> {
+            Set<String> dependencies = new HashSet<>();
+            T value = CacheDependencies.capture(mapping, dependencies);
+            return new Computed<>(value, dependencies);
+        });
+    }
+
+    private static final class Computed<T> {
+        final T value;
+        final Set<String> dependencies;
+
+        Computed(T value, Set<String> dependencies) {
+            this.value = value;
+            this.dependencies = dependencies;
+        }
+    }
+}
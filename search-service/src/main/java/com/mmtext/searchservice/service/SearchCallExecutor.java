@@ -0,0 +1,255 @@
+package com.mmtext.searchservice.service;
+
+import com.mmtext.searchservice.configuration.LatencyProperties;
+import com.mmtext.searchservice.configuration.ThreadFactories;
+import com.mmtext.searchservice.exception.SearchTimeoutException;
+import com.mmtext.searchservice.exception.SearchUnavailableException;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.data.elasticsearch.UncategorizedElasticsearchException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs the Elasticsearch calls of a request within the latency budget of its endpoint (see
+ * {@link LatencyProperties}): the caller waits at most the budget, then the call is cancelled
+ * and {@link SearchTimeoutException} thrown. With hedging, a read still running after the
+ * endpoint's recent p95 is sent a second time and whichever answers first is used, so one slow
+ * shard copy does not set the tail latency.
+ *
+ * With a {@link SearchCircuitBreaker} calls are not sent at all while the circuit is open, they
+ * fail at once with {@link SearchUnavailableException}. Timeouts, errors and 429s count as
+ * failures, other rejected requests (4xx) do not: they say nothing about the cluster's health.
+ *
+ * Calls run on virtual threads, the client's connection limit bounds how many are in flight.
+ * Only the Elasticsearch call itself should be passed in: cache dependencies are recorded on
+ * the caller's thread, so results are mapped after {@link #call} returns.
+ */
+public class SearchCallExecutor implements DisposableBean {
+
+    private static final long NANOS_PER_MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final LatencyProperties properties;
+    private final SearchCircuitBreaker circuitBreaker;
+    private final ExecutorService executor = Executors.newThreadPerTaskExecutor(ThreadFactories.named("es-call-", true));
+    private final Map<String, EndpointLatency> endpoints = new ConcurrentHashMap<>();
+
+    public SearchCallExecutor(LatencyProperties properties, SearchCircuitBreaker circuitBreaker) {
+        this.properties = properties;
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    /** Budget of the endpoint, also sent as the search's own {@code timeout}. */
+    public Duration budget(String endpoint) {
+        return properties.budgetFor(endpoint);
+    }
+
+    public <T> T call(String endpoint, Callable<T> call) {
+        if (circuitBreaker == null) {
+            return budgeted(endpoint, call);
+        }
+        if (!circuitBreaker.tryAcquire()) {
+            throw new SearchUnavailableException("Elasticsearch circuit is open, search " + endpoint + " not sent");
+        }
+        try {
+            T result = budgeted(endpoint, call);
+            circuitBreaker.onSuccess();
+            return result;
+        } catch (RuntimeException | Error e) {
+            if (countsAsFailure(e)) {
+                circuitBreaker.onFailure();
+            } else {
+                circuitBreaker.onSuccess();
+            }
+            throw e;
+        }
+    }
+
+    /** State of the circuit breaker, {@code null} without one. */
+    public SearchCircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    private <T> T budgeted(String endpoint, Callable<T> call) {
+        if (!properties.isEnabled()) {
+            return direct(call);
+        }
+        EndpointLatency latency = endpoints.computeIfAbsent(endpoint,
+                e -> new EndpointLatency(properties.getHedge().getWindow()));
+        latency.calls.increment();
+        long start = System.nanoTime();
+        long deadline = start + budget(endpoint).toNanos();
+        long hedgeAt = start + hedgeDelayNanos(latency);
+
+        CompletionService<T> completion = new ExecutorCompletionService<>(executor);
+        List<Future<T>> started = new ArrayList<>(2);
+        started.add(completion.submit(timed(call, latency)));
+        try {
+            while (true) {
+                long now = System.nanoTime();
+                if (now >= deadline) {
+                    latency.timeouts.increment();
+                    throw new SearchTimeoutException("Search " + endpoint + " did not answer within "
+                            + budget(endpoint).toMillis() + " ms");
+                }
+                boolean canHedge = started.size() == 1 && hedgeAt > start;
+                Future<T> done = completion.poll((canHedge ? Math.min(deadline, hedgeAt) : deadline) - now,
+                        TimeUnit.NANOSECONDS);
+                if (done != null) {
+                    T result = result(done);
+                    if (started.size() > 1 && done == started.get(1)) {
+                        latency.hedgeWins.increment();
+                    }
+                    return result;
+                }
+                if (canHedge && System.nanoTime() >= hedgeAt) {
+                    latency.hedges.increment();
+                    started.add(completion.submit(timed(call, latency)));
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SearchTimeoutException("Interrupted while waiting for search " + endpoint);
+        } finally {
+            started.forEach(future -> future.cancel(true));
+        }
+    }
+
+    /** Calls, timeouts, hedges and recent latency percentiles per endpoint. */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new TreeMap<>();
+        endpoints.forEach((endpoint, latency) -> {
+            Map<String, Object> endpointStats = new LinkedHashMap<>();
+            endpointStats.put("budgetMillis", budget(endpoint).toMillis());
+            endpointStats.put("calls", latency.calls.sum());
+            endpointStats.put("timeouts", latency.timeouts.sum());
+            endpointStats.put("hedges", latency.hedges.sum());
+            endpointStats.put("hedgeWins", latency.hedgeWins.sum());
+            long[] sorted = latency.sortedSamples();
+            endpointStats.put("p50Millis", percentile(sorted, 0.50) / (double) NANOS_PER_MILLI);
+            endpointStats.put("p95Millis", percentile(sorted, 0.95) / (double) NANOS_PER_MILLI);
+            endpointStats.put("p99Millis", percentile(sorted, 0.99) / (double) NANOS_PER_MILLI);
+            stats.put(endpoint, endpointStats);
+        });
+        return stats;
+    }
+
+    // 0 when not hedging
+    private long hedgeDelayNanos(EndpointLatency latency) {
+        LatencyProperties.Hedge hedge = properties.getHedge();
+        if (!hedge.isEnabled()) {
+            return 0;
+        }
+        long[] sorted = latency.sortedSamples();
+        if (sorted.length == 0 || sorted.length < hedge.getMinSamples()) {
+            return 0;
+        }
+        return Math.max(percentile(sorted, hedge.getPercentile()), hedge.getMinDelay().toNanos());
+    }
+
+    private static boolean countsAsFailure(Throwable e) {
+        if (e instanceof UncategorizedElasticsearchException elasticsearch && elasticsearch.getStatusCode() != null) {
+            int status = elasticsearch.getStatusCode();
+            return status < 400 || status >= 500 || status == 429;
+        }
+        return true;
+    }
+
+    private static <T> Callable<T> timed(Callable<T> call, EndpointLatency latency) {
+        return () -> {
+            long start = System.nanoTime();
+            T result = call.call();
+            latency.record(System.nanoTime() - start);
+            return result;
+        };
+    }
+
+    private static <T> T result(Future<T> done) throws InterruptedException {
+        try {
+            return done.get();
+        } catch (ExecutionException e) {
+            // A failing call is not retried, hedging is only for slow ones
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private static <T> T direct(Callable<T> call) {
+        try {
+            return call.call();
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static long percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.min(Math.max(index, 0), sorted.length - 1)];
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    private static final class EndpointLatency {
+        // Sorting the window again on every call would cost more than it helps
+        private static final int RESORT_EVERY = 32;
+
+        final LongAdder calls = new LongAdder();
+        final LongAdder timeouts = new LongAdder();
+        final LongAdder hedges = new LongAdder();
+        final LongAdder hedgeWins = new LongAdder();
+        private final long[] samples;
+        private int next;
+        private int count;
+        private int sinceSort;
+        private long[] sorted = new long[0];
+
+        EndpointLatency(int window) {
+            this.samples = new long[Math.max(window, 1)];
+        }
+
+        synchronized void record(long nanos) {
+            samples[next] = nanos;
+            next = (next + 1) % samples.length;
+            count = Math.min(count + 1, samples.length);
+            sinceSort++;
+        }
+
+        synchronized long[] sortedSamples() {
+            // While the window is small every sample counts, and sorting it is cheap
+            if (sinceSort > 0 && (sinceSort >= RESORT_EVERY || sorted.length < RESORT_EVERY)) {
+                sorted = Arrays.copyOf(samples, count);
+                Arrays.sort(sorted);
+                sinceSort = 0;
+            }
+            return sorted;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.mmtext.searchservice.service;
+
+import com.mmtext.searchservice.configuration.CircuitBreakerProperties;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Count-based circuit breaker over all Elasticsearch calls of the request path, they share one
+ * cluster. Closed, it records whether each call failed and opens once the failure rate of the
+ * last {@code window} calls reaches the threshold. Open, it rejects every call until
+ * {@code openDuration} has passed, then lets a single probe through (half-open): its success
+ * closes the circuit, its failure opens it for another {@code openDuration}.
+ */
+public class SearchCircuitBreaker {
+
+    public enum State {CLOSED, OPEN, HALF_OPEN}
+
+    private final CircuitBreakerProperties properties;
+    private final boolean[] outcomes;
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder opened = new LongAdder();
+    private int next;
+    private int count;
+    private int failures;
+    private State state = State.CLOSED;
+    private long openedAt;
+    private boolean probing;
+
+    public SearchCircuitBreaker(CircuitBreakerProperties properties) {
+        this.properties = properties;
+        this.outcomes = new boolean[Math.max(properties.getWindow(), 1)];
+    }
+
+    /** Whether a call may be sent now; every permitted call must be followed by exactly one outcome. */
+    public synchronized boolean tryAcquire() {
+        if (state == State.OPEN && System.nanoTime() - openedAt >= properties.getOpenDuration().toNanos()) {
+            state = State.HALF_OPEN;
+            probing = false;
+        }
+        if (state == State.CLOSED || state == State.HALF_OPEN && !probing) {
+            probing = state == State.HALF_OPEN;
+            return true;
+        }
+        rejected.increment();
+        return false;
+    }
+
+    public synchronized void onSuccess() {
+        if (state == State.HALF_OPEN) {
+            close();
+        } else if (state == State.CLOSED) {
+            record(false);
+        }
+    }
+
+    public synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            open();
+        } else if (state == State.CLOSED) {
+            record(true);
+            if (count >= properties.getMinimumCalls()
+                    && failures >= properties.getFailureRateThreshold() * count) {
+                open();
+            }
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public synchronized Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("state", state);
+        stats.put("recentCalls", count);
+        stats.put("recentFailures", failures);
+        stats.put("failureRate", count > 0 ? failures / (double) count : 0);
+        stats.put("timesOpened", opened.sum());
+        stats.put("rejectedCalls", rejected.sum());
+        return stats;
+    }
+
+    private void record(boolean failed) {
+        if (count == outcomes.length) {
+            if (outcomes[next]) {
+                failures--;
+            }
+        } else {
+            count++;
+        }
+        outcomes[next] = failed;
+        if (failed) {
+            failures++;
+        }
+        next = (next + 1) % outcomes.length;
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAt = System.nanoTime();
+        probing = false;
+        opened.increment();
+    }
+
+    // Starts over with an empty window, the failures that opened the circuit are history
+    private void close() {
+        state = State.CLOSED;
+        probing = false;
+        next = 0;
+        count = 0;
+        failures = 0;
+    }
+}
@@ -0,0 +1,40 @@
+package com.mmtext.searchservice.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Encodes the sort values of the last hit of a page into a URL-safe cursor for {@code search_after}.
+ */
+public final class SearchCursor {
+
+    // Plain mapper on purpose: the Redis cache mapper would add type ids to the sort values
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private SearchCursor() {
+    }
+
+    public static String encode(List<Object> sortValues) {
+        if (sortValues == null || sortValues.isEmpty()) {
+            return null;
+        }
+        try {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(MAPPER.writeValueAsBytes(sortValues));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot encode search cursor " + sortValues, e);
+        }
+    }
+
+    public static List<Object> decode(String cursor) {
+        try {
+            return MAPPER.readValue(Base64.getUrlDecoder().decode(cursor), new TypeReference<>() {
+            });
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Invalid search cursor: " + cursor, e);
+        }
+    }
+}
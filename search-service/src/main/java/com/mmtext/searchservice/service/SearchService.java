@@ -1,39 +1,102 @@
 package com.mmtext.searchservice.service;
 
 import co.elastic.clients.elasticsearch._types.FieldValue;
+import co.elastic.clients.elasticsearch._types.SortOptions;
+import co.elastic.clients.elasticsearch._types.SortOrder;
 import co.elastic.clients.elasticsearch._types.query_dsl.Query;
 import co.elastic.clients.elasticsearch._types.query_dsl.TextQueryType;
+import co.elastic.clients.elasticsearch.core.search.Suggester;
 
+import com.mmtext.searchservice.cache.CacheDependencies;
+import com.mmtext.searchservice.dto.MovieSuggestion;
+import com.mmtext.searchservice.dto.SearchPage;
+import com.mmtext.searchservice.dto.TheaterSummary;
+import com.mmtext.searchservice.esdocument.AddressDocument;
 import com.mmtext.searchservice.esdocument.MovieDocument;
 import com.mmtext.searchservice.esdocument.ShowDocument;
 import com.mmtext.searchservice.esdocument.TheaterDocument;
+import com.mmtext.searchservice.geo.TheaterSpatialIndex;
+import com.mmtext.searchservice.geo.UpcomingShowIndex;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Sort;
 import org.springframework.data.elasticsearch.client.elc.NativeQuery;
+import org.springframework.data.elasticsearch.client.elc.NativeQueryBuilder;
 import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
 import org.springframework.data.elasticsearch.core.SearchHit;
+import org.springframework.data.elasticsearch.core.SearchHits;
+import org.springframework.data.elasticsearch.core.query.FetchSourceFilter;
+import org.springframework.data.elasticsearch.core.query.SourceFilter;
+import org.springframework.data.elasticsearch.core.suggest.response.CompletionSuggestion;
+import org.springframework.data.elasticsearch.core.suggest.response.Suggest;
 import org.springframework.stereotype.Service;
 
 import java.time.OffsetDateTime;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
 @Service
 public class SearchService {
 
     private static final Logger log = LoggerFactory.getLogger(SearchService.class);
+
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+    public static final int DEFAULT_SUGGESTIONS = 10;
+    public static final int MAX_SUGGESTIONS = 20;
+
+    // Unique per document, keeps search_after stable when the primary sort ties
+    static final SortOptions ID_TIEBREAKER = SortOptions.of(s -> s.field(f -> f.field("id").order(SortOrder.Asc)));
+    private static final SortOptions BY_SCORE = SortOptions.of(s -> s.score(sc -> sc.order(SortOrder.Desc)));
+
+    // List endpoints never ship the nested shows; full documents come from the detail lookups
+    static final SourceFilter MOVIE_LIST_SOURCE = FetchSourceFilter.of(b -> b.withExcludes("shows", "suggest"));
+    private static final SourceFilter SUGGESTION_SOURCE = FetchSourceFilter.of(b -> b.withIncludes("id", "title"));
+    private static final String TITLE_SUGGESTER = "title";
+    static final SourceFilter THEATER_SUMMARY_SOURCE =
+            FetchSourceFilter.of(b -> b.withIncludes("id", "address.city", "address.location"));
+
+    private static final long NEAR_NOW_MILLIS = TimeUnit.HOURS.toMillis(2);
+    private static final long SHOW_SLOT_MILLIS = UpcomingShowIndex.SLOT_MILLIS;
+
     @Autowired
     private ElasticsearchOperations elasticsearchOperations;
 
+    @Autowired
+    private GeoCellSearch geoCellSearch;
+
+    @Autowired
+    private SearchCallExecutor searchCalls;
+
+    @Autowired
+    private TheaterSpatialIndex theaterSpatialIndex;
+
+    @Autowired
+    private UpcomingShowIndex upcomingShowIndex;
+
     /** 🔎 Fuzzy search by movie title */
-    @Cacheable(value = "movies", key = "#keyword")
-    public List<MovieDocument> searchMovies(String keyword) {
+    @Cacheable(value = "movies", key = "#keyword + '-' + #page + '-' + #size + '-' + #cursor", sync = true)
+    public SearchPage<MovieDocument> searchMovies(String keyword, int page, int size, String cursor) {
         log.info("Fetching from Elasticsearch (no cache) for keyword: {}", keyword);
+        CacheDependencies.recordTokens(keyword);
+        return searchPage("movies", movieSearchQuery(keyword), MovieDocument.class, page, size, cursor);
+    }
+
+    /** Cache key of {@link #searchMovies}, for callers reading the cache directly. */
+    static String movieSearchKey(String keyword, int page, int size, String cursor) {
+        return keyword + "-" + page + "-" + size + "-" + cursor;
+    }
+
+    static NativeQueryBuilder movieSearchQuery(String keyword) {
         Query query = Query.of(q -> q
                 .multiMatch(m -> m
                         .query(keyword)
@@ -43,43 +106,47 @@ public class SearchService {
                 )
         );
 
-        NativeQuery nativeQuery = NativeQuery.builder()
+        return NativeQuery.builder()
                 .withQuery(query)
-                .build();
+                .withSort(BY_SCORE, ID_TIEBREAKER)
+                .withSourceFilter(MOVIE_LIST_SOURCE);
+    }
 
-        return elasticsearchOperations.search(nativeQuery, MovieDocument.class)
-                .map(SearchHit::getContent)
-                .toList();
-    }
-
-    /** 🏠 Theaters near a geo point */
-    @Cacheable(value = "theaters", key = "#lat + '-' + #lon + '-' + #distance")
-    public List<TheaterDocument> searchTheatersNear(double lat, double lon, String distance) {
-        Query geoQuery = Query.of(q -> q
-                .geoDistance(g -> g
-                        .field("address.location")
-                        .location(l -> l
-                                .latlon(ll -> ll
-                                        .lat(lat)
-                                        .lon(lon)
-                                )
-                        )
-                        .distance(distance)
-                )
-        );
+    /**
+     * 🏠 Theaters near a geo point, nearest first (in-memory grid, else candidates cached per geohash
+     * cell, else paged through Elasticsearch when the cell is at the candidate cap)
+     */
+    public SearchPage<TheaterSummary> searchTheatersNear(double lat, double lon, String distance,
+                                                        int page, int size, String cursor) {
+        double radiusKm = GeoCells.parseKm(distance);
+        List<TheaterSummary> theaters = theatersWithin(lat, lon, radiusKm);
+        if (theaters == null) {
+            // The sort value is the distance, so the cursor matches the in-memory pages
+            return searchPage("theaters-nearby", GeoCellSearch.theatersWithinQuery(lat, lon, radiusKm),
+                    TheaterDocument.class, page, size, cursor,
+                    hit -> toSummary(hit.getContent(), ((Number) hit.getSortValues().get(0)).doubleValue()));
+        }
+        return memoryPage(theaters, TheaterSummary::getDistanceKm, TheaterSummary::getId, page, size, cursor);
+    }
 
-        NativeQuery nativeQuery = NativeQuery.builder()
-                .withQuery(geoQuery)
-                .build();
+    /** 📍 The k theaters nearest to a geo point, at any distance */
+    public List<TheaterSummary> nearestTheaters(double lat, double lon, int k) {
+        int limit = Math.min(Math.max(k, 1), MAX_PAGE_SIZE);
+        List<TheaterSummary> theaters = theaterSpatialIndex.nearest(lat, lon, limit);
+        return theaters != null ? theaters : geoCellSearch.nearest(lat, lon, limit);
+    }
 
-        return elasticsearchOperations.search(nativeQuery, TheaterDocument.class)
-                .map(SearchHit::getContent)
-                .toList();
+    /** 🏛️ Full theater document, including address and shows (a missing theater is not cached) */
+    @Cacheable(value = "theaters", key = "'detail-' + #id", sync = true)
+    public TheaterDocument getTheater(Long id) {
+        CacheDependencies.record("theater:" + id);
+        return searchCalls.call("theater", () -> elasticsearchOperations.get(String.valueOf(id), TheaterDocument.class));
     }
 
     /** 🎭 Find theaters showing a given movie */
-    @Cacheable(value = "theaters", key = "'movie-' + #movieTitle")
-    public List<TheaterDocument> searchTheatersByMovie(String movieTitle) {
+    @Cacheable(value = "theaters", key = "'movie-' + #movieTitle + '-' + #page + '-' + #size + '-' + #cursor", sync = true)
+    public SearchPage<TheaterSummary> searchTheatersByMovie(String movieTitle, int page, int size, String cursor) {
+        CacheDependencies.recordTokens(movieTitle);
         Query nestedQuery = Query.of(q -> q
                 .nested(n -> n
                         .path("shows.movie")
@@ -93,21 +160,23 @@ public class SearchService {
                 )
         );
 
-        NativeQuery nativeQuery = NativeQuery.builder()
+        NativeQueryBuilder nativeQuery = NativeQuery.builder()
                 .withQuery(nestedQuery)
-                .build();
+                .withSort(BY_SCORE, ID_TIEBREAKER)
+                .withSourceFilter(THEATER_SUMMARY_SOURCE);
 
-        return elasticsearchOperations.search(nativeQuery, TheaterDocument.class)
-                .map(SearchHit::getContent)
-                .toList();
+        return searchPage("theaters-by-movie", nativeQuery, TheaterDocument.class, page, size, cursor,
+                hit -> toSummary(hit.getContent(), null));
     }
 
     /** 💰 Filter shows by ticket price and movie */
-    @Cacheable(value = "shows", key = "#movieTitle + '-' + #minPrice + '-' + #maxPrice")
-    public List<ShowDocument> searchShows(String movieTitle, int minPrice, int maxPrice) {
+    @Cacheable(value = "shows", key = "#movieTitle + '-' + #minPrice + '-' + #maxPrice + '-' + #page + '-' + #size + '-' + #cursor", sync = true)
+    public SearchPage<ShowDocument> searchShows(String movieTitle, int minPrice, int maxPrice,
+                                                int page, int size, String cursor) {
+        CacheDependencies.recordTokens(movieTitle);
         Query matchQuery = Query.of(q -> q
                 .match(m -> m
-                        .field("movie.title")
+                        .field("movieTitle")
                         .query(FieldValue.of(movieTitle))
                 )
         );
@@ -129,42 +198,97 @@ public class SearchService {
                 )
         );
 
-        NativeQuery nativeQuery = NativeQuery.builder()
+        NativeQueryBuilder nativeQuery = NativeQuery.builder()
                 .withQuery(boolQuery)
-                .build();
+                .withSort(BY_SCORE, ID_TIEBREAKER);
 
-        return elasticsearchOperations.search(nativeQuery, ShowDocument.class)
-                .map(SearchHit::getContent)
-                .toList();
+        return searchPage("shows", nativeQuery, ShowDocument.class, page, size, cursor);
     }
 
-    /** 🔮 Autocomplete for movie titles */
-    @Cacheable(value = "movies", key = "'autocomplete-' + #prefix")
-    public List<MovieDocument> autocompleteMovie(String prefix) {
+    /** 🔮 Autocomplete for movie titles (full documents, paged; {@link #suggestMovies} is the fast path) */
+    @Cacheable(value = "movies", key = "'autocomplete-' + #prefix + '-' + #page + '-' + #size + '-' + #cursor", sync = true)
+    public SearchPage<MovieDocument> autocompleteMovie(String prefix, int page, int size, String cursor) {
+        CacheDependencies.record("prefix:" + prefix.toLowerCase(Locale.ROOT));
         Query prefixQuery = Query.of(q -> q
                 .prefix(p -> p
                         .field("title.keyword")
-                        .value(prefix.toLowerCase())
+                        .value(prefix)
+                        .caseInsensitive(true)
                 )
         );
 
-        NativeQuery nativeQuery = NativeQuery.builder()
+        NativeQueryBuilder nativeQuery = NativeQuery.builder()
                 .withQuery(prefixQuery)
-                .build();
+                .withSort(BY_SCORE, ID_TIEBREAKER)
+                .withSourceFilter(MOVIE_LIST_SOURCE);
 
-        return elasticsearchOperations.search(nativeQuery, MovieDocument.class)
-                .map(SearchHit::getContent)
-                .toList();
+        return searchPage("autocomplete", nativeQuery, MovieDocument.class, page, size, cursor);
+    }
+
+    /** 💡 Ranked title suggestions from the completion field, cached per normalized prefix */
+    @Cacheable(value = "suggest",
+            key = "T(com.mmtext.searchservice.cache.CacheDependencies).normalizePrefix(#prefix) + '-' + #size",
+            sync = true)
+    public List<MovieSuggestion> suggestMovies(String prefix, int size) {
+        String normalized = CacheDependencies.normalizePrefix(prefix);
+        if (normalized.isEmpty()) {
+            return new ArrayList<>();
+        }
+        CacheDependencies.record(CacheDependencies.SUGGEST + normalized);
+        int limit = Math.min(Math.max(size, 1), MAX_SUGGESTIONS);
+
+        // Twice the limit, a movie can match through several of its inputs and gets re-ranked below
+        NativeQuery nativeQuery = NativeQuery.builder()
+                .withSuggester(Suggester.of(s -> s.suggesters(TITLE_SUGGESTER, f -> f
+                        .prefix(normalized)
+                        .completion(c -> c.field("suggest").size(limit * 2).skipDuplicates(true)))))
+                .withSourceFilter(SUGGESTION_SOURCE)
+                .withMaxResults(0)
+                .withTimeout(searchCalls.budget("suggest"))
+                .build();
+        Suggest suggest = searchCalls.call("suggest",
+                () -> elasticsearchOperations.search(nativeQuery, MovieDocument.class).getSuggest());
+
+        List<MovieSuggestion> suggestions = new ArrayList<>();
+        Suggest.Suggestion<?> suggestion = suggest != null ? suggest.getSuggestion(TITLE_SUGGESTER) : null;
+        if (suggestion != null) {
+            Set<Long> seen = new HashSet<>();
+            for (Suggest.Suggestion.Entry<?> entry : suggestion.getEntries()) {
+                for (Suggest.Suggestion.Entry.Option option : entry.getOptions()) {
+                    if (option instanceof CompletionSuggestion.Entry.Option<?> completion
+                            && completion.getSearchHit() != null
+                            && completion.getSearchHit().getContent() instanceof MovieDocument movie
+                            && seen.add(movie.getId())) {
+                        recordDependency(movie);
+                        suggestions.add(new MovieSuggestion(movie.getId(), movie.getTitle(), option.getScore()));
+                    }
+                }
+            }
+        }
+        suggestions.sort(bySuggestionRank(normalized));
+        return new ArrayList<>(suggestions.subList(0, Math.min(limit, suggestions.size())));
     }
 
     @Cacheable(value = "movies",
-            key = "'advanced-' + #keyword + '-' + #language + '-' + #genre + '-' + #minRating + '-' + #sortBy + '-' + #desc")
-    public List<MovieDocument> searchMoviesAdvanced(String keyword, String language, String genre,
-                                                    Double minRating, String sortBy, boolean desc) {
+            key = "'advanced-' + #keyword + '-' + #language + '-' + #genre + '-' + #minRating + '-' + #sortBy + '-' + #desc"
+                    + " + '-' + #page + '-' + #size + '-' + #cursor", sync = true)
+    public SearchPage<MovieDocument> searchMoviesAdvanced(String keyword, String language, String genre,
+                                                          Double minRating, String sortBy, boolean desc,
+                                                          int page, int size, String cursor) {
 
         List<Query> mustQueries = new ArrayList<>();
         List<Query> filterQueries = new ArrayList<>();
 
+        // Without text to match, a change to any movie can move it into these results
+        if (keyword != null && !keyword.isEmpty()) {
+            CacheDependencies.recordTokens(keyword);
+        } else if (language != null || genre != null) {
+            CacheDependencies.recordTokens(language);
+            CacheDependencies.recordTokens(genre);
+        } else {
+            CacheDependencies.record(CacheDependencies.ANY_MOVIE);
+        }
+
         if (keyword != null && !keyword.isEmpty()) {
             mustQueries.add(Query.of(q -> q.multiMatch(m -> m
                     .query(keyword)
@@ -205,21 +329,24 @@ public class SearchService {
             return b;
         }));
 
-        NativeQuery nativeQuery = new NativeQuery(boolQuery);
+        NativeQueryBuilder nativeQuery = NativeQuery.builder()
+                .withQuery(boolQuery)
+                .withSourceFilter(MOVIE_LIST_SOURCE);
 
         if (sortBy != null && !sortBy.isEmpty()) {
-            Sort.Direction direction = desc ? Sort.Direction.DESC : Sort.Direction.ASC;
-            nativeQuery.addSort(Sort.by(new Sort.Order(direction, sortBy)));
+            SortOrder order = desc ? SortOrder.Desc : SortOrder.Asc;
+            nativeQuery.withSort(SortOptions.of(s -> s.field(f -> f.field(sortBy).order(order))), ID_TIEBREAKER);
+        } else {
+            nativeQuery.withSort(BY_SCORE, ID_TIEBREAKER);
         }
 
-        return elasticsearchOperations.search(nativeQuery, MovieDocument.class)
-                .map(SearchHit::getContent)
-                .toList();
+        return searchPage("advanced", nativeQuery, MovieDocument.class, page, size, cursor);
     }
 
     /** 📅 Filter shows within a given time range */
-    @Cacheable(value = "shows", key = "'daterange-' + #start + '-' + #end")
-    public List<ShowDocument> searchShowsByDateRange(OffsetDateTime start, OffsetDateTime end) {
+    @Cacheable(value = "shows", key = "'daterange-' + #start + '-' + #end + '-' + #page + '-' + #size + '-' + #cursor", sync = true)
+    public SearchPage<ShowDocument> searchShowsByDateRange(OffsetDateTime start, OffsetDateTime end,
+                                                           int page, int size, String cursor) {
         Query rangeQuery = Query.of(q -> q
                 .range(r -> r
                         .date(d -> d
@@ -234,60 +361,75 @@ public class SearchService {
                 .bool(b -> b.filter(rangeQuery))
         );
 
-        NativeQuery nativeQuery = NativeQuery.builder()
+        NativeQueryBuilder nativeQuery = NativeQuery.builder()
                 .withQuery(boolQuery)
-                .build();
+                .withSort(byShowTime(), ID_TIEBREAKER);
 
-        return elasticsearchOperations.search(nativeQuery, ShowDocument.class)
-                .map(SearchHit::getContent)
-                .toList();
+        // Any new or moved show can fall into the range, not just the ones on this page
+        CacheDependencies.record(CacheDependencies.ANY_SHOW);
+        return searchPage("shows-by-date", nativeQuery, ShowDocument.class, page, size, cursor);
     }
 
-    /** ⏰ Shows near user location within next 2 hours - NOT CACHED (time-sensitive) */
-    public List<ShowDocument> searchShowsNearNow(double lat, double lon, String distanceKm) {
-        OffsetDateTime now = OffsetDateTime.now();
-        OffsetDateTime nextTwoHours = now.plusHours(2);
-
-        Query timeRangeQuery = Query.of(q -> q.range(r -> r.date(d -> d
-                .field("showTime")
-                .gte(now.toString())
-                .lte(nextTwoHours.toString())
-        )));
-
-        Query geoQuery = Query.of(q -> q.geoDistance(g -> g
-                .field("theater.address.location")
-                .location(l -> l.latlon(ll -> ll.lat(lat).lon(lon)))
-                .distance(distanceKm)
-        ));
+    /**
+     * ⏰ Shows near user location within next 2 hours, from the in-memory slot buckets. Without
+     * them the cell's shows are cached per {@code SHOW_SLOT_MILLIS} slot, fetched for the slot
+     * start plus two hours and a slot; a cell at the candidate cap is paged through Elasticsearch.
+     */
+    public SearchPage<ShowDocument> searchShowsNearNow(double lat, double lon, String distanceKm,
+                                                       int page, int size, String cursor) {
+        double radiusKm = GeoCells.parseKm(distanceKm);
+        long now = System.currentTimeMillis();
+        List<ShowDocument> shows = upcomingShowIndex.upcoming(lat, lon, radiusKm, now, now + NEAR_NOW_MILLIS);
+        if (shows == null) {
+            shows = showsNearNowFromCells(lat, lon, radiusKm, now);
+        }
+        if (shows == null) {
+            return searchPage("shows-near-now", GeoCellSearch.showsWithinQuery(lat, lon, radiusKm, now, now + NEAR_NOW_MILLIS),
+                    ShowDocument.class, page, size, cursor);
+        }
+        return memoryPage(shows, show -> (double) show.getShowTime().toInstant().toEpochMilli(),
+                ShowDocument::getId, page, size, cursor);
+    }
 
-        Query boolQuery = Query.of(q -> q.bool(b -> b.filter(timeRangeQuery, geoQuery)));
+    private List<ShowDocument> showsNearNowFromCells(double lat, double lon, double radiusKm, long now) {
+        double bucketKm = GeoCells.radiusBucketKm(radiusKm);
+        String cell = GeoCells.encode(lat, lon, GeoCells.precisionFor(bucketKm));
 
-        NativeQuery nativeQuery = new NativeQuery(boolQuery);
-        nativeQuery.addSort(Sort.by(Sort.Order.asc("showTime")));
+        long slotStart = now - now % SHOW_SLOT_MILLIS;
+        List<ShowDocument> candidates =
+                geoCellSearch.showsAround(cell, bucketKm, slotStart, NEAR_NOW_MILLIS + SHOW_SLOT_MILLIS);
+        if (candidates.size() >= GeoCellSearch.MAX_CELL_CANDIDATES) {
+            return null;
+        }
 
-        return elasticsearchOperations.search(nativeQuery, ShowDocument.class)
-                .map(SearchHit::getContent)
-                .toList();
+        List<ShowDocument> shows = new ArrayList<>();
+        for (ShowDocument show : candidates) {
+            if (show.getShowTime() == null || show.getLocation() == null
+                    || GeoCells.distanceKm(lat, lon, show.getLocation().getLat(), show.getLocation().getLon()) > radiusKm) {
+                continue;
+            }
+            long startsAt = show.getShowTime().toInstant().toEpochMilli();
+            if (startsAt >= now && startsAt <= now + NEAR_NOW_MILLIS) {
+                shows.add(show);
+            }
+        }
+        // Already in (showTime, id) order from the cell query
+        return shows;
     }
 
-    /** 🔥 Trending movies based on number of shows */
-    @Cacheable(value = "trending", key = "'movies'")
-    public List<MovieDocument> trendingMovies() {
-        Query matchAllQuery = Query.of(q -> q.matchAll(m -> m));
-
-        NativeQuery nativeQuery = NativeQuery.builder()
-                .withQuery(matchAllQuery)
-                .withPageable(PageRequest.of(0, 10))
-                .build();
+    /** ⚖️ Weighted multi-field search (for best ranking) */
+    @Cacheable(value = "movies", key = "'weighted-' + #text + '-' + #page + '-' + #size + '-' + #cursor", sync = true)
+    public SearchPage<MovieDocument> weightedSearch(String text, int page, int size, String cursor) {
+        CacheDependencies.recordTokens(text);
+        return searchPage("weighted", weightedSearchQuery(text), MovieDocument.class, page, size, cursor);
+    }
 
-        return elasticsearchOperations.search(nativeQuery, MovieDocument.class)
-                .map(SearchHit::getContent)
-                .toList();
+    /** Cache key of {@link #weightedSearch}, for callers reading the cache directly. */
+    static String weightedSearchKey(String text, int page, int size, String cursor) {
+        return "weighted-" + text + "-" + page + "-" + size + "-" + cursor;
     }
 
-    /** ⚖️ Weighted multi-field search (for best ranking) */
-    @Cacheable(value = "movies", key = "'weighted-' + #text")
-    public List<MovieDocument> weightedSearch(String text) {
+    static NativeQueryBuilder weightedSearchQuery(String text) {
         Query query = Query.of(q -> q
                 .multiMatch(m -> m
                         .query(text)
@@ -297,17 +439,14 @@ public class SearchService {
                 )
         );
 
-        NativeQuery nativeQuery = NativeQuery.builder()
+        return NativeQuery.builder()
                 .withQuery(query)
-                .build();
-
-        return elasticsearchOperations.search(nativeQuery, MovieDocument.class)
-                .map(SearchHit::getContent)
-                .toList();
+                .withSort(BY_SCORE, ID_TIEBREAKER)
+                .withSourceFilter(MOVIE_LIST_SOURCE);
     }
 
     // Cache eviction methods - call these when data changes
-    @CacheEvict(value = "movies", allEntries = true)
+    @CacheEvict(value = {"movies", "suggest"}, allEntries = true)
     public void evictMoviesCache() {
         // Evict all movie cache entries
     }
@@ -322,8 +461,177 @@ public class SearchService {
         // Evict all show cache entries
     }
 
-    @CacheEvict(value = {"movies", "theaters", "shows", "trending"}, allEntries = true)
+    @CacheEvict(value = {"movies", "theaters", "shows", "suggest"}, allEntries = true)
     public void evictAllCaches() {
         // Evict all cache entries
     }
-}
\ No newline at end of file
+
+    /**
+     * Titles that start with the prefix come before ones matched on a later word, then the
+     * completion score, then shorter titles.
+     */
+    static Comparator<MovieSuggestion> bySuggestionRank(String normalizedPrefix) {
+        return Comparator.<MovieSuggestion>comparingInt(
+                        s -> CacheDependencies.normalizePrefix(s.getTitle()).startsWith(normalizedPrefix) ? 0 : 1)
+                .thenComparing(s -> s.getScore() != null ? s.getScore() : 0.0, Comparator.reverseOrder())
+                .thenComparingInt(s -> s.getTitle() != null ? s.getTitle().length() : Integer.MAX_VALUE)
+                .thenComparing(MovieSuggestion::getId, Comparator.nullsLast(Comparator.naturalOrder()));
+    }
+
+    /**
+     * Runs one page of a sorted query. With a cursor the page continues after the cursor's
+     * hit via {@code search_after} (and {@code page} is only echoed back); without one it is
+     * a plain {@code from/size} page. The search runs within the latency budget of
+     * {@code endpoint}, see {@link SearchCallExecutor}.
+     */
+    private <T> SearchPage<T> searchPage(String endpoint, NativeQueryBuilder nativeQuery, Class<T> type,
+                                         int page, int size, String cursor) {
+        return searchPage(endpoint, nativeQuery, type, page, size, cursor, SearchHit::getContent);
+    }
+
+    /** Same as above, but maps every hit to a projection (e.g. a summary built from a filtered {@code _source}). */
+    private <T, R> SearchPage<R> searchPage(String endpoint, NativeQueryBuilder nativeQuery, Class<T> type,
+                                            int page, int size, String cursor,
+                                            Function<SearchHit<T>, R> mapper) {
+        NativeQuery query = pageQuery(nativeQuery.withTimeout(searchCalls.budget(endpoint)), page, size, cursor);
+        SearchHits<T> hits = searchCalls.call(endpoint, () -> elasticsearchOperations.search(query, type));
+        return toPage(hits, page, size, mapper);
+    }
+
+    /** Adds the page (or the {@code search_after} of the cursor) to a sorted query. */
+    static NativeQuery pageQuery(NativeQueryBuilder nativeQuery, int page, int size, String cursor) {
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        if (cursor != null && !cursor.isEmpty()) {
+            nativeQuery.withSearchAfter(SearchCursor.decode(cursor))
+                    .withPageable(PageRequest.of(0, pageSize));
+        } else {
+            nativeQuery.withPageable(PageRequest.of(Math.max(page, 0), pageSize));
+        }
+        return nativeQuery.build();
+    }
+
+    /** The page of a {@link #pageQuery} response, recording the hits as cache dependencies. */
+    static <T, R> SearchPage<R> toPage(SearchHits<T> hits, int page, int size, Function<SearchHit<T>, R> mapper) {
+        return toPage(hits.getSearchHits(), hits.getTotalHits(), page, size, mapper);
+    }
+
+    /** {@link #toPage(SearchHits, int, int, Function)} for hits collected from a reactive search. */
+    static <T, R> SearchPage<R> toPage(List<SearchHit<T>> hits, long totalHits, int page, int size,
+                                       Function<SearchHit<T>, R> mapper) {
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        List<R> items = new ArrayList<>(hits.size());
+        List<Object> lastSortValues = null;
+        for (SearchHit<T> hit : hits) {
+            recordDependency(hit.getContent());
+            items.add(mapper.apply(hit));
+            lastSortValues = hit.getSortValues();
+        }
+
+        String nextCursor = items.size() == pageSize ? SearchCursor.encode(lastSortValues) : null;
+        return new SearchPage<>(items, Math.max(page, 0), pageSize, totalHits, nextCursor);
+    }
+
+    /** Theaters within the exact radius, nearest first; {@code null} when the cell's candidates hit the cap. */
+    private List<TheaterSummary> theatersWithin(double lat, double lon, double radiusKm) {
+        List<TheaterSummary> fromGrid = theaterSpatialIndex.within(lat, lon, radiusKm);
+        if (fromGrid != null) {
+            return fromGrid;
+        }
+        double bucketKm = GeoCells.radiusBucketKm(radiusKm);
+        String cell = GeoCells.encode(lat, lon, GeoCells.precisionFor(bucketKm));
+        List<TheaterSummary> candidates = cellTheaters(cell, bucketKm);
+        if (candidates.size() >= GeoCellSearch.MAX_CELL_CANDIDATES) {
+            return null;
+        }
+        List<TheaterSummary> theaters = new ArrayList<>();
+        for (TheaterSummary candidate : candidates) {
+            if (candidate.getLat() == null || candidate.getLon() == null) {
+                continue;
+            }
+            double distanceKm = GeoCells.distanceKm(lat, lon, candidate.getLat(), candidate.getLon());
+            if (distanceKm <= radiusKm) {
+                // A copy, the cached candidate may be shared with other requests
+                theaters.add(new TheaterSummary(candidate.getId(), candidate.getCity(),
+                        candidate.getLat(), candidate.getLon(), distanceKm));
+            }
+        }
+        theaters.sort(Comparator.comparingDouble(TheaterSummary::getDistanceKm)
+                .thenComparing(TheaterSummary::getId));
+        return theaters;
+    }
+
+    /** Everything {@link GeoCellSearch#theatersAround} holds for the cell, from the grid while it is fresh. */
+    private List<TheaterSummary> cellTheaters(String cell, double bucketKm) {
+        double[] center = GeoCells.center(cell);
+        List<TheaterSummary> fromGrid = theaterSpatialIndex.within(center[0], center[1],
+                bucketKm + GeoCells.halfDiagonalKm(cell));
+        return fromGrid != null ? fromGrid : geoCellSearch.theatersAround(cell, bucketKm);
+    }
+
+    /**
+     * Pages a list already sorted by {@code (sortKey, id)}, with the same cursor contract as
+     * {@link #searchPage}: the cursor holds the sort key and id of the last item.
+     */
+    static <T> SearchPage<T> memoryPage(List<T> sorted, Function<T, Double> sortKey, Function<T, Long> id,
+                                        int page, int size, String cursor) {
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        int pageNumber = Math.max(page, 0);
+
+        int from;
+        if (cursor != null && !cursor.isEmpty()) {
+            List<Object> after = SearchCursor.decode(cursor);
+            if (after.size() != 2 || !(after.get(0) instanceof Number key) || !(after.get(1) instanceof Number last)) {
+                throw new IllegalArgumentException("Invalid search cursor: " + cursor);
+            }
+            from = 0;
+            while (from < sorted.size() && compare(sortKey.apply(sorted.get(from)), id.apply(sorted.get(from)),
+                    key.doubleValue(), last.longValue()) <= 0) {
+                from++;
+            }
+        } else {
+            from = (int) Math.min((long) pageNumber * pageSize, sorted.size());
+        }
+        int to = Math.min(from + pageSize, sorted.size());
+
+        List<T> items = new ArrayList<>(sorted.subList(from, to));
+        String nextCursor = null;
+        if (items.size() == pageSize) {
+            T lastItem = items.get(items.size() - 1);
+            nextCursor = SearchCursor.encode(List.of(sortKey.apply(lastItem), id.apply(lastItem)));
+        }
+        return new SearchPage<>(items, pageNumber, pageSize, sorted.size(), nextCursor);
+    }
+
+    private static int compare(double key, long id, double otherKey, long otherId) {
+        int byKey = Double.compare(key, otherKey);
+        return byKey != 0 ? byKey : Long.compare(id, otherId);
+    }
+
+    // Lets a change event for any document in the result evict the cached page
+    static <T> T recordDependency(T document) {
+        if (document instanceof MovieDocument movie) {
+            CacheDependencies.record("movie:" + movie.getId());
+        } else if (document instanceof TheaterDocument theater) {
+            CacheDependencies.record("theater:" + theater.getId());
+        } else if (document instanceof ShowDocument show) {
+            CacheDependencies.record("show:" + show.getId());
+            CacheDependencies.record("movie:" + show.getMovieId());
+            CacheDependencies.record("theater:" + show.getTheaterId());
+        }
+        return document;
+    }
+
+    static TheaterSummary toSummary(TheaterDocument theater, Double distanceKm) {
+        AddressDocument address = theater.getAddress();
+        if (address == null) {
+            return new TheaterSummary(theater.getId(), null, null, null, distanceKm);
+        }
+        Double lat = address.getLocation() != null ? address.getLocation().getLat() : null;
+        Double lon = address.getLocation() != null ? address.getLocation().getLon() : null;
+        return new TheaterSummary(theater.getId(), address.getCity(), lat, lon, distanceKm);
+    }
+
+    static SortOptions byShowTime() {
+        return SortOptions.of(s -> s.field(f -> f.field("showTime").order(SortOrder.Asc)));
+    }
+}
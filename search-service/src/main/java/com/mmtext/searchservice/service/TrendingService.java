@@ -0,0 +1,145 @@
+package com.mmtext.searchservice.service;
+
+import co.elastic.clients.elasticsearch._types.SortOrder;
+import co.elastic.clients.elasticsearch._types.aggregations.Aggregation;
+import co.elastic.clients.elasticsearch._types.aggregations.LongTermsBucket;
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import co.elastic.clients.json.JsonData;
+import co.elastic.clients.util.NamedValue;
+import com.mmtext.searchservice.configuration.TrendingProperties;
+import com.mmtext.searchservice.esdocument.MovieDocument;
+import com.mmtext.searchservice.esdocument.ShowDocument;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.data.elasticsearch.client.elc.ElasticsearchAggregations;
+import org.springframework.data.elasticsearch.client.elc.NativeQuery;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.MultiGetItem;
+import org.springframework.data.elasticsearch.core.SearchHits;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Ranks movies by their upcoming shows and keeps the result in memory, so the trending
+ * endpoint is a field read.
+ *
+ * Every {@code refreshInterval} one aggregation over the shows index sums, per movie, a weight
+ * of {@code 0.5 ^ (hours until the show / half-life hours)} for each show within the horizon:
+ * many shows soon beat a few next week. The top movies are then fetched in one multi-get.
+ * A failed refresh keeps serving the previous ranking.
+ */
+public class TrendingService implements ApplicationListener<ApplicationReadyEvent>, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(TrendingService.class);
+    private static final String BY_MOVIE = "by_movie";
+    private static final String SCORE = "score";
+    private static final String DECAYED_SHOW = """
+            double hours = (doc['showTime'].value.toInstant().toEpochMilli() - params.now) / 3600000.0;
+            return Math.exp(-params.lambda * Math.max(hours, 0));
+            """;
+
+    private final ElasticsearchOperations elasticsearchOperations;
+    private final TrendingProperties properties;
+    private final AtomicReference<List<MovieDocument>> trending = new AtomicReference<>(List.of());
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "trending");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public TrendingService(ElasticsearchOperations elasticsearchOperations, TrendingProperties properties) {
+        this.elasticsearchOperations = elasticsearchOperations;
+        this.properties = properties;
+    }
+
+    /** The last computed ranking, empty until the first refresh has finished. */
+    public List<MovieDocument> trendingMovies() {
+        return trending.get();
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        executor.scheduleWithFixedDelay(this::refresh, 0,
+                properties.getRefreshInterval().toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    void refresh() {
+        try {
+            List<Long> movieIds = topMovieIds(System.currentTimeMillis());
+            trending.set(List.copyOf(fetchMovies(movieIds)));
+            log.debug("Trending movies: {}", movieIds);
+        } catch (Exception e) {
+            log.warn("Could not refresh trending movies: {}", e.getMessage());
+        }
+    }
+
+    private List<Long> topMovieIds(long now) {
+        int limit = properties.getLimit();
+        double lambda = Math.log(2) / (properties.getHalfLife().toMillis() / 3600000.0);
+        String horizon = "now+" + properties.getHorizon().toSeconds() + "s";
+
+        Query upcoming = Query.of(q -> q.range(r -> r.date(d -> d
+                .field("showTime")
+                .gte("now")
+                .lt(horizon))));
+        Aggregation byMovie = Aggregation.of(a -> a
+                .terms(t -> t
+                        .field("movieId")
+                        .size(limit)
+                        // Ordering by a sub-aggregation is approximate across shards, look further
+                        .shardSize(limit * 5)
+                        .order(NamedValue.of(SCORE, SortOrder.Desc)))
+                .aggregations(SCORE, s -> s.sum(sum -> sum.script(script -> script
+                        .source(DECAYED_SHOW)
+                        .params("now", JsonData.of(now))
+                        .params("lambda", JsonData.of(lambda))))));
+
+        NativeQuery nativeQuery = NativeQuery.builder()
+                .withQuery(Query.of(q -> q.bool(b -> b.filter(upcoming))))
+                .withAggregation(BY_MOVIE, byMovie)
+                .withMaxResults(0)
+                .build();
+        SearchHits<ShowDocument> hits = elasticsearchOperations.search(nativeQuery, ShowDocument.class);
+
+        List<Long> movieIds = new ArrayList<>();
+        ElasticsearchAggregations aggregations = (ElasticsearchAggregations) hits.getAggregations();
+        if (aggregations == null || aggregations.get(BY_MOVIE) == null) {
+            return movieIds;
+        }
+        for (LongTermsBucket bucket : aggregations.get(BY_MOVIE).aggregation().getAggregate().lterms().buckets().array()) {
+            movieIds.add(bucket.key());
+        }
+        return movieIds;
+    }
+
+    // Multi-get answers in request order, so the ranking is kept
+    private List<MovieDocument> fetchMovies(List<Long> movieIds) {
+        List<MovieDocument> movies = new ArrayList<>();
+        if (movieIds.isEmpty()) {
+            return movies;
+        }
+        NativeQuery byIds = NativeQuery.builder()
+                .withIds(movieIds.stream().map(String::valueOf).toList())
+                .withSourceFilter(SearchService.MOVIE_LIST_SOURCE)
+                .build();
+        for (MultiGetItem<MovieDocument> item : elasticsearchOperations.multiGet(byIds, MovieDocument.class)) {
+            if (item.hasItem()) {
+                movies.add(item.getItem());
+            }
+        }
+        return movies;
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,195 @@
+package com.mmtext.searchservice.suggest;
+
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mmtext.searchservice.configuration.TitleSuggestProperties;
+import com.mmtext.searchservice.dto.MovieSuggestion;
+import com.mmtext.searchservice.esdocument.MovieDocument;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.elasticsearch.client.elc.NativeQuery;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.SearchHitsIterator;
+import org.springframework.data.elasticsearch.core.query.FetchSourceFilter;
+import org.springframework.data.elasticsearch.core.query.SourceFilter;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps a {@link TitleTrie} of all movies so type-ahead is answered from memory, without
+ * Redis or Elasticsearch.
+ *
+ * The movie index is read in full once the application is up and again every
+ * {@code reloadInterval}. In between, the search invalidation events search-consumer-service
+ * publishes after each index write update single titles; changes are folded into one rebuild
+ * per {@code rebuildDelay}. The weight of a movie is its number of shows, refreshed by the
+ * reloads. Readers always see a complete trie: a rebuild swaps in a new one.
+ */
+public class TitleSuggestIndex implements MessageListener, ApplicationListener<ApplicationReadyEvent>, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(TitleSuggestIndex.class);
+    private static final long RETRY_DELAY_SECONDS = 30;
+    private static final int LOAD_BATCH_SIZE = 1000;
+    private static final SourceFilter LOAD_SOURCE = FetchSourceFilter.of(b -> b.withIncludes("id", "title", "shows.id"));
+
+    private final ElasticsearchOperations elasticsearchOperations;
+    private final TitleSuggestProperties properties;
+    // Plain mapper, the event is not written by the cache serializer
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<Long, Title> movies = new ConcurrentHashMap<>();
+    // Orders reloads and events, a reload never overwrites a change that arrived after it started
+    private final AtomicLong versions = new AtomicLong();
+    private final AtomicBoolean rebuildScheduled = new AtomicBoolean();
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "title-trie");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile TitleTrie trie;
+    private volatile Instant builtAt;
+
+    public TitleSuggestIndex(ElasticsearchOperations elasticsearchOperations, TitleSuggestProperties properties) {
+        this.elasticsearchOperations = elasticsearchOperations;
+        this.properties = properties;
+    }
+
+    /** @return ranked suggestions, or {@code null} while there is no trie to answer from */
+    public List<MovieSuggestion> suggest(String prefix, int size) {
+        TitleTrie current = trie;
+        if (current == null) {
+            return null;
+        }
+        return current.suggest(prefix, Math.min(Math.max(size, 1), current.topK()));
+    }
+
+    public Map<String, Object> stats() {
+        TitleTrie current = trie;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", properties.isEnabled());
+        stats.put("loaded", current != null);
+        if (current != null) {
+            stats.put("movies", current.movieCount());
+            stats.put("nodes", current.nodeCount());
+            stats.put("topK", current.topK());
+            stats.put("estimatedBytes", current.estimatedBytes());
+            stats.put("builtAt", builtAt.toString());
+        }
+        return stats;
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        if (properties.isEnabled()) {
+            executor.execute(this::reload);
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        try {
+            JsonNode event = objectMapper.readTree(message.getBody());
+            if (!event.hasNonNull("movieId")) {
+                return;
+            }
+            long movieId = event.get("movieId").asLong();
+            // Deletions carry no title; the tombstone keeps a running reload from bringing the movie back
+            String title = event.hasNonNull("title") ? event.get("title").asText() : null;
+            movies.compute(movieId, (id, old) ->
+                    new Title(title, old != null ? old.weight : 0, versions.incrementAndGet()));
+            scheduleRebuild();
+        } catch (Exception e) {
+            log.warn("Could not apply title change {}: {}", new String(message.getBody()), e.getMessage());
+        }
+    }
+
+    private void reload() {
+        long started = versions.incrementAndGet();
+        try {
+            NativeQuery query = NativeQuery.builder()
+                    .withQuery(Query.of(q -> q.matchAll(m -> m)))
+                    .withSourceFilter(LOAD_SOURCE)
+                    .withPageable(PageRequest.of(0, LOAD_BATCH_SIZE))
+                    .build();
+            try (SearchHitsIterator<MovieDocument> hits = elasticsearchOperations.searchForStream(query, MovieDocument.class)) {
+                while (hits.hasNext()) {
+                    MovieDocument movie = hits.next().getContent();
+                    if (movie.getId() == null) {
+                        continue;
+                    }
+                    Title loaded = new Title(movie.getTitle(),
+                            movie.getShows() != null ? movie.getShows().size() : 0, started);
+                    movies.compute(movie.getId(), (id, old) -> old != null && old.version > started ? old : loaded);
+                }
+            }
+            // Gone from the index, and old tombstones
+            movies.values().removeIf(title -> title.version < started);
+            rebuild();
+            executor.schedule(this::reload, properties.getReloadInterval().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            log.warn("Could not load movie titles ({}), retrying in {}s", e.getMessage(), RETRY_DELAY_SECONDS);
+            executor.schedule(this::reload, RETRY_DELAY_SECONDS, TimeUnit.SECONDS);
+        }
+    }
+
+    private void scheduleRebuild() {
+        // Before the first load there is nothing to rebuild, the load picks the change up
+        if (trie != null && rebuildScheduled.compareAndSet(false, true)) {
+            executor.schedule(() -> {
+                rebuildScheduled.set(false);
+                rebuild();
+            }, properties.getRebuildDelay().toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void rebuild() {
+        long start = System.nanoTime();
+        TitleTrie.Builder builder = TitleTrie.builder(properties.getTopK());
+        movies.forEach((id, title) -> {
+            if (title.title != null) {
+                builder.add(id, title.title, title.weight);
+            }
+        });
+        TitleTrie built = builder.build();
+        builtAt = Instant.now();
+        trie = built;
+        log.debug("Built title trie: {} movies, {} nodes, ~{} KiB in {} ms", built.movieCount(), built.nodeCount(),
+                built.estimatedBytes() / 1024, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    private static final class Title {
+        final String title;
+        final double weight;
+        final long version;
+
+        Title(String title, double weight, long version) {
+            this.title = title;
+            this.weight = weight;
+            this.version = version;
+        }
+    }
+}
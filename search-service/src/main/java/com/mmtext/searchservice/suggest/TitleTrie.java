@@ -0,0 +1,311 @@
+package com.mmtext.searchservice.suggest;
+
+import com.mmtext.searchservice.cache.CacheDependencies;
+import com.mmtext.searchservice.dto.MovieSuggestion;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Immutable prefix trie of movie titles with the best {@code topK} movies precomputed on every
+ * node, so a lookup is one walk down the prefix and a copy of at most {@code topK} entries.
+ *
+ * Like the completion field, a title is reachable from each of its words: "Spider-Man: No Way
+ * Home" is stored under "spider man no way home", "man no way home", ... (normalized with
+ * {@link CacheDependencies#normalizePrefix}). Ranking is: the title starts with the prefix,
+ * then higher weight, then shorter title, then id.
+ *
+ * Nodes live in flat arrays in breadth-first order, so the children of a node are a contiguous,
+ * label-sorted range and need no per-node objects. Chains of single-child nodes share their
+ * child's top list.
+ */
+public final class TitleTrie {
+
+    // Keys are cut here, a longer prefix is answered from its first MAX_KEY_LENGTH characters
+    static final int MAX_KEY_LENGTH = 32;
+    // Same bound as the suffixes search-consumer-service indexes for completion
+    static final int MAX_WORD_STARTS = 8;
+
+    private final int topK;
+    private final char[] labels;
+    private final int[] firstChild;
+    private final int[] topStart;
+    private final byte[] topLength;
+    // Per entry: ordinal of the movie, or ordinal + movie count when the title does not start at the prefix
+    private final int[] tops;
+
+    // Movies ordered by rank, the ordinal is the position
+    private final long[] ids;
+    private final String[] titles;
+    private final double[] weights;
+    private final String[] normalizedTitles;
+
+    private TitleTrie(int topK, char[] labels, int[] firstChild, int[] topStart, byte[] topLength, int[] tops,
+                      long[] ids, String[] titles, double[] weights, String[] normalizedTitles) {
+        this.topK = topK;
+        this.labels = labels;
+        this.firstChild = firstChild;
+        this.topStart = topStart;
+        this.topLength = topLength;
+        this.tops = tops;
+        this.ids = ids;
+        this.titles = titles;
+        this.weights = weights;
+        this.normalizedTitles = normalizedTitles;
+    }
+
+    public static Builder builder(int topK) {
+        return new Builder(topK);
+    }
+
+    /** Best matches for {@code prefix}, at most {@code limit} and never more than the trie's top-k. */
+    public List<MovieSuggestion> suggest(String prefix, int limit) {
+        String normalized = CacheDependencies.normalizePrefix(prefix);
+        List<MovieSuggestion> suggestions = new ArrayList<>();
+        if (normalized.isEmpty() || labels.length == 0) {
+            return suggestions;
+        }
+        boolean cut = normalized.length() > MAX_KEY_LENGTH;
+        String key = cut ? normalized.substring(0, MAX_KEY_LENGTH) : normalized;
+        int node = 0;
+        for (int i = 0; i < key.length() && node >= 0; i++) {
+            node = child(node, key.charAt(i));
+        }
+        if (node < 0) {
+            return suggestions;
+        }
+        int movieCount = ids.length;
+        int end = topStart[node] + topLength[node];
+        for (int i = topStart[node]; i < end && suggestions.size() < limit; i++) {
+            int ordinal = tops[i] < movieCount ? tops[i] : tops[i] - movieCount;
+            // Only needed past the key length cut, shorter prefixes matched exactly
+            if (cut && !matchesWordStart(normalizedTitles[ordinal], normalized)) {
+                continue;
+            }
+            suggestions.add(new MovieSuggestion(ids[ordinal], titles[ordinal], weights[ordinal]));
+        }
+        return suggestions;
+    }
+
+    public int topK() {
+        return topK;
+    }
+
+    public int movieCount() {
+        return ids.length;
+    }
+
+    public int nodeCount() {
+        return labels.length;
+    }
+
+    /** Approximate heap footprint of the arrays and titles, object headers included. */
+    public long estimatedBytes() {
+        long bytes = array(labels.length, 2) + array(firstChild.length, 4) + array(topStart.length, 4)
+                + array(topLength.length, 1) + array(tops.length, 4)
+                + array(ids.length, 8) + array(weights.length, 8)
+                + array(titles.length, 4) + array(normalizedTitles.length, 4);
+        for (int i = 0; i < titles.length; i++) {
+            bytes += string(titles[i]) + string(normalizedTitles[i]);
+        }
+        return bytes;
+    }
+
+    private int child(int node, char label) {
+        int low = firstChild[node];
+        int high = firstChild[node + 1] - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (labels[mid] < label) {
+                low = mid + 1;
+            } else if (labels[mid] > label) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean matchesWordStart(String title, String prefix) {
+        return title.startsWith(prefix) || title.contains(" " + prefix);
+    }
+
+    private static long array(int length, int elementBytes) {
+        return 16 + (long) length * elementBytes;
+    }
+
+    private static long string(String value) {
+        // String object plus its Latin-1 byte array
+        return value == null ? 0 : 24 + array(value.length(), 1);
+    }
+
+    /** Collects movies, then builds the immutable trie in one go. Not thread-safe. */
+    public static final class Builder {
+
+        private final int topK;
+        private final List<Movie> movies = new ArrayList<>();
+
+        private Builder(int topK) {
+            if (topK < 1 || topK > Byte.MAX_VALUE) {
+                throw new IllegalArgumentException("topK must be within 1.." + Byte.MAX_VALUE + ": " + topK);
+            }
+            this.topK = topK;
+        }
+
+        public Builder add(long id, String title, double weight) {
+            String normalized = CacheDependencies.normalizePrefix(title);
+            if (!normalized.isEmpty()) {
+                movies.add(new Movie(id, title, weight, normalized));
+            }
+            return this;
+        }
+
+        public TitleTrie build() {
+            movies.sort(Comparator.comparingDouble((Movie m) -> m.weight).reversed()
+                    .thenComparingInt(m -> m.title.length())
+                    .thenComparingLong(m -> m.id));
+            int movieCount = movies.size();
+
+            BuildNode root = new BuildNode('\0');
+            for (int ordinal = 0; ordinal < movieCount; ordinal++) {
+                String words = movies.get(ordinal).normalized;
+                int start = 0;
+                for (int input = 0; input < MAX_WORD_STARTS; input++) {
+                    // The full title ranks ahead of matches on a later word
+                    insert(root, words.substring(start), input == 0 ? ordinal : ordinal + movieCount);
+                    int space = words.indexOf(' ', start);
+                    if (space < 0) {
+                        break;
+                    }
+                    start = space + 1;
+                }
+            }
+            computeTops(root, movieCount);
+            return freeze(root, movieCount);
+        }
+
+        private static void insert(BuildNode root, String key, int code) {
+            BuildNode node = root;
+            int length = Math.min(key.length(), MAX_KEY_LENGTH);
+            for (int i = 0; i < length; i++) {
+                node = node.children.computeIfAbsent(key.charAt(i), BuildNode::new);
+            }
+            if (node.terminal == null) {
+                node.terminal = new ArrayList<>(1);
+            }
+            node.terminal.add(code);
+        }
+
+        // Bottom-up: the best of a subtree are among the keys ending here and the children's lists
+        private void computeTops(BuildNode node, int movieCount) {
+            for (BuildNode child : node.children.values()) {
+                computeTops(child, movieCount);
+            }
+            if (node.terminal == null && node.children.size() == 1) {
+                node.top = node.children.firstEntry().getValue().top;
+                return;
+            }
+            List<Integer> candidates = node.terminal != null ? node.terminal : new ArrayList<>();
+            for (BuildNode child : node.children.values()) {
+                for (int code : child.top) {
+                    candidates.add(code);
+                }
+            }
+            candidates.sort(null);
+            Set<Integer> taken = new HashSet<>();
+            int[] top = new int[Math.min(topK, candidates.size())];
+            int size = 0;
+            for (int i = 0; i < candidates.size() && size < top.length; i++) {
+                int code = candidates.get(i);
+                if (taken.add(code < movieCount ? code : code - movieCount)) {
+                    top[size++] = code;
+                }
+            }
+            node.top = size == top.length ? top : Arrays.copyOf(top, size);
+            node.terminal = null;
+        }
+
+        private TitleTrie freeze(BuildNode root, int movieCount) {
+            List<BuildNode> order = new ArrayList<>();
+            order.add(root);
+            for (int i = 0; i < order.size(); i++) {
+                order.addAll(order.get(i).children.values());
+            }
+            int nodeCount = order.size();
+            char[] labels = new char[nodeCount];
+            int[] firstChild = new int[nodeCount + 1];
+            int[] topStart = new int[nodeCount];
+            byte[] topLength = new byte[nodeCount];
+
+            Map<int[], Integer> offsets = new IdentityHashMap<>();
+            int topsLength = 0;
+            for (BuildNode node : order) {
+                if (!offsets.containsKey(node.top)) {
+                    offsets.put(node.top, topsLength);
+                    topsLength += node.top.length;
+                }
+            }
+            int[] tops = new int[topsLength];
+            offsets.forEach((top, offset) -> System.arraycopy(top, 0, tops, offset, top.length));
+
+            int nextChild = 1;
+            for (int i = 0; i < nodeCount; i++) {
+                BuildNode node = order.get(i);
+                labels[i] = node.label;
+                firstChild[i] = nextChild;
+                nextChild += node.children.size();
+                topStart[i] = offsets.get(node.top);
+                topLength[i] = (byte) node.top.length;
+            }
+            firstChild[nodeCount] = nextChild;
+
+            long[] ids = new long[movieCount];
+            String[] titles = new String[movieCount];
+            double[] weights = new double[movieCount];
+            String[] normalizedTitles = new String[movieCount];
+            for (int i = 0; i < movieCount; i++) {
+                Movie movie = movies.get(i);
+                ids[i] = movie.id;
+                titles[i] = movie.title;
+                weights[i] = movie.weight;
+                normalizedTitles[i] = movie.normalized;
+            }
+            return new TitleTrie(topK, labels, firstChild, topStart, topLength, tops,
+                    ids, titles, weights, normalizedTitles);
+        }
+    }
+
+    private static final class Movie {
+        final long id;
+        final String title;
+        final double weight;
+        final String normalized;
+
+        Movie(long id, String title, double weight, String normalized) {
+            this.id = id;
+            this.title = title;
+            this.weight = weight;
+            this.normalized = normalized;
+        }
+    }
+
+    private static final class BuildNode {
+        final char label;
+        final TreeMap<Character, BuildNode> children = new TreeMap<>();
+        // Codes of the keys ending here, dropped once the top list is known
+        List<Integer> terminal;
+        int[] top;
+
+        BuildNode(char label) {
+            this.label = label;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.mmtext.searchservice.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mmtext.searchservice.cache.CacheEnvelope;
+import com.mmtext.searchservice.cache.CompactCacheSerializer;
+import com.mmtext.searchservice.configuration.RedisCacheConfig;
+import com.mmtext.searchservice.dto.SearchPage;
+import com.mmtext.searchservice.esdocument.MovieDocument;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encode/decode cost of a cached search page (a {@link CacheEnvelope} around a
+ * {@code SearchPage<MovieDocument>}) with the previous {@link GenericJackson2JsonRedisSerializer}
+ * and with {@link CompactCacheSerializer}. The stored sizes are printed once per trial.
+ *
+ * Run after {@code mvn test-compile} with {@code main}, e.g. from the IDE, or
+ * {@code java -cp target/test-classes:target/classes:<test classpath> org.openjdk.jmh.Main CacheSerializerBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CacheSerializerBenchmark {
+
+    // Default page size and the maximum
+    @Param({"20", "100"})
+    public int pageSize;
+
+    private GenericJackson2JsonRedisSerializer json;
+    private CompactCacheSerializer compact;
+    private CacheEnvelope value;
+    private byte[] jsonBytes;
+    private byte[] compactBytes;
+
+    @Setup
+    public void setUp() {
+        json = new GenericJackson2JsonRedisSerializer(new RedisCacheConfig().redisCacheObjectMapper());
+        ObjectMapper compactMapper = RedisCacheConfig.compactCacheObjectMapper();
+        compact = new CompactCacheSerializer(compactMapper, RedisCacheConfig.cachedTypes(compactMapper.getTypeFactory()),
+                json, 1024);
+
+        List<MovieDocument> movies = new ArrayList<>();
+        for (int i = 0; i < pageSize; i++) {
+            MovieDocument movie = new MovieDocument();
+            movie.setId(1000L + i);
+            movie.setTitle("Dhoom " + i);
+            movie.setLanguage(i % 3 == 0 ? "Hindi" : "Eng");
+            movie.setGenre(i % 2 == 0 ? "Action" : "Romantic");
+            movie.setDurationMin(110 + i % 60);
+            movie.setRating(i % 4 == 0 ? "PG-13" : "U/A");
+            movies.add(movie);
+        }
+        long now = System.currentTimeMillis();
+        value = new CacheEnvelope(new SearchPage<>(movies, 0, pageSize, 5000, "WzEyLjUsMTAyMF0"), now, 35, now + 900_000);
+
+        jsonBytes = json.serialize(value);
+        compactBytes = compact.serialize(value);
+        System.out.printf("%n%d movies: json %d bytes, compact %d bytes%n", pageSize, jsonBytes.length, compactBytes.length);
+    }
+
+    @Benchmark
+    public byte[] jsonEncode() {
+        return json.serialize(value);
+    }
+
+    @Benchmark
+    public Object jsonDecode() {
+        return json.deserialize(jsonBytes);
+    }
+
+    @Benchmark
+    public byte[] compactEncode() {
+        return compact.serialize(value);
+    }
+
+    @Benchmark
+    public Object compactDecode() {
+        return compact.deserialize(compactBytes);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CacheSerializerBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,105 @@
+package com.mmtext.searchservice.benchmark;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Closed-loop load against a running search-service, to compare the servlet endpoints with the
+ * {@code /api/search/reactive} ones of the {@code reactive} profile under the same load: a fixed
+ * number of requests in flight for a fixed time, reporting throughput, errors and latency
+ * percentiles per mode.
+ *
+ * Not a test, run {@code main} against an instance started with
+ * {@code SPRING_PROFILES_ACTIVE=reactive}:
+ * {@code SearchLoadDriver [baseUrl] [concurrency] [seconds] [servlet|reactive|both] [keywords...]},
+ * e.g. {@code http://localhost:4001 512 30 both avengers batman inception}. Use keywords that
+ * miss the cache (or clear it between runs) to measure the Elasticsearch path rather than L1.
+ */
+public class SearchLoadDriver {
+
+    private static final String[] DEFAULT_KEYWORDS = {"avengers", "batman", "inception", "action", "comedy", "drama"};
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:4001";
+        int concurrency = args.length > 1 ? Integer.parseInt(args[1]) : 256;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+        String mode = args.length > 3 ? args[3] : "both";
+        String[] keywords = args.length > 4 ? Arrays.copyOfRange(args, 4, args.length) : DEFAULT_KEYWORDS;
+
+        HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        if (!mode.equals("reactive")) {
+            run(client, "servlet", baseUrl + "/api/search/movies?keyword=", keywords, concurrency, seconds);
+        }
+        if (!mode.equals("servlet")) {
+            run(client, "reactive", baseUrl + "/api/search/reactive/movies?keyword=", keywords, concurrency, seconds);
+        }
+    }
+
+    private static void run(HttpClient client, String name, String url, String[] keywords,
+                            int concurrency, int seconds) throws InterruptedException {
+        // Short warm-up, then the measured run
+        load(client, url, keywords, concurrency, Math.min(seconds, 5));
+        Result result = load(client, url, keywords, concurrency, seconds);
+        long[] latencies = result.latenciesMicros.stream().mapToLong(Long::longValue).sorted().toArray();
+        System.out.printf("%-8s concurrency=%d requests=%d errors=%d throughput=%.0f/s "
+                        + "p50=%.1fms p90=%.1fms p99=%.1fms max=%.1fms%n",
+                name, concurrency, latencies.length, result.errors.get(), latencies.length / (double) seconds,
+                percentile(latencies, 0.50), percentile(latencies, 0.90), percentile(latencies, 0.99),
+                percentile(latencies, 1.0));
+    }
+
+    private static Result load(HttpClient client, String url, String[] keywords, int concurrency, int seconds)
+            throws InterruptedException {
+        Result result = new Result();
+        Semaphore inFlight = new Semaphore(concurrency);
+        AtomicInteger next = new AtomicInteger();
+        long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        while (System.nanoTime() < end) {
+            if (!inFlight.tryAcquire(10, TimeUnit.MILLISECONDS)) {
+                continue;
+            }
+            String keyword = keywords[Math.floorMod(next.getAndIncrement(), keywords.length)];
+            HttpRequest request = HttpRequest.newBuilder(
+                            URI.create(url + URLEncoder.encode(keyword, StandardCharsets.UTF_8)))
+                    .timeout(Duration.ofSeconds(30))
+                    .build();
+            long start = System.nanoTime();
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+                if (error != null || response.statusCode() != 200) {
+                    result.errors.incrementAndGet();
+                } else {
+                    result.latenciesMicros.add(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+                }
+                inFlight.release();
+            });
+        }
+        // Let the requests still in flight finish, they are not counted against the duration
+        inFlight.tryAcquire(concurrency, 30, TimeUnit.SECONDS);
+        return result;
+    }
+
+    private static double percentile(long[] sortedMicros, double quantile) {
+        if (sortedMicros.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(quantile * sortedMicros.length) - 1;
+        return sortedMicros[Math.max(index, 0)] / 1000.0;
+    }
+
+    private static final class Result {
+        final ConcurrentLinkedQueue<Long> latenciesMicros = new ConcurrentLinkedQueue<>();
+        final AtomicInteger errors = new AtomicInteger();
+    }
+}
@@ -0,0 +1,71 @@
+package com.mmtext.searchservice.cache;
+
+import com.mmtext.searchservice.configuration.RedisCacheConfig;
+import com.mmtext.searchservice.dto.SearchPage;
+import com.mmtext.searchservice.dto.TheaterSummary;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CacheRefreshPolicyTests {
+
+    private final CacheRefreshPolicy policy =
+            new CacheRefreshPolicy(Duration.ofMinutes(10), 0.1, 1.0, Duration.ofMinutes(10));
+
+    @Test
+    void softExpiryIsJitteredAroundTheTtl() {
+        for (int i = 0; i < 100; i++) {
+            CacheEnvelope envelope = policy.wrap("v", 0, 5);
+            assertTrue(envelope.getSoftExpiresAt() >= Duration.ofMinutes(9).toMillis());
+            assertTrue(envelope.getSoftExpiresAt() <= Duration.ofMinutes(11).toMillis());
+        }
+    }
+
+    @Test
+    void refreshesOnceSoftExpired() {
+        CacheEnvelope envelope = new CacheEnvelope("v", 0, 5, 1_000);
+
+        assertTrue(policy.shouldRefresh(envelope, 1_000));
+    }
+
+    @Test
+    void cheapEntriesAreNotRefreshedLongBeforeExpiry() {
+        CacheEnvelope envelope = new CacheEnvelope("v", 0, 5, Duration.ofMinutes(10).toMillis());
+
+        for (int i = 0; i < 1_000; i++) {
+            assertFalse(policy.shouldRefresh(envelope, Duration.ofMinutes(1).toMillis()));
+        }
+    }
+
+    @Test
+    void hardTtlCoversTheStaleWindow() {
+        CacheEnvelope envelope = policy.wrap("v", System.currentTimeMillis(), 5);
+
+        Duration ttl = policy.getTimeToLive("key", envelope);
+
+        assertTrue(ttl.compareTo(Duration.ofMinutes(18)) > 0);
+        assertTrue(ttl.compareTo(Duration.ofMinutes(21)) <= 0);
+    }
+
+    @Test
+    void envelopeRoundTripsThroughTheCacheSerializer() {
+        GenericJackson2JsonRedisSerializer serializer =
+                new GenericJackson2JsonRedisSerializer(new RedisCacheConfig().redisCacheObjectMapper());
+        SearchPage<TheaterSummary> page = new SearchPage<>(
+                List.of(new TheaterSummary(7L, "Dhaka", 23.8, 90.4, 1.5)), 0, 20, 1, null);
+
+        Object read = serializer.deserialize(serializer.serialize(new CacheEnvelope(page, 1, 2, 3)));
+
+        CacheEnvelope envelope = assertInstanceOf(CacheEnvelope.class, read);
+        assertEquals(3, envelope.getSoftExpiresAt());
+        SearchPage<?> cached = assertInstanceOf(SearchPage.class, envelope.getValue());
+        assertEquals(7L, assertInstanceOf(TheaterSummary.class, cached.getItems().get(0)).getId());
+    }
+}
@@ -0,0 +1,110 @@
+package com.mmtext.searchservice.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mmtext.searchservice.configuration.RedisCacheConfig;
+import com.mmtext.searchservice.dto.SearchPage;
+import com.mmtext.searchservice.esdocument.AddressDocument;
+import com.mmtext.searchservice.esdocument.MovieDocument;
+import com.mmtext.searchservice.esdocument.TheaterDocument;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.elasticsearch.core.geo.GeoPoint;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompactCacheSerializerTests {
+
+    private final GenericJackson2JsonRedisSerializer json =
+            new GenericJackson2JsonRedisSerializer(new RedisCacheConfig().redisCacheObjectMapper());
+    private final ObjectMapper compactMapper = RedisCacheConfig.compactCacheObjectMapper();
+    private final CompactCacheSerializer compact = new CompactCacheSerializer(
+            compactMapper, RedisCacheConfig.cachedTypes(compactMapper.getTypeFactory()), json, 1024);
+
+    @Test
+    void roundTripsEnvelopedPagesAndCompressesLargeOnes() {
+        SearchPage<MovieDocument> page = moviePage(50);
+
+        byte[] bytes = compact.serialize(new CacheEnvelope(page, 10, 20, 30));
+        CacheEnvelope read = assertInstanceOf(CacheEnvelope.class, compact.deserialize(bytes));
+
+        assertEquals(CompactCacheSerializer.MAGIC, bytes[0]);
+        assertEquals(30, read.getSoftExpiresAt());
+        SearchPage<?> readPage = assertInstanceOf(SearchPage.class, read.getValue());
+        assertEquals(50, readPage.getItems().size());
+        MovieDocument movie = assertInstanceOf(MovieDocument.class, readPage.getItems().get(49));
+        assertEquals("Movie 49", movie.getTitle());
+        assertTrue(bytes.length * 4 < json.serialize(new CacheEnvelope(page, 10, 20, 30)).length,
+                "compact " + bytes.length + " bytes");
+    }
+
+    @Test
+    void roundTripsTheaterWithGeoPoint() {
+        AddressDocument address = new AddressDocument();
+        address.setCity("Dhaka");
+        address.setLocation(new GeoPoint(23.81, 90.41));
+        TheaterDocument theater = new TheaterDocument();
+        theater.setId(3L);
+        theater.setAddress(address);
+
+        TheaterDocument read = assertInstanceOf(TheaterDocument.class, compact.deserialize(compact.serialize(theater)));
+
+        assertEquals(new GeoPoint(23.81, 90.41), read.getAddress().getLocation());
+    }
+
+    @Test
+    void unregisteredTypesAndLegacyEntriesUseJson() {
+        Map<String, String> status = new HashMap<>(Map.of("status", "ok"));
+
+        byte[] bytes = compact.serialize(status);
+
+        assertEquals('{', bytes[0]);
+        assertEquals(status, compact.deserialize(bytes));
+        SearchPage<?> legacy = assertInstanceOf(SearchPage.class, compact.deserialize(json.serialize(moviePage(2))));
+        assertEquals(2, legacy.getItems().size());
+    }
+
+    @Test
+    void emptyPagesRoundTrip() {
+        SearchPage<?> read = assertInstanceOf(SearchPage.class,
+                compact.deserialize(compact.serialize(new SearchPage<>(List.of(), 3, 20, 0, null))));
+
+        assertEquals(3, read.getPage());
+        assertTrue(read.getItems().isEmpty());
+    }
+
+    @Test
+    void rejectsCompressedBodiesThatDoNotMatchTheirLength() {
+        byte[] bytes = compact.serialize(moviePage(50));
+        assertEquals(1 << 1, bytes[1], "compressed without envelope");
+        // magic, flags, tag, then the raw length of the compressed body
+        ByteBuffer.wrap(bytes).putInt(3, ByteBuffer.wrap(bytes).getInt(3) + 100);
+
+        assertThrows(SerializationException.class, () -> compact.deserialize(bytes));
+        assertThrows(SerializationException.class, () -> compact.deserialize(Arrays.copyOf(bytes, bytes.length / 2)));
+    }
+
+    static SearchPage<MovieDocument> moviePage(int size) {
+        List<MovieDocument> movies = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            MovieDocument movie = new MovieDocument();
+            movie.setId((long) i);
+            movie.setTitle("Movie " + i);
+            movie.setLanguage("Eng");
+            movie.setGenre("Romantic");
+            movie.setDurationMin(120 + i);
+            movies.add(movie);
+        }
+        return new SearchPage<>(movies, 0, size, 1000, "cursor");
+    }
+}
@@ -0,0 +1,72 @@
+package com.mmtext.searchservice.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SearchInvalidationListenerTests {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void movieEventCoversDocumentTokensAndTitlePrefixes() throws Exception {
+        Set<String> dependencies = SearchInvalidationListener.dependenciesOf(objectMapper.readTree(
+                "{\"movieId\":42,\"theaterId\":null,\"title\":\"Dune\",\"tokens\":[\"dune\",\"sci\",\"fi\"]}"));
+
+        assertTrue(dependencies.contains("movie:42"));
+        assertTrue(dependencies.contains(CacheDependencies.ANY_MOVIE));
+        assertTrue(dependencies.contains("token:sci"));
+        assertTrue(dependencies.contains("prefix:d"));
+        assertTrue(dependencies.contains("prefix:dune"));
+        assertFalse(dependencies.stream().anyMatch(d -> d.startsWith("theater:")));
+    }
+
+    @Test
+    void titleEventCoversSuggestPrefixesOfEveryWord() throws Exception {
+        Set<String> dependencies = SearchInvalidationListener.dependenciesOf(objectMapper.readTree(
+                "{\"movieId\":5,\"title\":\"Spider-Man: No Way Home\",\"tokens\":[]}"));
+
+        assertTrue(dependencies.contains("suggest:spider m"));
+        assertTrue(dependencies.contains("suggest:man no"));
+        assertTrue(dependencies.contains("suggest:home"));
+        assertEquals(CacheDependencies.SUGGEST + "spider m", CacheDependencies.SUGGEST + CacheDependencies.normalizePrefix("Spider-M"));
+    }
+
+    @Test
+    void deleteEventOnlyNamesTheDocument() throws Exception {
+        Set<String> dependencies = SearchInvalidationListener.dependenciesOf(objectMapper.readTree("{\"movieId\":7}"));
+
+        assertEquals(Set.of("movie:7", CacheDependencies.ANY_MOVIE), dependencies);
+    }
+
+    @Test
+    void showEventNamesTheShowItsTheaterAndMovieTokens() throws Exception {
+        Set<String> dependencies = SearchInvalidationListener.dependenciesOf(objectMapper.readTree(
+                "{\"showId\":11,\"theaterId\":3,\"tokens\":[\"dhoom\",\"1\"]}"));
+
+        assertEquals(Set.of("show:11", CacheDependencies.ANY_SHOW, "theater:3", "token:dhoom", "token:1"), dependencies);
+    }
+
+    @Test
+    void nestedCapturesCountForTheOuterEntry() throws Exception {
+        Set<String> outer = new HashSet<>();
+        Set<String> inner = new HashSet<>();
+
+        CacheDependencies.capture(() -> {
+            CacheDependencies.recordTokens("Mission: Impossible");
+            return CacheDependencies.capture(() -> {
+                CacheDependencies.record("movie:1");
+                return null;
+            }, inner);
+        }, outer);
+
+        assertEquals(Set.of("movie:1"), inner);
+        assertEquals(Set.of("token:mission", "token:impossible", "movie:1"), outer);
+    }
+}
@@ -0,0 +1,56 @@
+package com.mmtext.searchservice.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.anySet;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TwoTierCacheTests {
+
+    private final ConcurrentMapCache redisCache = new ConcurrentMapCache("movies");
+    private final CacheKeyIndex keyIndex = mock(CacheKeyIndex.class);
+    private final TwoTierCache cache = new TwoTierCache(redisCache, Caffeine.newBuilder().build(),
+            mock(NearCacheInvalidationPublisher.class), null, null, null, keyIndex, null, null);
+
+    @Test
+    void indexesTheEntryBeforeWritingIt() {
+        when(keyIndex.generation()).thenReturn(4L);
+
+        assertEquals("Dhoom", cache.get("42", () -> load("Dhoom")));
+
+        InOrder order = inOrder(keyIndex);
+        order.verify(keyIndex).generation();
+        order.verify(keyIndex).record("movies", "42", Set.of("movie:42"));
+        order.verify(keyIndex, atLeastOnce()).invalidatedSince(Set.of("movie:42"), 4L);
+        assertNotNull(redisCache.get("42"));
+    }
+
+    @Test
+    void servesButDoesNotKeepAValueInvalidatedWhileLoading() {
+        when(keyIndex.generation()).thenReturn(4L);
+        when(keyIndex.invalidatedSince(anySet(), eq(4L))).thenReturn(true);
+
+        assertEquals("Dhoom", cache.get("42", () -> load("Dhoom")));
+
+        assertNull(redisCache.get("42"));
+        when(keyIndex.invalidatedSince(anySet(), eq(4L))).thenReturn(false);
+        assertEquals("Dhoom 2", cache.get("42", () -> load("Dhoom 2")));
+    }
+
+    private static String load(String title) {
+        CacheDependencies.record("movie:42");
+        return title;
+    }
+}
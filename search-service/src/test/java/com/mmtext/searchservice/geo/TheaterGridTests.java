@@ -0,0 +1,70 @@
+package com.mmtext.searchservice.geo;
+
+import com.mmtext.searchservice.dto.TheaterSummary;
+import com.mmtext.searchservice.service.GeoCells;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TheaterGridTests {
+
+    @Test
+    void radiusQueryMatchesBruteForce() {
+        Random random = new Random(7);
+        double[][] points = new double[2000][];
+        TheaterGrid.Builder builder = TheaterGrid.builder(0.05);
+        for (int i = 0; i < points.length; i++) {
+            // Around Mumbai, plus a few near the antimeridian and the poles
+            double lat = i % 10 == 0 ? -89 + random.nextDouble() * 178 : 19 + random.nextDouble();
+            double lon = i % 10 == 1 ? 179.9 - random.nextDouble() * 0.2 + (random.nextBoolean() ? 0 : -359.6)
+                    : 72.5 + random.nextDouble();
+            points[i] = new double[]{lat, lon};
+            builder.add(i, "city", lat, lon);
+        }
+        TheaterGrid grid = builder.build();
+
+        double[][] queries = {{19.5, 73.0}, {19.0, 72.5}, {0, 179.99}, {0, -179.99}, {85, 10}};
+        for (double[] query : queries) {
+            for (double radiusKm : new double[]{1, 5, 25, 300}) {
+                List<Long> expected = bruteForce(points, query[0], query[1], radiusKm);
+                List<Long> actual = grid.within(query[0], query[1], radiusKm).stream().map(TheaterSummary::getId).toList();
+                assertEquals(expected, actual, "query " + query[0] + "," + query[1] + " within " + radiusKm);
+            }
+        }
+    }
+
+    @Test
+    void nearestReturnsTheClosestAtAnyDistance() {
+        TheaterGrid grid = TheaterGrid.builder(0.05)
+                .add(1, "Mumbai", 19.07, 72.87)
+                .add(2, "Pune", 18.52, 73.85)
+                .add(3, "Delhi", 28.61, 77.20)
+                .add(4, "Invalid", 120, 0)
+                .build();
+
+        List<TheaterSummary> nearest = grid.nearest(19.0, 72.9, 2);
+
+        assertEquals(List.of(1L, 2L), nearest.stream().map(TheaterSummary::getId).toList());
+        assertTrue(nearest.get(0).getDistanceKm() < nearest.get(1).getDistanceKm());
+        assertEquals(3, grid.size());
+        assertEquals(3, grid.nearest(0, 0, 10).size());
+    }
+
+    private static List<Long> bruteForce(double[][] points, double lat, double lon, double radiusKm) {
+        List<double[]> hits = new ArrayList<>();
+        for (int i = 0; i < points.length; i++) {
+            double distanceKm = GeoCells.distanceKm(lat, lon, points[i][0], points[i][1]);
+            if (distanceKm <= radiusKm) {
+                hits.add(new double[]{distanceKm, i});
+            }
+        }
+        hits.sort(Comparator.<double[]>comparingDouble(hit -> hit[0]).thenComparingDouble(hit -> hit[1]));
+        return hits.stream().map(hit -> (long) hit[1]).toList();
+    }
+}
@@ -0,0 +1,41 @@
+package com.mmtext.searchservice.geo;
+
+import com.mmtext.searchservice.service.GeoCells;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UpcomingShowIndexTests {
+
+    @Test
+    void coveringCellsContainEveryPointWithinTheRadius() {
+        Random random = new Random(11);
+        double[][] centers = {{19.07, 72.87}, {59.9, 10.75}, {-33.87, 151.21}, {0.01, 179.99}};
+        for (double[] center : centers) {
+            for (double radiusKm : new double[]{1, 5, 20}) {
+                Set<String> cells = UpcomingShowIndex.coveringCells(center[0], center[1], radiusKm, 5);
+                for (int i = 0; i < 500; i++) {
+                    // Random point in the circle, nudged along a random bearing
+                    double bearing = random.nextDouble() * 2 * Math.PI;
+                    double km = random.nextDouble() * radiusKm * 0.999;
+                    double lat = center[0] + Math.cos(bearing) * km / 111.32;
+                    double lon = center[1] + Math.sin(bearing) * km / (111.32 * Math.cos(Math.toRadians(lat)));
+                    lon = ((lon + 180) % 360 + 360) % 360 - 180;
+                    if (GeoCells.distanceKm(center[0], center[1], lat, lon) <= radiusKm) {
+                        assertTrue(cells.contains(GeoCells.encode(lat, lon, 5)),
+                                "cell of " + lat + "," + lon + " missing around " + center[0] + "," + center[1]);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void tooManyCellsMeansScanTheSlot() {
+        assertNull(UpcomingShowIndex.coveringCells(19.07, 72.87, 500, 5));
+    }
+}
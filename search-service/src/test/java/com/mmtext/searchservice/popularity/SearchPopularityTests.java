@@ -0,0 +1,23 @@
+package com.mmtext.searchservice.popularity;
+
+import com.mmtext.searchservice.configuration.PopularityProperties;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class SearchPopularityTests {
+
+    private final SearchPopularity popularity = new SearchPopularity(new PopularityProperties());
+
+    @Test
+    void nearbySearchesInOneCellAndRadiusBucketCountTogether() {
+        popularity.searchedNearby(19.07601, 72.87771, "10km");
+        popularity.searchedNearby(19.07605, 72.87779, "10km");
+
+        String key = SearchPopularity.nearbyKey(19.07601, 72.87771, "10km");
+        assertEquals(key, SearchPopularity.nearbyKey(19.07605, 72.87779, "10km"));
+        assertEquals(2, popularity.estimate(SearchPopularity.Kind.NEARBY, key));
+        assertNotEquals(key, SearchPopularity.nearbyKey(19.07601, 72.87771, "50km"));
+    }
+}
@@ -0,0 +1,62 @@
+package com.mmtext.searchservice.popularity;
+
+import com.mmtext.searchservice.dto.HeavyHitter;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SlidingHeavyHittersTests {
+
+    private final AtomicLong now = new AtomicLong();
+    // 4 buckets of 1s, 2 stripes of 4 candidates each
+    private final SlidingHeavyHitters hitters = new SlidingHeavyHitters(
+            2, 4, Duration.ofSeconds(1), 4, 256, 4, now::get);
+
+    @Test
+    void frequentKeysRankFirstAmongManyRareOnes() {
+        for (int i = 0; i < 500; i++) {
+            hitters.add("rare-" + i);
+            if (i % 5 == 0) {
+                hitters.add("avengers");
+            }
+            if (i % 10 == 0) {
+                hitters.add("dune");
+            }
+        }
+
+        List<HeavyHitter> top = hitters.top(2);
+
+        assertEquals("avengers", top.get(0).getKey());
+        assertEquals("dune", top.get(1).getKey());
+        assertTrue(top.get(0).getCount() >= 100);
+    }
+
+    @Test
+    void estimatesNeverUndercount() {
+        for (int i = 0; i < 1000; i++) {
+            hitters.add("key-" + (i % 50));
+        }
+
+        for (int i = 0; i < 50; i++) {
+            assertTrue(hitters.estimate("key-" + i) >= 20);
+        }
+    }
+
+    @Test
+    void countsLeaveWithTheWindow() {
+        hitters.add("old", 10);
+        now.set(2_000);
+        hitters.add("new", 3);
+        assertEquals(10, hitters.estimate("old"));
+
+        now.set(4_000);
+        assertEquals(0, hitters.estimate("old"));
+        assertEquals(3, hitters.estimate("new"));
+        assertEquals(List.of("new"), hitters.top(10).stream().map(HeavyHitter::getKey).toList());
+    }
+}
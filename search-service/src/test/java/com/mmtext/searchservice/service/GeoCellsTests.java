@@ -0,0 +1,51 @@
+package com.mmtext.searchservice.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GeoCellsTests {
+
+    @Test
+    void encodesKnownGeohash() {
+        assertEquals("u4pruydqqvj", GeoCells.encode(57.64911, 10.40744, 11));
+    }
+
+    @Test
+    void cellContainsTheEncodedPoint() {
+        String cell = GeoCells.encode(28.6139, 77.2090, 5);
+        double[] bounds = GeoCells.bounds(cell);
+
+        assertTrue(bounds[0] <= 28.6139 && 28.6139 <= bounds[1]);
+        assertTrue(bounds[2] <= 77.2090 && 77.2090 <= bounds[3]);
+        double[] center = GeoCells.center(cell);
+        assertTrue(GeoCells.distanceKm(28.6139, 77.2090, center[0], center[1]) <= GeoCells.halfDiagonalKm(cell));
+    }
+
+    @Test
+    void measuresGreatCircleDistance() {
+        // Paris to London
+        assertEquals(343.5, GeoCells.distanceKm(48.8566, 2.3522, 51.5074, -0.1278), 1.0);
+    }
+
+    @Test
+    void roundsRadiusUpToBucket() {
+        assertEquals(10, GeoCells.radiusBucketKm(7));
+        assertEquals(10, GeoCells.radiusBucketKm(10));
+        assertEquals(700, GeoCells.radiusBucketKm(612));
+        assertEquals(5, GeoCells.precisionFor(10));
+        assertEquals(6, GeoCells.precisionFor(2));
+    }
+
+    @Test
+    void parsesDistanceUnits() {
+        assertEquals(10, GeoCells.parseKm("10km"), 1e-9);
+        assertEquals(0.5, GeoCells.parseKm("500m"), 1e-9);
+        assertEquals(0.25, GeoCells.parseKm("250"), 1e-9);
+        assertEquals(1.609344, GeoCells.parseKm("1 mi"), 1e-9);
+        assertThrows(IllegalArgumentException.class, () -> GeoCells.parseKm("far"));
+        assertThrows(IllegalArgumentException.class, () -> GeoCells.parseKm("10 parsecs"));
+    }
+}
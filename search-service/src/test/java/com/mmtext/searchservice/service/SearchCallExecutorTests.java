@@ -0,0 +1,75 @@
+package com.mmtext.searchservice.service;
+
+import com.mmtext.searchservice.configuration.LatencyProperties;
+import com.mmtext.searchservice.exception.SearchTimeoutException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SearchCallExecutorTests {
+
+    private final LatencyProperties properties = new LatencyProperties();
+    private final SearchCallExecutor executor = new SearchCallExecutor(properties, null);
+
+    @AfterEach
+    void tearDown() {
+        executor.destroy();
+    }
+
+    @Test
+    void failsACallThatOutlivesItsBudget() {
+        properties.getBudgets().put("slow", Duration.ofMillis(50));
+
+        assertThrows(SearchTimeoutException.class, () -> executor.call("slow", () -> {
+            Thread.sleep(5_000);
+            return "late";
+        }));
+        assertEquals(1L, stats("slow").get("timeouts"));
+    }
+
+    @Test
+    void passesFailuresThroughWithoutHedging() {
+        properties.getHedge().setEnabled(true);
+        properties.getHedge().setMinSamples(1);
+        properties.getHedge().setMinDelay(Duration.ofMillis(500));
+        executor.call("broken", () -> "ok");
+
+        assertThrows(IllegalStateException.class, () -> executor.call("broken", () -> {
+            throw new IllegalStateException("shard failure");
+        }));
+        assertEquals(0L, stats("broken").get("hedges"));
+    }
+
+    @Test
+    void hedgedCallAnswersWhenTheFirstIsStuck() {
+        properties.getHedge().setEnabled(true);
+        properties.getHedge().setMinSamples(5);
+        properties.getHedge().setMinDelay(Duration.ofMillis(10));
+        for (int i = 0; i < 5; i++) {
+            executor.call("movies", () -> "fast");
+        }
+
+        AtomicInteger attempts = new AtomicInteger();
+        String result = executor.call("movies", () -> {
+            if (attempts.incrementAndGet() == 1) {
+                Thread.sleep(5_000);
+            }
+            return "hedged";
+        });
+
+        assertEquals("hedged", result);
+        assertEquals(1L, stats("movies").get("hedges"));
+        assertEquals(1L, stats("movies").get("hedgeWins"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> stats(String endpoint) {
+        return (Map<String, Object>) executor.stats().get(endpoint);
+    }
+}
@@ -0,0 +1,83 @@
+package com.mmtext.searchservice.service;
+
+import com.mmtext.searchservice.configuration.CircuitBreakerProperties;
+import com.mmtext.searchservice.configuration.LatencyProperties;
+import com.mmtext.searchservice.exception.SearchUnavailableException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SearchCircuitBreakerTests {
+
+    private final CircuitBreakerProperties properties = new CircuitBreakerProperties();
+
+    SearchCircuitBreakerTests() {
+        properties.setMinimumCalls(4);
+        properties.setWindow(4);
+        properties.setFailureRateThreshold(0.5);
+        properties.setOpenDuration(Duration.ofMillis(50));
+    }
+
+    @Test
+    void opensOnceTheFailureRateReachesTheThreshold() {
+        SearchCircuitBreaker breaker = new SearchCircuitBreaker(properties);
+        outcomes(breaker, false, true, false);
+        assertEquals(SearchCircuitBreaker.State.CLOSED, breaker.getState());
+
+        outcomes(breaker, true);
+
+        assertEquals(SearchCircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquire());
+    }
+
+    @Test
+    void letsOneProbeThroughAfterTheOpenDuration() throws InterruptedException {
+        SearchCircuitBreaker breaker = new SearchCircuitBreaker(properties);
+        outcomes(breaker, true, true, true, true);
+
+        Thread.sleep(60);
+
+        assertTrue(breaker.tryAcquire());
+        assertFalse(breaker.tryAcquire());
+        breaker.onSuccess();
+        assertEquals(SearchCircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(breaker.tryAcquire());
+    }
+
+    @Test
+    void openCircuitFailsCallsWithoutSendingThem() {
+        SearchCircuitBreaker breaker = new SearchCircuitBreaker(properties);
+        SearchCallExecutor executor = new SearchCallExecutor(new LatencyProperties(), breaker);
+        AtomicInteger sent = new AtomicInteger();
+        try {
+            for (int i = 0; i < 4; i++) {
+                assertThrows(IllegalStateException.class, () -> executor.call("movies", () -> {
+                    sent.incrementAndGet();
+                    throw new IllegalStateException("cluster unreachable");
+                }));
+            }
+
+            assertThrows(SearchUnavailableException.class, () -> executor.call("movies", sent::incrementAndGet));
+            assertEquals(4, sent.get());
+        } finally {
+            executor.destroy();
+        }
+    }
+
+    private static void outcomes(SearchCircuitBreaker breaker, boolean... failed) {
+        for (boolean failure : failed) {
+            assertTrue(breaker.tryAcquire());
+            if (failure) {
+                breaker.onFailure();
+            } else {
+                breaker.onSuccess();
+            }
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.mmtext.searchservice.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SearchCursorTests {
+
+    @Test
+    void roundTripsSortValues() {
+        List<Object> sortValues = List.of(1.25, 42);
+
+        String cursor = SearchCursor.encode(sortValues);
+
+        assertEquals(sortValues, SearchCursor.decode(cursor));
+    }
+
+    @Test
+    void noSortValuesMeansNoCursor() {
+        assertNull(SearchCursor.encode(List.of()));
+        assertNull(SearchCursor.encode(null));
+    }
+
+    @Test
+    void rejectsGarbage() {
+        assertThrows(IllegalArgumentException.class, () -> SearchCursor.decode("not a cursor!"));
+    }
+}
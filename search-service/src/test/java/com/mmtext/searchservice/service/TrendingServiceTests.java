@@ -0,0 +1,101 @@
+package com.mmtext.searchservice.service;
+
+import co.elastic.clients.elasticsearch._types.SortOrder;
+import co.elastic.clients.elasticsearch._types.aggregations.Aggregate;
+import co.elastic.clients.elasticsearch._types.aggregations.Aggregation;
+import co.elastic.clients.elasticsearch._types.aggregations.LongTermsBucket;
+import com.mmtext.searchservice.configuration.TrendingProperties;
+import com.mmtext.searchservice.esdocument.MovieDocument;
+import com.mmtext.searchservice.esdocument.ShowDocument;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.elasticsearch.client.elc.ElasticsearchAggregations;
+import org.springframework.data.elasticsearch.client.elc.NativeQuery;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.MultiGetItem;
+import org.springframework.data.elasticsearch.core.SearchHits;
+import org.springframework.data.elasticsearch.core.query.Query;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TrendingServiceTests {
+
+    private final ElasticsearchOperations elasticsearchOperations = mock(ElasticsearchOperations.class);
+    private final TrendingProperties properties = new TrendingProperties();
+    private final TrendingService trendingService = new TrendingService(elasticsearchOperations, properties);
+
+    @Test
+    void keepsTheRankingOrderAndDropsMissingMovies() {
+        ranking(7L, 3L, 9L);
+        when(elasticsearchOperations.multiGet(any(Query.class), eq(MovieDocument.class)))
+                .thenReturn(List.of(found(7L), found(3L), MultiGetItem.of(null, null)));
+
+        trendingService.refresh();
+
+        assertEquals(List.of(7L, 3L), ids(trendingService.trendingMovies()));
+    }
+
+    @Test
+    void ranksByScoreThatHalvesEveryHalfLife() {
+        properties.setHalfLife(Duration.ofHours(12));
+        ranking();
+
+        trendingService.refresh();
+
+        ArgumentCaptor<NativeQuery> query = ArgumentCaptor.forClass(NativeQuery.class);
+        verify(elasticsearchOperations).search(query.capture(), eq(ShowDocument.class));
+        Aggregation byMovie = query.getValue().getAggregations().get("by_movie");
+        assertEquals(SortOrder.Desc, byMovie.terms().order().get(0).value());
+        assertEquals("score", byMovie.terms().order().get(0).name());
+        double lambda = byMovie.aggregations().get("score").sum().script().params().get("lambda").to(Double.class);
+        // The weight of the script, exp(-lambda * hours), for a show one and two half-lives away
+        assertEquals(0.5, Math.exp(-lambda * 12), 1e-9);
+        assertEquals(0.25, Math.exp(-lambda * 24), 1e-9);
+    }
+
+    @Test
+    void keepsThePreviousRankingWhenARefreshFails() {
+        ranking(5L);
+        when(elasticsearchOperations.multiGet(any(Query.class), eq(MovieDocument.class))).thenReturn(List.of(found(5L)));
+        trendingService.refresh();
+
+        when(elasticsearchOperations.search(any(NativeQuery.class), eq(ShowDocument.class)))
+                .thenThrow(new IllegalStateException("cluster unavailable"));
+        trendingService.refresh();
+
+        assertEquals(List.of(5L), ids(trendingService.trendingMovies()));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void ranking(Long... movieIds) {
+        List<LongTermsBucket> buckets = new ArrayList<>();
+        for (Long movieId : movieIds) {
+            buckets.add(LongTermsBucket.of(b -> b.key(movieId).docCount(1)));
+        }
+        Aggregate aggregate = Aggregate.of(a -> a.lterms(t -> t.buckets(b -> b.array(buckets))));
+        SearchHits<ShowDocument> hits = mock(SearchHits.class);
+        doReturn(new ElasticsearchAggregations(Map.of("by_movie", aggregate))).when(hits).getAggregations();
+        when(elasticsearchOperations.search(any(NativeQuery.class), eq(ShowDocument.class))).thenReturn(hits);
+    }
+
+    private static MultiGetItem<MovieDocument> found(Long id) {
+        MovieDocument movie = new MovieDocument();
+        movie.setId(id);
+        return MultiGetItem.of(movie, null);
+    }
+
+    private static List<Long> ids(List<MovieDocument> movies) {
+        return movies.stream().map(MovieDocument::getId).toList();
+    }
+}
@@ -0,0 +1,55 @@
+package com.mmtext.searchservice.suggest;
+
+import com.mmtext.searchservice.dto.MovieSuggestion;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TitleTrieTests {
+
+    private final TitleTrie trie = TitleTrie.builder(3)
+            .add(1, "Spider-Man: No Way Home", 5)
+            .add(2, "Man of Steel", 2)
+            .add(3, "Iron Man", 9)
+            .add(4, "Home Alone", 1)
+            .add(5, "Home Sweet Home", 7)
+            .build();
+
+    @Test
+    void titlesStartingWithThePrefixRankBeforeLaterWords() {
+        assertEquals(List.of(2L, 3L, 1L), ids(trie.suggest("man", 10)));
+    }
+
+    @Test
+    void higherWeightRanksFirstAndEachMovieOnlyOnce() {
+        assertEquals(List.of(5L, 4L, 1L), ids(trie.suggest("home", 10)));
+    }
+
+    @Test
+    void prefixIsNormalizedLikeTheCompletionPath() {
+        assertEquals(List.of(1L), ids(trie.suggest("SPIDER-m", 10)));
+        assertEquals(List.of(1L), ids(trie.suggest("no way h", 10)));
+        assertTrue(trie.suggest("xyz", 10).isEmpty());
+        assertTrue(trie.suggest(" - ", 10).isEmpty());
+    }
+
+    @Test
+    void resultIsBoundedByTheRequestAndTopK() {
+        assertEquals(1, trie.suggest("m", 1).size());
+        assertEquals(3, trie.suggest("m", 10).size());
+    }
+
+    @Test
+    void reportsItsFootprint() {
+        assertEquals(5, trie.movieCount());
+        assertTrue(trie.nodeCount() > 1);
+        assertTrue(trie.estimatedBytes() > 0);
+    }
+
+    private static List<Long> ids(List<MovieSuggestion> suggestions) {
+        return suggestions.stream().map(MovieSuggestion::getId).toList();
+    }
+}